@@ -65,6 +65,11 @@ tasks.withType<Test>().configureEach {
         systemProperties["testGradleVersion"] = testGradleVersion
     }
 
+    // Run the plugin startup benchmark with -DbenchmarkIterations=10, optionally failing above -DbenchmarkMaxOverheadMs=500
+    listOf("benchmarkIterations", "benchmarkMaxOverheadMs").forEach { property ->
+        System.getProperty(property)?.let { systemProperties[property] = it }
+    }
+
     // Re-run the tests when something from sample-projects changes
     inputs.dir("../sample-projects")
 }
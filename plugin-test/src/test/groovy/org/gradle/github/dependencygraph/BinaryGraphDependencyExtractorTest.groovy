@@ -0,0 +1,63 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class BinaryGraphDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "writes binary dependency graph that can be queried"() {
+        given:
+        def bar = mavenRepo.module("org.test", "bar", "1.0").dependsOn(foo).publish()
+        buildFile << """
+        dependencies {
+            implementation "org.test:bar:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_RENDERERS=org.gradle.dependencygraph.binary.BinaryDependencyGraphRenderer")
+        run()
+
+        then:
+        def query = Class.forName("org.gradle.dependencygraph.binary.QueryDependencyGraph")
+        def graph = Class.forName("org.gradle.dependencygraph.binary.BinaryDependencyGraph")
+            .getConstructor(File)
+            .newInstance(reportDir.file("dependency-graph.bin"))
+        !graph.partial
+        graph.findComponent(purlFor(foo)) == graph.findComponent("org.test:foo:1.0")
+
+        query.INSTANCE.query(graph, "component", ["org.test:bar:1.0"]) == [
+            "org.test:bar:1.0 ${purlFor(bar)}".toString(),
+            "  -> org.test:foo:1.0 ${purlFor(foo)}".toString()
+        ]
+        query.INSTANCE.query(graph, "dependents", ["org.test:foo:1.0"]) == ["org.test:bar:1.0 ${purlFor(bar)}".toString()]
+        query.INSTANCE.query(graph, "configurations", [purlFor(foo)]).sort() == [
+            ": compileClasspath (Unknown)",
+            ": runtimeClasspath (Unknown)",
+            ": testCompileClasspath (Unknown)",
+            ": testRuntimeClasspath (Unknown)"
+        ]
+        query.INSTANCE.query(graph, "members", [":", "runtimeClasspath"]).size() == 2
+    }
+}
@@ -0,0 +1,109 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class ChangedProjectsDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private MavenModule bar
+    private MavenModule baz
+    private MavenModule qux
+    private File previousGraph
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+        bar = mavenRepo.module("org.test", "bar", "1.0").publish()
+        baz = mavenRepo.module("org.test", "baz", "1.0").publish()
+        qux = mavenRepo.module("org.test", "qux", "1.0").publish()
+
+        previousGraph = file("previous-graph.json")
+        executer.withArgument("-DDEPENDENCY_GRAPH_BASE_COMMIT=HEAD")
+        executer.withArgument("-DDEPENDENCY_GRAPH_PREVIOUS_GRAPH=${previousGraph.absolutePath}")
+
+        file("settings.gradle") << """
+            rootProject.name = 'a'
+            include 'b', 'c'
+        """
+        file("build.gradle") << """
+            allprojects {
+                repositories {
+                    maven { url "${mavenRepo.uri}" }
+                }
+                configurations.create("compile")
+            }
+            dependencies {
+                compile "org.test:foo:1.0"
+            }
+        """
+        file("b/build.gradle") << """
+            dependencies {
+                compile "org.test:bar:1.0"
+            }
+        """
+        file("c/build.gradle") << """
+            dependencies {
+                compile "org.test:baz:1.0"
+            }
+        """
+        file(".gitignore").text = ["build/", ".gradle/", "maven-repo/", "reports/", "test-kit/", "*.json"].join("\n")
+
+        git("init")
+        git("add", ".")
+        git("-c", "user.name=Test", "-c", "user.email=test@example.com", "commit", "-m", "Initial commit")
+    }
+
+    def "resolves all projects when no previous graph is available"() {
+        when:
+        def result = run()
+
+        then:
+        result.output.contains("Resolving all projects: no previous dependency graph available")
+        reportDir.file("resolved-configurations.json").exists()
+        gitHubManifest().assertResolved(["org.test:foo:1.0", "org.test:bar:1.0", "org.test:baz:1.0"])
+    }
+
+    def "resolves only projects changed since base commit"() {
+        given:
+        run()
+        previousGraph.text = reportDir.file("resolved-configurations.json").text
+
+        when:
+        file("b/build.gradle").text = file("b/build.gradle").text.replace("org.test:bar:1.0", "org.test:qux:1.0")
+        def result = run()
+
+        then:
+        result.output.contains("Resolving 1 of 3 projects changed since 'HEAD': :b")
+        result.output.contains("Reusing 2 configuration(s) of unchanged projects")
+        gitHubManifest().assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)],
+            "org.test:qux:1.0": [package_url: purlFor(qux)],
+            "org.test:baz:1.0": [package_url: purlFor(baz)]
+        ])
+    }
+
+    def "resolves all projects when settings change"() {
+        given:
+        run()
+        previousGraph.text = reportDir.file("resolved-configurations.json").text
+
+        when:
+        file("settings.gradle") << """
+            // Changed settings
+        """
+        def result = run()
+
+        then:
+        result.output.contains("Resolving all projects: settings file changed")
+        !result.output.contains("of unchanged projects")
+        gitHubManifest().assertResolved(["org.test:foo:1.0", "org.test:bar:1.0", "org.test:baz:1.0"])
+    }
+
+    private void git(String... args) {
+        def process = (["git"] + args.toList()).execute(null, testDirectory)
+        def output = new StringBuilder()
+        process.waitForProcessOutput(output, output)
+        assert process.exitValue() == 0: output
+    }
+}
@@ -0,0 +1,114 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class CheckpointDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private MavenModule bar
+    private MavenModule baz
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+        executer.withArgument("-DDEPENDENCY_GRAPH_CHECKPOINTS=true")
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+        bar = mavenRepo.module("org.test", "bar", "1.0").publish()
+        baz = mavenRepo.module("org.test", "baz", "1.0").publish()
+
+        file("settings.gradle") << """
+            rootProject.name = 'a'
+            include 'b'
+        """
+
+        buildFile = file("build.gradle") << """
+            allprojects {
+                group = "org.test"
+                version = "1.0"
+
+                repositories {
+                    maven { url "${mavenRepo.uri}" }
+                }
+            }
+
+            project(':') {
+                configurations.create("compile")
+                dependencies {
+                    compile "org.test:foo:1.0"
+                }
+            }
+            project(':b') {
+                configurations.create("compile")
+                dependencies {
+                    compile "org.test:bar:1.0"
+                }
+            }
+        """
+    }
+
+    def "writes a checkpoint record for each extracted configuration"() {
+        when:
+        run()
+
+        then:
+        reportDir.file("checkpoints").listFiles().findAll { it.name.endsWith(".json") }.size() == 2
+    }
+
+    def "resumes extraction from checkpointed configurations"() {
+        given:
+        run(":ForceDependencyResolutionPlugin_resolveProjectDependencies")
+
+        when:
+        def result = run()
+
+        then:
+        result.output.contains("Reusing 1 checkpointed configuration(s) from a previous dependency graph extraction.")
+        gitHubManifest().assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)],
+            "org.test:bar:1.0": [package_url: purlFor(bar)]
+        ])
+    }
+
+    def "does not reuse checkpoints when build inputs change"() {
+        given:
+        run()
+
+        when:
+        buildFile.text = buildFile.text.replace("org.test:foo:1.0", "org.test:baz:1.0")
+        def result = run()
+
+        then:
+        !result.output.contains("checkpointed configuration(s)")
+        gitHubManifest().assertResolved([
+            "org.test:baz:1.0": [package_url: purlFor(baz)],
+            "org.test:bar:1.0": [package_url: purlFor(bar)]
+        ])
+    }
+
+    def "does not reuse checkpoints when a script applied from a build script changes"() {
+        given:
+        def sharedScript = file("gradle/shared-dependencies.gradle") << """
+            dependencies {
+                compile "org.test:baz:1.0"
+            }
+        """
+        buildFile << """
+            project(':b') {
+                apply from: rootProject.file("gradle/shared-dependencies.gradle")
+            }
+        """
+        run()
+
+        when:
+        sharedScript.text = sharedScript.text.replace("org.test:baz:1.0", "org.test:foo:1.0")
+        def result = run()
+
+        then:
+        !result.output.contains("checkpointed configuration(s)")
+        gitHubManifest().assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)],
+            "org.test:bar:1.0": [package_url: purlFor(bar)]
+        ])
+    }
+}
@@ -0,0 +1,80 @@
+package org.gradle.github.dependencygraph
+
+import groovy.json.JsonSlurper
+import org.gradle.test.fixtures.maven.MavenModule
+
+class CompressedSnapshotDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "writes gzip-compressed dependency snapshot and publishes its path as a step output"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+        def githubOutput = file("github-output.txt")
+        githubOutput.createNewFile()
+        def envVars = environmentVars.asEnvironmentMap()
+        envVars.put("GITHUB_OUTPUT", githubOutput.absolutePath)
+        executer.withEnvironmentVars(envVars)
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_OUTPUT_ENCODING=gzip")
+        def buildResult = run()
+
+        then:
+        def snapshotFile = reportDir.file("${environmentVars.jobCorrelator}.json.gz")
+        !dependencyGraphFile.exists()
+        buildResult.output.contains("Wrote dependency snapshot (gzip, ${snapshotFile.length()} bytes, encoded in ")
+        githubOutput.text == "dependency-graph-file=${snapshotFile.absolutePath}\n"
+
+        def snapshot = new java.util.zip.GZIPInputStream(snapshotFile.newInputStream()).withCloseable {
+            new JsonSlurper().parse(it) as Map
+        }
+        def manifest = (snapshot.manifests as Map)[environmentVars.jobCorrelator] as Map
+        new GitHubManifest(manifest).assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+    }
+
+    def "writes compact dependency snapshot"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_OUTPUT_ENCODING=compact")
+        run()
+
+        then:
+        !dependencyGraphFile.text.contains("\n")
+        gitHubManifest().assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+    }
+}
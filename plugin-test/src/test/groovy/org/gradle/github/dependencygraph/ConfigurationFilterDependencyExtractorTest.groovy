@@ -327,4 +327,49 @@ class ConfigurationFilterDependencyExtractorTest extends BaseExtractorTest {
         gitHubManifest().assertResolved(["org.test:bar:1.0"])
     }
 
+    def "renders snapshot variants from a single resolution"() {
+        given:
+        settingsFile << "include 'a', 'b'"
+
+        buildFile << """
+            project(':a') {
+                apply plugin: 'java-library'
+                dependencies {
+                    api 'org.test:foo:1.0'
+                    testImplementation 'org.test:bar:1.0'
+                }
+            }
+            project(':b') {
+                apply plugin: 'java-library'
+                dependencies {
+                    implementation 'org.test:baz:1.0'
+                }
+            }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_VARIANTS=runtime,teamB")
+        executer.withArgument("-DDEPENDENCY_GRAPH_VARIANT_runtime_INCLUDE_CONFIGURATIONS=runtimeClasspath")
+        executer.withArgument("-DDEPENDENCY_GRAPH_VARIANT_runtime_RUNTIME_INCLUDE_CONFIGURATIONS=runtimeClasspath")
+        executer.withArgument("-DDEPENDENCY_GRAPH_VARIANT_teamB_INCLUDE_PROJECTS=:b")
+        executer.withArgument("-DDEPENDENCY_GRAPH_VARIANT_teamB_JOB_CORRELATOR=team-b")
+        run()
+
+        then:
+        gitHubManifest().assertResolved(["org.test:foo:1.0", "org.test:bar:1.0", "org.test:baz:1.0"])
+
+        def runtimeSnapshot = variantSnapshot("${environmentVars.jobCorrelator}-runtime")
+        runtimeSnapshot.job.id == environmentVars.jobId
+        def runtimeResolved = runtimeSnapshot.manifests["${environmentVars.jobCorrelator}-runtime"].resolved as Map
+        runtimeResolved.keySet() == ["org.test:foo:1.0", "org.test:baz:1.0", "org.test:bar:1.0"] as Set
+        runtimeResolved.values().every { it.scope == "runtime" }
+
+        def teamBSnapshot = variantSnapshot("team-b")
+        def teamBResolved = teamBSnapshot.manifests["team-b"].resolved as Map
+        teamBResolved.keySet() == ["org.test:baz:1.0", "org.test:bar:1.0"] as Set
+    }
+
+    private Map variantSnapshot(String correlator) {
+        return new groovy.json.JsonSlurper().parse(reportDir.file("${correlator}.json")) as Map
+    }
 }
@@ -0,0 +1,62 @@
+package org.gradle.github.dependencygraph
+
+import groovy.json.JsonSlurper
+import org.gradle.test.fixtures.maven.MavenModule
+
+class CycloneDxDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "renders CycloneDX bill of materials alongside the dependency snapshot"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_RENDERERS=org.gradle.dependencygraph.cyclonedx.CycloneDxDependencyGraphRenderer")
+        run()
+
+        then:
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+
+        def bom = new JsonSlurper().parse(reportDir.file("bom.cdx.json")) as Map
+        bom.bomFormat == "CycloneDX"
+        bom.specVersion == "1.5"
+        def components = bom.components as List<Map>
+        components.size() == 1
+        components[0].purl == purlFor(foo)
+        components[0].group == "org.test"
+        components[0].name == "foo"
+        components[0].version == "1.0"
+        def dependencies = bom.dependencies as List<Map>
+        dependencies.find { it.ref == "root" }.dependsOn == [purlFor(foo)]
+        dependencies.find { it.ref == purlFor(foo) }.dependsOn == []
+        (bom.compositions as List<Map>)[0].aggregate == "complete"
+    }
+}
@@ -0,0 +1,103 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class DaemonCacheDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "reports daemon cache usage when daemon cache is enabled"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_DAEMON_CACHE=true")
+        def firstResult = run()
+        def buildResult = run()
+
+        then:
+        // The second build runs in the same daemon, and finds every configuration extracted by the first build
+        def firstUsage = firstResult.output =~ /Dependency graph daemon cache: (\d+) hit\(s\), (\d+) miss\(es\) in this build/
+        firstUsage.find()
+        firstUsage.group(1) == "0"
+        def misses = firstUsage.group(2) as int
+        misses > 0
+
+        def secondUsage = buildResult.output =~ /Dependency graph daemon cache: (\d+) hit\(s\), (\d+) miss\(es\) in this build/
+        secondUsage.find()
+        (secondUsage.group(1) as int) == misses
+        secondUsage.group(2) == "0"
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+    }
+
+    def "does not reuse daemon cache entries when the build script changes"() {
+        given:
+        def bar = mavenRepo.module("org.test", "bar", "1.0").publish()
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_DAEMON_CACHE=true")
+        run()
+        buildFile << """
+        dependencies {
+            implementation "org.test:bar:1.0"
+        }
+        """
+        def buildResult = run()
+
+        then:
+        // The changed build script is an input of every configuration, so the cached configurations are not reused
+        def usage = buildResult.output =~ /Dependency graph daemon cache: (\d+) hit\(s\), (\d+) miss\(es\) in this build/
+        usage.find()
+        usage.group(1) == "0"
+        (usage.group(2) as int) > 0
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)],
+            "org.test:bar:1.0": [package_url: purlFor(bar)]
+        ])
+    }
+
+    def "fails with the parameter name when the daemon cache size is invalid"() {
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_DAEMON_CACHE=true")
+        executer.withArgument("-DDEPENDENCY_GRAPH_DAEMON_CACHE_MAX_ENTRIES=many")
+        def result = runAndFail()
+
+        then:
+        result.output.contains("Invalid value 'many' for DEPENDENCY_GRAPH_DAEMON_CACHE_MAX_ENTRIES: expected an integer")
+    }
+}
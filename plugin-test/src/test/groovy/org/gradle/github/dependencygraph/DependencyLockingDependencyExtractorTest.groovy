@@ -96,4 +96,77 @@ class DependencyLockingDependencyExtractorTest extends BaseExtractorTest {
             ]
         ])
     }
+
+    def "reads dependencies from lockfiles without resolving in lockfile mode"() {
+        given:
+        bar = mavenRepo.module("org.test", "bar", "1.0").publish()
+        baz = mavenRepo.module("org.test", "baz", "1.0").dependsOn(bar).publish()
+        buildFile << """
+        dependencies {
+            implementation "org.test:baz:+"
+        }
+        
+        dependencyLocking {
+            lockAllConfigurations()
+        }
+        """
+
+        // Write dependency lock file, then remove the repository so that any resolution would fail
+        run("dependencies", "--write-locks")
+        mavenRepo.rootDir.deleteDir()
+
+        when:
+        applyDependencyGraphPlugin()
+        executer.withArgument("-DDEPENDENCY_GRAPH_LOCKFILE_MODE=true")
+        def result = run()
+
+        then:
+        result.output.contains("configuration(s) from dependency lockfiles of 1 project(s).")
+
+        // Lockfiles have no repository URLs or edges between dependencies
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:baz:1.0": [package_url: "pkg:maven/org.test/baz@1.0"],
+            "org.test:bar:1.0": [package_url: "pkg:maven/org.test/bar@1.0", relationship: "indirect"]
+        ])
+    }
+
+    def "resolves dependencies when the lockfile is missing a declared module in lockfile mode"() {
+        given:
+        bar = mavenRepo.module("org.test", "bar", "1.0").publish()
+        baz = mavenRepo.module("org.test", "baz", "1.0").dependsOn(bar).publish()
+        buildFile << """
+        dependencies {
+            implementation "org.test:baz:+"
+        }
+        
+        dependencyLocking {
+            lockAllConfigurations()
+            lockMode = LockMode.LENIENT
+        }
+        """
+
+        // Write dependency lock file, then declare a dependency without updating the lockfile
+        run("dependencies", "--write-locks")
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        applyDependencyGraphPlugin()
+        executer.withArgument("-DDEPENDENCY_GRAPH_LOCKFILE_MODE=true")
+        def result = run()
+
+        then:
+        result.output.contains("the dependency lockfile is missing declared modules: org.test:foo")
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:baz:1.0": [package_url: purlFor(baz), dependencies: ["org.test:bar:1.0"]],
+            "org.test:bar:1.0": [package_url: purlFor(bar), relationship: "indirect"],
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+    }
 }
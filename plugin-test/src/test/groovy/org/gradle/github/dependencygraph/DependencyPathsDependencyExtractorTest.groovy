@@ -0,0 +1,52 @@
+package org.gradle.github.dependencygraph
+
+import groovy.json.JsonSlurper
+import org.gradle.test.fixtures.maven.MavenModule
+
+class DependencyPathsDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "explains shortest dependency paths to a module"() {
+        given:
+        mavenRepo.module("org.test", "bar", "1.0").dependsOn(foo).publish()
+        buildFile << """
+        dependencies {
+            implementation "org.test:bar:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_EXPLAIN_MODULES=org.test:foo")
+        def buildResult = run()
+
+        then:
+        buildResult.output.contains("Explained org.test:foo in 4 configuration(s)")
+
+        def explanations = new JsonSlurper().parse(reportDir.file("dependency-paths.json")) as List<Map>
+        explanations*.configuration.sort() == ["compileClasspath", "runtimeClasspath", "testCompileClasspath", "testRuntimeClasspath"]
+        explanations.every {
+            it.path == ":" && it.component == "org.test:foo:1.0" && it.paths == [["org.test:bar:1.0", "org.test:foo:1.0"]]
+        }
+    }
+}
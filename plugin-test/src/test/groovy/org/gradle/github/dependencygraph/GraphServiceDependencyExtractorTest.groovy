@@ -0,0 +1,84 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class GraphServiceDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "exposes extracted dependency graph to other tasks"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+        file("init.gradle") << """
+        rootProject {
+            tasks.register("printDependencyGraph") { task ->
+                def dependencyGraph = org.gradle.dependencygraph.DependencyGraphService.usedBy(task)
+                doLast {
+                    def graph = dependencyGraph.get()
+                    def runtimeClasspath = graph.findResolvedConfiguration(":", "runtimeClasspath")
+                    println "runtimeClasspath: " + runtimeClasspath.allDependencies*.id
+                    println "containing foo: " + graph.getResolvedConfigurationsContaining("org.test:foo:1.0")*.configurationName.sort()
+                }
+            }
+        }
+        """
+
+        when:
+        def buildResult = run("printDependencyGraph")
+
+        then:
+        buildResult.task(":ForceDependencyResolutionPlugin_resolveAllDependencies") != null
+        buildResult.output.contains("runtimeClasspath: [org.test:foo:1.0]")
+        buildResult.output.contains("containing foo: [compileClasspath, runtimeClasspath, testCompileClasspath, testRuntimeClasspath]")
+    }
+
+    def "fails to expose dependency graph to other tasks when configurations may be reused"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+        file("init.gradle") << """
+        rootProject {
+            tasks.register("printDependencyGraph") { task ->
+                def dependencyGraph = org.gradle.dependencygraph.DependencyGraphService.usedBy(task)
+                doLast {
+                    println "configurations: " + dependencyGraph.get().getResolvedConfigurations().size()
+                }
+            }
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_CHECKPOINTS=true")
+        def buildResult = runAndFail("printDependencyGraph")
+
+        then:
+        buildResult.output.contains(":printDependencyGraph cannot use the dependency graph when DEPENDENCY_GRAPH_CHECKPOINTS is set")
+    }
+}
@@ -0,0 +1,69 @@
+package org.gradle.github.dependencygraph
+
+import groovy.json.JsonSlurper
+import org.gradle.test.fixtures.maven.MavenModule
+
+class LenientResolutionDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+        mavenRepo.module("org.test", "bar", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }
+
+            configurations {
+                broken
+            }
+
+            dependencies {
+                implementation "org.test:foo:1.0"
+                broken "org.test:bar:1.0"
+            }
+
+            configurations.broken.incoming.beforeResolve {
+                throw new RuntimeException("Broken configuration")
+            }
+        """
+    }
+
+    def "fails when a configuration cannot be resolved"() {
+        when:
+        runAndFail()
+
+        then:
+        !dependencyGraphFile.exists()
+    }
+
+    def "writes dependency graph and failure report in lenient mode"() {
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_LENIENT_RESOLUTION=true")
+        run()
+
+        then:
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+
+        def failures = new JsonSlurper().parse(reportDir.file("dependency-resolution-failures.json")) as List<Map>
+        failures.size() == 1
+        failures[0].projectPath == ":"
+        failures[0].configurationName == "broken"
+        failures[0].cause.contains("Broken configuration")
+    }
+}
@@ -284,4 +284,106 @@ class MultiProjectDependencyExtractorTest extends BaseExtractorTest {
             "org.test:bar:1.0": [package_url: purlFor(bar)]
         ])
     }
+
+    def "resolves configurations with identical dependency declarations once when deduplication is enabled"() {
+        given:
+        settingsFile << "include 'a', 'b', 'c'"
+        buildFile << """
+            project(':a') {
+                apply plugin: 'java-library'
+                dependencies {
+                    api 'org.test:foo:1.0'
+                }
+            }
+            project(':b') {
+                apply plugin: 'java-library'
+                dependencies {
+                    api 'org.test:foo:1.0'
+                }
+            }
+            project(':c') {
+                apply plugin: 'java-library'
+                dependencies {
+                    api 'org.test:baz:1.0'
+                }
+            }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_DEDUPLICATE_CONFIGURATIONS=true")
+        executer.withArgument("-DDEPENDENCY_GRAPH_PERSIST_EXTRACTION=true")
+        executer.withArgument("--info")
+        def buildResult = run()
+
+        then:
+        buildResult.output.contains("configuration(s) have identical dependency declarations in another project")
+        buildResult.output.contains("configuration(s) from projects with identical dependency declarations.")
+
+        def aliases = new groovy.json.JsonSlurper().parse(reportDir.file("deduplicated-configurations/%3A.json")) as List<Map>
+        aliases.find { it.projectPath == ":b" && it.configurationName == "compileClasspath" }?.representativeProjectPath == ":a"
+        aliases.every { it.projectPath == ":b" }
+
+        // Only the representative configuration is resolved
+        buildResult.output.contains("Including resolved configuration in dependency graph: :a - compileClasspath")
+        !buildResult.output.contains("Including resolved configuration in dependency graph: :b - compileClasspath")
+
+        when:
+        def outputDir = file("rendered")
+        def cli = Class.forName("org.gradle.dependencygraph.RenderDependencyGraph")
+        cli.main([reportDir.file("dependency-graph-extraction.json.gz").path, outputDir.path, "org.gradle.dependencygraph.simple.SimpleDependencyGraphRenderer"] as String[])
+        def configurations = new groovy.json.JsonSlurper().parse(new File(outputDir, "dependency-graph.json")) as List<Map>
+        def aliasConfiguration = configurations.find { it.rootOrigin.path == ":b" && it.configurationName == "compileClasspath" }
+
+        then:
+        // The alias is copied from the representative, with the root origin of the alias project
+        aliasConfiguration.rootOrigin.id == "project :b"
+        aliasConfiguration.allDependencies.find { it.id == "org.test:foo:1.0" }.origin == aliasConfiguration.rootOrigin
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)],
+            "org.test:baz:1.0": [package_url: purlFor(baz), dependencies: ["org.test:bar:1.0"]],
+            "org.test:bar:1.0": [package_url: purlFor(bar), relationship: "indirect"]
+        ])
+    }
+
+    def "resolves configurations with dependency rules in their own project when deduplication is enabled"() {
+        given:
+        settingsFile << "include 'a', 'b'"
+        buildFile << """
+            project(':a') {
+                apply plugin: 'java-library'
+                dependencies {
+                    api 'org.test:foo:1.0'
+                }
+            }
+            project(':b') {
+                apply plugin: 'java-library'
+                dependencies {
+                    api 'org.test:foo:1.0'
+                }
+                configurations.all {
+                    resolutionStrategy.eachDependency { details ->
+                        if (details.requested.name == 'foo') {
+                            details.useTarget('org.test:bar:1.0')
+                        }
+                    }
+                }
+            }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_DEDUPLICATE_CONFIGURATIONS=true")
+        run()
+
+        then:
+        def aliases = new groovy.json.JsonSlurper().parse(reportDir.file("deduplicated-configurations/%3A.json")) as List<Map>
+        aliases.isEmpty()
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)],
+            "org.test:bar:1.0": [package_url: purlFor(bar)]
+        ])
+    }
 }
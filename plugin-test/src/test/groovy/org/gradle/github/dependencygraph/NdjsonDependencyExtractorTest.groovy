@@ -0,0 +1,54 @@
+package org.gradle.github.dependencygraph
+
+import groovy.json.JsonSlurper
+import org.gradle.test.fixtures.maven.MavenModule
+
+class NdjsonDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "writes newline-delimited JSON dependency reports"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_RENDERERS=org.gradle.dependencygraph.simple.SimpleDependencyGraphRenderer")
+        executer.withArgument("-DDEPENDENCY_GRAPH_SIMPLE_NDJSON=true")
+        run()
+
+        then:
+        !reportDir.file("dependency-graph.json").exists()
+        def json = new JsonSlurper()
+        def configurations = reportDir.file("dependency-graph.ndjson").readLines().collect { json.parseText(it) as Map }
+        configurations*.configurationName.sort() == ["compileClasspath", "runtimeClasspath", "testCompileClasspath", "testRuntimeClasspath"]
+
+        def resolutions = reportDir.file("dependency-resolution.ndjson").readLines().collect { json.parseText(it) as Map }
+        resolutions.size() == 4
+        resolutions.every { it.dependency == "org.test:foo:1.0" && it.path == ":" }
+        resolutions*.configuration.sort() == ["compileClasspath", "runtimeClasspath", "testCompileClasspath", "testRuntimeClasspath"]
+    }
+}
@@ -0,0 +1,92 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class PartialGraphDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "generates partial dependency-graph on task failure when salvage is enabled"() {
+        given:
+        buildFile << """
+            dependencies {
+                implementation "org.test:foo:1.0"
+            }
+            tasks.register("taskThatFails") {
+              doLast {
+                throw new RuntimeException("Failure in task")
+              }
+            }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_SALVAGE_PARTIAL_GRAPH=true")
+        def buildResult = runAndFail("ForceDependencyResolutionPlugin_resolveAllDependencies", "taskThatFails")
+
+        then:
+        buildResult.output.contains("Gradle Build did not complete successfully: Writing partial Dependency Graph from the configurations that were resolved.")
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+        def metadata = jsonManifest(environmentVars.jobCorrelator).metadata as Map
+        metadata.partial == true
+        !metadata.containsKey("unresolved")
+    }
+
+    def "lists unresolved projects in partial dependency-graph"() {
+        given:
+        settingsFile << """
+            include 'b'
+        """
+        buildFile << """
+            dependencies {
+                implementation "org.test:foo:1.0"
+            }
+            tasks.register("taskThatFails") {
+              doLast {
+                throw new RuntimeException("Failure in task")
+              }
+            }
+            project(':b') {
+                apply plugin: 'java'
+            }
+        """
+        file("b").mkdirs()
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_SALVAGE_PARTIAL_GRAPH=true")
+        runAndFail(":ForceDependencyResolutionPlugin_resolveProjectDependencies", ":taskThatFails")
+
+        then:
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+        def metadata = jsonManifest(environmentVars.jobCorrelator).metadata as Map
+        metadata.partial == true
+        metadata.unresolved == ":b"
+        reportDir.file("dependency-resolution-failures.json").exists()
+    }
+}
@@ -0,0 +1,54 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class PersistedExtractionDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "renders persisted dependency graph extraction without running the build"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_PERSIST_EXTRACTION=true")
+        run()
+
+        then:
+        def extractionFile = reportDir.file("dependency-graph-extraction.json.gz")
+        extractionFile.exists()
+
+        when:
+        def outputDir = file("rendered")
+        def cli = Class.forName("org.gradle.dependencygraph.RenderDependencyGraph")
+        cli.main([extractionFile.path, outputDir.path, "org.gradle.dependencygraph.simple.SimpleDependencyGraphRenderer"] as String[])
+
+        then:
+        new File(outputDir, "dependency-list.txt").text == "org.test:foo:1.0"
+        new File(outputDir, "dependency-graph.json").exists()
+    }
+}
@@ -0,0 +1,68 @@
+package org.gradle.github.dependencygraph
+
+import spock.lang.Requires
+
+/**
+ * Compares the duration of builds with and without the plugin applied, for builds that resolve nothing.
+ * Run with `-DbenchmarkIterations=<n>`: the benchmark is skipped otherwise.
+ */
+@Requires({ System.getProperty("benchmarkIterations") })
+class PluginStartupBenchmarkTest extends BaseExtractorTest {
+
+    def setup() {
+        file("settings.gradle") << """
+            rootProject.name = 'a'
+            include 'b', 'c'
+        """
+        file("build.gradle") << """
+            subprojects {
+                apply plugin: 'java'
+            }
+        """
+        file("b").mkdirs()
+        file("c").mkdirs()
+    }
+
+    def "measures plugin startup cost"() {
+        given:
+        def iterations = Integer.getInteger("benchmarkIterations")
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+        def pluginArguments = ["--init-script", "init.gradle"]
+
+        when:
+        // Warm up the daemon, with and without the plugin classes
+        executer.withArguments([])
+        run("help")
+        executer.withArguments(pluginArguments)
+        run("help")
+
+        def baseline = []
+        def withPlugin = []
+        iterations.times {
+            executer.withArguments([])
+            baseline << time { run("help") }
+            executer.withArguments(pluginArguments)
+            withPlugin << time { run("help") }
+        }
+
+        then:
+        def baselineMedian = median(baseline)
+        def pluginMedian = median(withPlugin)
+        println "Plugin startup benchmark over $iterations iteration(s): " +
+            "baseline ${baselineMedian} ms, plugin applied ${pluginMedian} ms, overhead ${pluginMedian - baselineMedian} ms (medians)"
+        def maxOverhead = Long.getLong("benchmarkMaxOverheadMs")
+        maxOverhead == null || pluginMedian - baselineMedian <= maxOverhead
+    }
+
+    private static long time(Closure<?> action) {
+        def start = System.nanoTime()
+        action()
+        return (System.nanoTime() - start).intdiv(1_000_000L)
+    }
+
+    private static long median(List<Long> values) {
+        def sorted = values.sort(false)
+        return sorted[sorted.size().intdiv(2)]
+    }
+}
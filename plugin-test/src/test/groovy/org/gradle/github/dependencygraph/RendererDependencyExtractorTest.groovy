@@ -0,0 +1,53 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class RendererDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "renders dependency graph with additional renderers"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_RENDERERS=org.gradle.dependencygraph.simple.SimpleDependencyGraphRenderer")
+        def buildResult = run()
+
+        then:
+        buildResult.output.contains("Rendered dependency graph with 2 renderers: GitHubDependencyGraphRenderer (")
+        buildResult.output.contains("SimpleDependencyGraphRenderer (")
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+        reportDir.file("dependency-list.txt").text == "org.test:foo:1.0"
+        reportDir.file("dependency-graph.json").exists()
+        reportDir.file("dependency-resolution.json").exists()
+    }
+}
@@ -0,0 +1,92 @@
+package org.gradle.github.dependencygraph
+
+import groovy.json.JsonSlurper
+import org.gradle.test.fixtures.maven.MavenModule
+
+class ShardingDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "partitions projects across shards that together resolve every project"() {
+        given:
+        def bar = mavenRepo.module("org.test", "bar", "1.0").publish()
+        def baz = mavenRepo.module("org.test", "baz", "1.0").publish()
+        settingsFile << "include 'p1', 'p2', 'p3'"
+        ["p1", "p2", "p3"].each { file(it).mkdirs() }
+        buildFile << """
+        subprojects {
+            apply plugin: 'java'
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }
+        }
+        project(':p1') { dependencies { implementation "org.test:foo:1.0" } }
+        project(':p2') { dependencies { implementation "org.test:bar:1.0" } }
+        project(':p3') { dependencies { implementation "org.test:baz:1.0" } }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_SHARD_COUNT=2")
+        executer.withArgument("-DDEPENDENCY_GRAPH_SHARD_INDEX=0")
+        def firstResult = run()
+        def firstResolved = gitHubManifest().resolved.keySet()
+        def resolutionTimes = reportDir.file("project-resolution-times.json")
+        def firstTimes = new JsonSlurper().parse(resolutionTimes) as Map
+
+        resetArguments()
+        executer.withArgument("-DDEPENDENCY_GRAPH_SHARD_COUNT=2")
+        executer.withArgument("-DDEPENDENCY_GRAPH_SHARD_INDEX=1")
+        def secondResult = run()
+        def secondResolved = gitHubManifest().resolved.keySet()
+        def secondTimes = new JsonSlurper().parse(resolutionTimes) as Map
+
+        then:
+        firstResult.output.contains("in shard 0 of 2")
+        secondResult.output.contains("in shard 1 of 2")
+
+        firstResolved.intersect(secondResolved).isEmpty()
+        firstResolved + secondResolved == ["org.test:foo:1.0", "org.test:bar:1.0", "org.test:baz:1.0"] as Set
+
+        firstTimes.keySet().intersect(secondTimes.keySet()).isEmpty()
+        firstTimes.keySet() + secondTimes.keySet() == [":", ":p1", ":p2", ":p3"] as Set
+        reportDir.file("shard-skipped-projects").isDirectory()
+
+        when:
+        resetArguments()
+        run()
+
+        then:
+        !reportDir.file("shard-skipped-projects").exists()
+        gitHubManifest().resolved.keySet() == ["org.test:foo:1.0", "org.test:bar:1.0", "org.test:baz:1.0"] as Set
+    }
+
+    def "fails with the parameter name when the shard index is out of range"() {
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_SHARD_COUNT=2")
+        executer.withArgument("-DDEPENDENCY_GRAPH_SHARD_INDEX=2")
+        def result = runAndFail()
+
+        then:
+        result.output.contains("Invalid value '2' for DEPENDENCY_GRAPH_SHARD_INDEX: expected an integer less than DEPENDENCY_GRAPH_SHARD_COUNT (2)")
+    }
+}
@@ -0,0 +1,73 @@
+package org.gradle.github.dependencygraph
+
+import groovy.json.JsonSlurper
+import org.gradle.test.fixtures.maven.MavenModule
+
+class SnapshotDiffDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "writes the dependency changes since a baseline snapshot"() {
+        given:
+        mavenRepo.module("org.test", "bar", "1.0").publish()
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_RUNTIME_INCLUDE_CONFIGURATIONS=runtimeClasspath")
+        run()
+        def baselineFile = file("baseline.json")
+        baselineFile.text = dependencyGraphFile.text
+
+        buildFile << """
+        dependencies {
+            implementation "org.test:bar:1.0"
+        }
+        """
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_DIFF_BASELINE=${baselineFile.absolutePath}")
+        def buildResult = run()
+
+        then:
+        buildResult.output.contains("Dependency changes since ${baselineFile.path}: 1 added, 0 removed, 0 changed")
+
+        def json = new JsonSlurper()
+        def changes = reportDir.file("${environmentVars.jobCorrelator}.diff.ndjson").readLines().collect { json.parseText(it) as Map }
+        changes == [[
+            change: "added",
+            package: "org.test:bar",
+            before: [],
+            after: [[version: "1.0", package_url: purlFor(mavenRepo.module("org.test", "bar", "1.0")), relationship: "direct", scope: "runtime"]]
+        ]]
+
+        when:
+        def cli = Class.forName("org.gradle.github.dependencygraph.diff.DiffDependencySnapshots")
+        def outputFile = file("diff.ndjson")
+        cli.main([dependencyGraphFile.path, baselineFile.path, outputFile.path] as String[])
+
+        then:
+        outputFile.readLines().collect { json.parseText(it) as Map }*.change == ["removed"]
+    }
+}
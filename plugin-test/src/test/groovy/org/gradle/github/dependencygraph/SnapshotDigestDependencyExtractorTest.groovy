@@ -0,0 +1,79 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class SnapshotDigestDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "writes a content digest and detects an unchanged snapshot"() {
+        given:
+        mavenRepo.module("org.test", "bar", "1.0").publish()
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        run()
+
+        then:
+        def digestFile = reportDir.file("${environmentVars.jobCorrelator}.digest")
+        def digest = digestFile.text
+        digest ==~ /[0-9a-f]{64}/
+
+        when:
+        def previousDigestFile = file("previous.digest")
+        previousDigestFile.text = digest
+        def githubOutput = file("github-output.txt")
+        githubOutput.createNewFile()
+        def envVars = environmentVars.asEnvironmentMap()
+        envVars.put("GITHUB_DEPENDENCY_GRAPH_SHA", "other-sha")
+        envVars.put("GITHUB_OUTPUT", githubOutput.absolutePath)
+        executer.withEnvironmentVars(envVars)
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_PREVIOUS_DIGEST=${previousDigestFile.absolutePath}")
+        def buildResult = run()
+
+        then:
+        digestFile.text == digest
+        buildResult.output.contains("Dependency snapshot is unchanged from the previous digest ${digest}")
+        githubOutput.readLines().containsAll(["dependency-graph-digest=${digest}".toString(), "dependency-graph-unchanged=true"])
+
+        when:
+        buildFile << """
+        dependencies {
+            implementation "org.test:bar:1.0"
+        }
+        """
+        githubOutput.text = ""
+        resetArguments()
+        executer.withEnvironmentVars(envVars)
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_PREVIOUS_DIGEST=${digest}")
+        run()
+
+        then:
+        digestFile.text != digest
+        githubOutput.readLines().contains("dependency-graph-unchanged=false")
+    }
+}
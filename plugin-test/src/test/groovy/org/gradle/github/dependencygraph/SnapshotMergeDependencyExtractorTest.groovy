@@ -0,0 +1,70 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class SnapshotMergeDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "merges the dependency snapshots of several jobs into one manifest"() {
+        given:
+        def bar = mavenRepo.module("org.test", "bar", "1.0").dependsOn(foo).publish()
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        // Configurations other than the runtime classpath have development scope
+        executer.withArgument("-DDEPENDENCY_GRAPH_RUNTIME_INCLUDE_CONFIGURATIONS=runtimeClasspath")
+        run()
+        def firstSnapshot = file("first.json")
+        firstSnapshot.text = dependencyGraphFile.text
+
+        buildFile << """
+        dependencies {
+            testImplementation "org.test:bar:1.0"
+        }
+        """
+        run()
+        def secondSnapshot = file("second.json")
+        secondSnapshot.text = dependencyGraphFile.text
+
+        def mergedSnapshot = file("merged.json")
+        def cli = Class.forName("org.gradle.github.dependencygraph.merge.MergeDependencySnapshots")
+        cli.main([mergedSnapshot.path, "merged-correlator", firstSnapshot.path, secondSnapshot.path] as String[])
+
+        then:
+        def snapshot = new JsonRepositorySnapshotLoader(mergedSnapshot).jsonRepositorySnapshot()
+        snapshot.sha == environmentVars.sha
+        (snapshot.job as Map).correlator == "merged-correlator"
+
+        def manifest = new GitHubManifest((snapshot.manifests as Map)["merged-correlator"] as Map)
+        manifest.sourceFile == "settings.gradle"
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo), scope: "runtime"],
+            "org.test:bar:1.0": [package_url: purlFor(bar), scope: "development", dependencies: ["org.test:foo:1.0"]]
+        ])
+    }
+}
@@ -0,0 +1,185 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class SplitSnapshotDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "splits dependency snapshot by project into self-consistent snapshots"() {
+        given:
+        def bar = mavenRepo.module("org.test", "bar", "1.0").dependsOn(foo).publish()
+        settingsFile << "include 'p1', 'p2'"
+        ["p1", "p2"].each { file(it).mkdirs() }
+        buildFile << """
+        subprojects {
+            apply plugin: 'java'
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }
+        }
+        project(':p1') { dependencies { implementation "org.test:foo:1.0" } }
+        project(':p2') {
+            dependencies {
+                implementation project(':p1')
+                implementation "org.test:bar:1.0"
+            }
+        }
+        """
+
+        when:
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SPLIT_BY=project")
+        def result = run()
+
+        then:
+        result.output.contains("Split the dependency graph by project into 2 snapshot(s)")
+        !dependencyGraphFile.exists()
+
+        def p1Correlator = "${environmentVars.jobCorrelator}-p1"
+        def p1Snapshot = new JsonRepositorySnapshotLoader(reportDir.file("${p1Correlator}.json")).jsonRepositorySnapshot()
+        (p1Snapshot.job as Map).correlator == p1Correlator
+        def p1Manifest = new GitHubManifest((p1Snapshot.manifests as Map)[p1Correlator] as Map)
+        p1Manifest.sourceFile == "settings.gradle"
+        p1Manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+
+        def p2Correlator = "${environmentVars.jobCorrelator}-p2"
+        def p2Snapshot = new JsonRepositorySnapshotLoader(reportDir.file("${p2Correlator}.json")).jsonRepositorySnapshot()
+        def p2Manifest = new GitHubManifest((p2Snapshot.manifests as Map)[p2Correlator] as Map)
+        p2Manifest.resolved.keySet() == ["org.test:foo:1.0", "org.test:bar:1.0"] as Set
+        p2Manifest.resolved.values().every { dependency ->
+            (dependency.dependencies as List).every { p2Manifest.resolved.containsKey(it) }
+        }
+    }
+
+    def "splits dependency snapshot by size into snapshots without dangling dependencies"() {
+        given:
+        def bar = mavenRepo.module("org.test", "bar", "1.0").dependsOn(foo).publish()
+        def baz = mavenRepo.module("org.test", "baz", "1.0").publish()
+        settingsFile << "include 'p1', 'p2', 'p3'"
+        ["p1", "p2", "p3"].each { file(it).mkdirs() }
+        buildFile << """
+        subprojects {
+            apply plugin: 'java'
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }
+        }
+        project(':p1') { dependencies { implementation "org.test:foo:1.0" } }
+        project(':p2') { dependencies { implementation "org.test:bar:1.0" } }
+        project(':p3') {
+            dependencies {
+                implementation "org.test:baz:1.0"
+                testImplementation "org.test:bar:1.0"
+            }
+        }
+        """
+
+        when:
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SPLIT_BY=size")
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SPLIT_MAX_BYTES=1000000")
+        def packedResult = run()
+
+        then:
+        // Every project fits in a single part
+        packedResult.output.contains("Split the dependency graph by size into 1 snapshot(s)")
+        !dependencyGraphFile.exists()
+        def packedManifests = sizePartManifests(1)
+        packedManifests[0].resolved.keySet() == ["org.test:foo:1.0", "org.test:bar:1.0", "org.test:baz:1.0"] as Set
+        packedManifests.every { hasNoDanglingDependencies(it) }
+
+        when:
+        resetArguments()
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SPLIT_BY=size")
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SPLIT_MAX_BYTES=1")
+        def splitResult = run()
+
+        then:
+        // No project fits in a part, so each configuration is written as a separate part
+        splitResult.output.contains("alone exceeds the snapshot size target of 1 bytes")
+        def partCount = (splitResult.output =~ /Split the dependency graph by size into (\d+) snapshot\(s\)/)[0][1] as int
+        partCount > 3
+        def splitManifests = sizePartManifests(partCount)
+        splitManifests.every { hasNoDanglingDependencies(it) }
+        splitManifests.collectMany { it.resolved.keySet() } as Set == ["org.test:foo:1.0", "org.test:bar:1.0", "org.test:baz:1.0"] as Set
+        !reportDir.file("${environmentVars.jobCorrelator}-part-${partCount + 1}.json").exists()
+    }
+
+    def "fails to split dependency snapshot by size without a size target"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SPLIT_BY=size")
+        def result = runAndFail()
+
+        then:
+        result.output.contains("GITHUB_DEPENDENCY_GRAPH_SPLIT_MAX_BYTES must be set to split by size")
+    }
+
+    def "ignores previous digest and diff baseline when splitting dependency snapshot"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+        def githubOutput = file("github-output.txt")
+        githubOutput.createNewFile()
+        def envVars = environmentVars.asEnvironmentMap()
+        envVars.put("GITHUB_OUTPUT", githubOutput.absolutePath)
+        executer.withEnvironmentVars(envVars)
+
+        when:
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SPLIT_BY=project")
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_PREVIOUS_DIGEST=0123456789abcdef")
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_DIFF_BASELINE=${file("baseline.json").absolutePath}")
+        def result = run()
+
+        then:
+        result.output.contains("GITHUB_DEPENDENCY_GRAPH_PREVIOUS_DIGEST is ignored when the dependency snapshot is split")
+        result.output.contains("GITHUB_DEPENDENCY_GRAPH_DIFF_BASELINE is ignored when the dependency snapshot is split")
+        githubOutput.text.contains("dependency-graph-files=")
+        !githubOutput.text.contains("dependency-graph-digest=")
+    }
+
+    private List<GitHubManifest> sizePartManifests(int partCount) {
+        return (1..partCount).collect { partNumber ->
+            def partCorrelator = "${environmentVars.jobCorrelator}-part-${partNumber}"
+            def snapshot = new JsonRepositorySnapshotLoader(reportDir.file("${partCorrelator}.json")).jsonRepositorySnapshot()
+            assert (snapshot.job as Map).correlator == partCorrelator
+            new GitHubManifest((snapshot.manifests as Map)[partCorrelator] as Map)
+        }
+    }
+
+    private static boolean hasNoDanglingDependencies(GitHubManifest manifest) {
+        return manifest.resolved.values().every { dependency ->
+            (dependency.dependencies as List).every { manifest.resolved.containsKey(it) }
+        }
+    }
+}
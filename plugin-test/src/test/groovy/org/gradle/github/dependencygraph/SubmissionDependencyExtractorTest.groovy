@@ -0,0 +1,115 @@
+package org.gradle.github.dependencygraph
+
+import com.sun.net.httpserver.HttpServer
+import groovy.json.JsonSlurper
+import org.gradle.test.fixtures.maven.MavenModule
+
+class SubmissionDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "submits dependency snapshot to the submission endpoint and retries when unavailable"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        def requests = Collections.synchronizedList([])
+        def server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0)
+        server.createContext("/repos/owner/repo/dependency-graph/snapshots") { exchange ->
+            requests << [
+                contentEncoding: exchange.requestHeaders.getFirst("Content-Encoding"),
+                authorization: exchange.requestHeaders.getFirst("Authorization"),
+                body: new JsonSlurper().parse(new java.util.zip.GZIPInputStream(exchange.requestBody))
+            ]
+            if (requests.size() == 1) {
+                exchange.responseHeaders.add("Retry-After", "0")
+                exchange.sendResponseHeaders(503, -1)
+            } else {
+                def response = '{"id":1,"result":"SUCCESS"}'.bytes
+                exchange.sendResponseHeaders(201, response.length)
+                exchange.responseBody.write(response)
+            }
+            exchange.close()
+        }
+        server.start()
+
+        when:
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SUBMIT_URL=http://127.0.0.1:${server.address.port}/repos/owner/repo/dependency-graph/snapshots")
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SUBMIT_TOKEN=test-token")
+        def result = run()
+
+        then:
+        result.output.contains("Retrying submission of dependency snapshot '${environmentVars.jobCorrelator}'")
+        result.output.contains("Submitted dependency snapshot '${environmentVars.jobCorrelator}'")
+        requests.size() == 2
+        requests.every { it.contentEncoding == "gzip" && it.authorization == "Bearer test-token" }
+
+        def submitted = requests[1].body as Map
+        (submitted.job as Map).correlator == environmentVars.jobCorrelator
+        def manifest = new GitHubManifest((submitted.manifests as Map)[environmentVars.jobCorrelator] as Map)
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+
+        cleanup:
+        server?.stop(0)
+    }
+
+    def "does not retry submission of dependency snapshot when authentication fails"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        def requests = Collections.synchronizedList([])
+        def server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0)
+        server.createContext("/repos/owner/repo/dependency-graph/snapshots") { exchange ->
+            requests << exchange.requestHeaders.getFirst("Authorization")
+            exchange.requestBody.bytes
+            def response = '{"message":"Bad credentials"}'.bytes
+            exchange.sendResponseHeaders(401, response.length)
+            exchange.responseBody.write(response)
+            exchange.close()
+        }
+        server.start()
+
+        when:
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SUBMIT_URL=http://127.0.0.1:${server.address.port}/repos/owner/repo/dependency-graph/snapshots")
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_SUBMIT_TOKEN=bad-token")
+        def result = runAndFail()
+
+        then:
+        result.output.contains("Failed to submit dependency snapshot '${environmentVars.jobCorrelator}'")
+        result.output.contains("HTTP 401")
+        !result.output.contains("Retrying submission")
+        requests == ["Bearer bad-token"]
+
+        cleanup:
+        server?.stop(0)
+    }
+}
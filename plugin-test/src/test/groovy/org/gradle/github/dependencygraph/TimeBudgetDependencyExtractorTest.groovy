@@ -0,0 +1,126 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class TimeBudgetDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "resolves runtime configurations first within time budget"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_TIME_BUDGET_SECONDS=3600")
+        executer.withArgument("-DDEPENDENCY_GRAPH_RUNTIME_INCLUDE_CONFIGURATIONS=runtimeClasspath")
+        def buildResult = run()
+
+        then:
+        buildResult.task(":ForceDependencyResolutionPlugin_resolveProjectRuntimeDependencies") != null
+        buildResult.output.contains("all configurations of 1 project(s)")
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo), scope: "runtime"]
+        ])
+        jsonManifest(environmentVars.jobCorrelator).metadata == null
+    }
+
+    def "resolves runtime configurations of every project before other configurations within time budget"() {
+        given:
+        def bar = mavenRepo.module("org.test", "bar", "1.0").publish()
+        settingsFile << """
+            include 'b', 'c'
+        """
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+        ["b", "c"].each { name ->
+            file("${name}/build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }
+
+            dependencies {
+                implementation "org.test:bar:1.0"
+                testImplementation "org.test:foo:1.0"
+            }
+            """
+        }
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_TIME_BUDGET_SECONDS=3600")
+        executer.withArgument("-DDEPENDENCY_GRAPH_RUNTIME_INCLUDE_CONFIGURATIONS=runtimeClasspath")
+        def buildResult = run()
+
+        then:
+        // Tasks are listed in the order they completed
+        def taskPaths = buildResult.tasks*.path
+        def runtimeTasks = taskPaths.findAll { it.endsWith(":ForceDependencyResolutionPlugin_resolveProjectRuntimeDependencies") }
+        def remainingTasks = taskPaths.findAll { it.endsWith(":ForceDependencyResolutionPlugin_resolveProjectDependencies") }
+        runtimeTasks.size() == 3
+        remainingTasks.size() == 3
+        runtimeTasks.collect { taskPaths.indexOf(it) }.max() < remainingTasks.collect { taskPaths.indexOf(it) }.min()
+        buildResult.output.contains("all configurations of 3 project(s)")
+    }
+
+    def "fails with the parameter name when the time budget is invalid"() {
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_TIME_BUDGET_SECONDS=-1")
+        def result = runAndFail()
+
+        then:
+        result.output.contains("Invalid value '-1' for DEPENDENCY_GRAPH_TIME_BUDGET_SECONDS: expected an integer of at least 0")
+    }
+
+    def "writes partial dependency-graph when time budget is exhausted"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+
+        when:
+        executer.withArgument("-DDEPENDENCY_GRAPH_TIME_BUDGET_SECONDS=0")
+        def buildResult = run()
+
+        then:
+        buildResult.output.contains("the dependency graph time budget is exhausted")
+        buildResult.output.contains("no configurations of 1 project(s)")
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([:])
+        def metadata = jsonManifest(environmentVars.jobCorrelator).metadata as Map
+        metadata.partial == true
+        metadata.unresolved == ":"
+    }
+}
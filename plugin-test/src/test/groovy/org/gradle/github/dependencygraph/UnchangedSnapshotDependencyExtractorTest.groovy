@@ -0,0 +1,163 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.test.fixtures.maven.MavenModule
+
+class UnchangedSnapshotDependencyExtractorTest extends BaseExtractorTest {
+    private MavenModule foo
+    private File settingsFile
+    private File buildFile
+
+    def setup() {
+        applyDependencyGraphPlugin()
+        establishEnvironmentVariables()
+
+        foo = mavenRepo.module("org.test", "foo", "1.0").publish()
+
+        settingsFile = file("settings.gradle") << """
+            rootProject.name = 'a'    
+        """
+
+        buildFile = file("build.gradle") << """
+            apply plugin: 'java'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }            
+        """
+    }
+
+    def "reuses previous snapshot when dependency inputs are unchanged"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_REUSE_UNCHANGED_SNAPSHOT=true")
+        run()
+
+        when:
+        establishEnvironmentVariables()
+        def buildResult = run()
+
+        then:
+        buildResult.output.contains("Dependency inputs are unchanged: reused the previous dependency snapshot")
+        buildResult.task(":ForceDependencyResolutionPlugin_resolveProjectDependencies") == null
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+    }
+
+    def "does not reuse previous snapshot when the build includes other builds"() {
+        given:
+        settingsFile << """
+            includeBuild 'included'
+        """
+        file("included/settings.gradle") << """
+            rootProject.name = 'included'
+        """
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_REUSE_UNCHANGED_SNAPSHOT=true")
+        run()
+
+        when:
+        establishEnvironmentVariables()
+        def buildResult = run()
+
+        then:
+        // The fingerprint does not cover included builds, so it is not stored alongside the snapshot
+        buildResult.output.contains("No previous dependency snapshot with an inputs fingerprint found")
+        buildResult.task(":ForceDependencyResolutionPlugin_resolveProjectDependencies") != null
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+    }
+
+    def "resolves dependencies when dependency inputs have changed since previous snapshot"() {
+        given:
+        def bar = mavenRepo.module("org.test", "bar", "1.0").publish()
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_REUSE_UNCHANGED_SNAPSHOT=true")
+        run()
+
+        when:
+        buildFile << """
+        dependencies {
+            implementation "org.test:bar:1.0"
+        }
+        """
+        def buildResult = run()
+
+        then:
+        buildResult.output.contains("Dependency inputs have changed since the previous snapshot")
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)],
+            "org.test:bar:1.0": [package_url: purlFor(bar)]
+        ])
+    }
+
+    def "does not reuse previous snapshot when other tasks are requested"() {
+        given:
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_REUSE_UNCHANGED_SNAPSHOT=true")
+        run()
+
+        when:
+        def buildResult = run("help", "ForceDependencyResolutionPlugin_resolveAllDependencies")
+
+        then:
+        buildResult.output.contains("Cannot reuse the previous dependency snapshot when other tasks are requested")
+        !buildResult.output.contains("reused the previous dependency snapshot")
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+    }
+
+    def "resolves dependencies when an init script has changed since previous snapshot"() {
+        given:
+        // Located in the Gradle user home of the test, so that it is not found by visiting the build directory
+        def initScript = file("test-kit/dependency-init.gradle")
+        initScript << "// first version\n"
+        buildFile << """
+        dependencies {
+            implementation "org.test:foo:1.0"
+        }
+        """
+        executer.withArgument("-DGITHUB_DEPENDENCY_GRAPH_REUSE_UNCHANGED_SNAPSHOT=true")
+        executer.withArgument("--init-script")
+        executer.withArgument(initScript.absolutePath)
+        run()
+
+        when:
+        initScript << "// second version\n"
+        def buildResult = run()
+
+        then:
+        buildResult.output.contains("Dependency inputs have changed since the previous snapshot")
+
+        def manifest = gitHubManifest()
+        manifest.assertResolved([
+            "org.test:foo:1.0": [package_url: purlFor(foo)]
+        ])
+    }
+}
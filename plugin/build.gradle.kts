@@ -35,6 +35,7 @@ dependencies {
     // Use JUnit Jupiter for testing.
     testImplementation(libs.junit.jupiter)
     testImplementation(libs.spock.core)
+    testImplementation(kotlin("stdlib-jdk8"))
 }
 
 java {
@@ -34,11 +34,15 @@ abstract class AbstractDependencyExtractorPlugin : Plugin<Gradle> {
         dependencyExtractorProvider = applicatorStrategy.createExtractorService(gradle, getRendererClassName())
 
         gradle.rootProject { project ->
-            dependencyExtractorProvider
-                .get()
-                .rootProjectBuildDirectory = project.layout.buildDirectory.get().asFile
+            val dependencyExtractor = dependencyExtractorProvider.get()
+            dependencyExtractor.rootProjectBuildDirectory = project.layout.buildDirectory.get().asFile
+            dependencyExtractor.initScripts = gradle.startParameter.allInitScripts
+            dependencyExtractor.gradleUserHomeDir = gradle.gradleUserHomeDir
         }
 
+        // Expose the extracted dependency graph to other tasks and plugins
+        DependencyGraphService.register(gradle, dependencyExtractorProvider)
+
         // Register the service to listen for Build Events
         applicatorStrategy.registerExtractorListener(gradle, dependencyExtractorProvider)
 
@@ -46,6 +50,13 @@ abstract class AbstractDependencyExtractorPlugin : Plugin<Gradle> {
         applicatorStrategy.registerExtractorServiceShutdown(gradle, dependencyExtractorProvider)
     }
 
+    /**
+     * Prevents the dependency graph from being written at the end of the build, for example because it was written by other means.
+     */
+    protected fun skipDependencyGraph(reason: String) {
+        dependencyExtractorProvider.get().skipDependencyGraphReason = reason
+    }
+
     /**
      * Adapters for creating the [DependencyExtractor] and installing it into [Gradle] based upon the Gradle version.
      */
@@ -0,0 +1,61 @@
+package org.gradle.dependencygraph
+
+import org.gradle.api.logging.Logging
+import org.gradle.dependencygraph.model.BuildLayout
+import org.gradle.dependencygraph.model.ResolutionFailure
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.util.ConcurrentOutputs
+import org.gradle.dependencygraph.util.PluginParameters
+import java.io.File
+import java.util.Collections
+
+/**
+ * Renders the dependency graph with several renderers concurrently, each on its own thread.
+ * All renderers share a single read-only view of the extracted configurations, which must not be modified.
+ */
+class CompositeDependencyGraphRenderer(private val renderers: List<DependencyGraphRenderer>) : PartialDependencyGraphRenderer {
+
+    override fun outputDependencyGraph(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        outputDirectory: File
+    ) {
+        render(resolvedConfigurations) { renderer, configurations ->
+            renderer.outputDependencyGraph(pluginParameters, buildLayout, configurations, outputDirectory)
+        }
+    }
+
+    override fun outputPartialDependencyGraph(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        unresolved: List<ResolutionFailure>,
+        outputDirectory: File
+    ) {
+        render(resolvedConfigurations) { renderer, configurations ->
+            // Each renderer that cannot mark its output as incomplete renders the partial graph as a complete graph
+            renderer.outputDependencyGraph(pluginParameters, buildLayout, configurations, unresolved, outputDirectory)
+        }
+    }
+
+    private fun render(
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        output: (DependencyGraphRenderer, List<ResolvedConfiguration>) -> Unit
+    ) {
+        val configurations = Collections.unmodifiableList(ArrayList(resolvedConfigurations))
+        val actions = linkedMapOf<String, () -> Unit>()
+        for (renderer in renderers) {
+            val name = renderer.javaClass.simpleName
+            val uniqueName = if (actions.containsKey(name)) "$name#${actions.size + 1}" else name
+            actions[uniqueName] = { output(renderer, configurations) }
+        }
+        val timings = ConcurrentOutputs.run(actions)
+        LOGGER.lifecycle("Rendered dependency graph with ${renderers.size} renderers: " +
+            timings.entries.joinToString { "${it.key} (${it.value} ms)" })
+    }
+
+    companion object {
+        private val LOGGER = Logging.getLogger(CompositeDependencyGraphRenderer::class.java)
+    }
+}
@@ -0,0 +1,35 @@
+package org.gradle.dependencygraph
+
+import org.gradle.dependencygraph.model.ResolutionFailure
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+
+/**
+ * A read-only view of the dependency graph extracted in the current build, for use by other tasks and plugins
+ * that would otherwise resolve the same configurations again. Obtain an instance with [DependencyGraphService.usedBy].
+ *
+ * The view contains the configurations that have been resolved and extracted so far, and is only complete once the
+ * dependency resolution tasks have completed. It is not available when configurations are reused rather than resolved.
+ */
+interface DependencyGraph {
+    /**
+     * All extracted configurations, in the order they were resolved.
+     */
+    fun getResolvedConfigurations(): List<ResolvedConfiguration>
+
+    /**
+     * The extracted configurations of a single project, identified by its identity path.
+     */
+    fun getResolvedConfigurations(projectPath: String): List<ResolvedConfiguration>
+
+    fun findResolvedConfiguration(projectPath: String, configurationName: String): ResolvedConfiguration?
+
+    /**
+     * The extracted configurations that contain the component with the given id, for example `org.test:foo:1.0`.
+     */
+    fun getResolvedConfigurationsContaining(componentId: String): List<ResolvedConfiguration>
+
+    /**
+     * The configurations that failed to resolve, when lenient resolution is enabled.
+     */
+    fun getResolutionFailures(): List<ResolutionFailure>
+}
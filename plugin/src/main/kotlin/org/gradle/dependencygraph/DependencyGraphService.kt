@@ -0,0 +1,69 @@
+package org.gradle.dependencygraph
+
+import org.gradle.api.Task
+import org.gradle.api.invocation.Gradle
+import org.gradle.api.plugins.ExtensionAware
+import org.gradle.api.provider.Provider
+import org.gradle.api.services.BuildService
+import org.gradle.dependencygraph.extractor.PARAM_BASE_COMMIT
+import org.gradle.dependencygraph.extractor.PARAM_CHECKPOINTS
+import org.gradle.dependencygraph.extractor.PARAM_DEDUPLICATE_CONFIGURATIONS
+import org.gradle.dependencygraph.extractor.PARAM_LOCKFILE_MODE
+import org.gradle.dependencygraph.util.PluginParameters
+import org.gradle.forceresolve.RESOLVE_ALL_TASK
+import org.gradle.util.GradleVersion
+
+/**
+ * Provides the [DependencyGraph] extracted by the dependency graph plugin to tasks in any build of the build tree.
+ *
+ * Consumers must load the plugin classes from the same classloader as the plugin, for example by being applied
+ * from the same init script.
+ */
+object DependencyGraphService {
+    private const val EXTRACTOR_PROPERTY = "org.gradle.dependencygraph.extractor"
+
+    internal fun register(gradle: Gradle, dependencyGraphProvider: Provider<out DependencyGraph>) {
+        (gradle as ExtensionAware).extensions.extraProperties.set(EXTRACTOR_PROPERTY, dependencyGraphProvider)
+    }
+
+    /**
+     * Declares that the task uses the dependency graph, and returns a provider for it.
+     * The task will run after all dependencies of its build are resolved.
+     *
+     * Fails when configurations may be reused rather than resolved, with checkpoints, a base commit, lockfile mode
+     * or deduplication, since those configurations are only added when the dependency graph is written at the end of the build.
+     */
+    @JvmStatic
+    fun usedBy(task: Task): Provider<DependencyGraph> {
+        val pluginParameters = PluginParameters()
+        val reusingParameters = listOfNotNull(
+            PARAM_CHECKPOINTS.takeIf { pluginParameters.loadBoolean(it) },
+            PARAM_BASE_COMMIT.takeIf { pluginParameters.loadOptional(it) != null },
+            PARAM_LOCKFILE_MODE.takeIf { pluginParameters.loadBoolean(it) },
+            PARAM_DEDUPLICATE_CONFIGURATIONS.takeIf { pluginParameters.loadBoolean(it) }
+        )
+        check(reusingParameters.isEmpty()) {
+            "${task.path} cannot use the dependency graph when ${reusingParameters.joinToString()} is set: " +
+                "configurations that are not resolved in the build are only added when the dependency graph is written"
+        }
+        val dependencyGraphProvider = dependencyGraphProvider(task.project.gradle)
+        // On Gradle 8 and later, the dependency graph is held by a shared build service
+        if (GradleVersion.current() >= GradleVersion.version("8.0")) {
+            @Suppress("UNCHECKED_CAST")
+            task.usesService(dependencyGraphProvider as Provider<out BuildService<*>>)
+        }
+        task.dependsOn(":$RESOLVE_ALL_TASK")
+        return dependencyGraphProvider.map { it }
+    }
+
+    private fun dependencyGraphProvider(gradle: Gradle): Provider<out DependencyGraph> {
+        var rootGradle = gradle
+        while (rootGradle.parent != null) {
+            rootGradle = rootGradle.parent!!
+        }
+        val extraProperties = (rootGradle as ExtensionAware).extensions.extraProperties
+        check(extraProperties.has(EXTRACTOR_PROPERTY)) { "The dependency graph plugin is not applied to this build" }
+        @Suppress("UNCHECKED_CAST")
+        return extraProperties.get(EXTRACTOR_PROPERTY) as Provider<out DependencyGraph>
+    }
+}
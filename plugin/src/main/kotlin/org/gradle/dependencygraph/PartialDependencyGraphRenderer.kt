@@ -0,0 +1,39 @@
+package org.gradle.dependencygraph
+
+import org.gradle.dependencygraph.model.BuildLayout
+import org.gradle.dependencygraph.model.ResolutionFailure
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.util.PluginParameters
+import java.io.File
+
+/**
+ * A [DependencyGraphRenderer] that can mark its output as incomplete when some configurations could not be resolved.
+ * Renderers that do not implement this interface render a partial graph in the same way as a complete graph.
+ */
+interface PartialDependencyGraphRenderer : DependencyGraphRenderer {
+    fun outputPartialDependencyGraph(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        unresolved: List<ResolutionFailure>,
+        outputDirectory: File
+    )
+}
+
+/**
+ * Renders the dependency graph, as a partial graph if the renderer supports it.
+ * A `null` list of unresolved configurations indicates a complete dependency graph.
+ */
+internal fun DependencyGraphRenderer.outputDependencyGraph(
+    pluginParameters: PluginParameters,
+    buildLayout: BuildLayout,
+    resolvedConfigurations: List<ResolvedConfiguration>,
+    unresolved: List<ResolutionFailure>?,
+    outputDirectory: File
+) {
+    if (unresolved != null && this is PartialDependencyGraphRenderer) {
+        outputPartialDependencyGraph(pluginParameters, buildLayout, resolvedConfigurations, unresolved, outputDirectory)
+    } else {
+        outputDependencyGraph(pluginParameters, buildLayout, resolvedConfigurations, outputDirectory)
+    }
+}
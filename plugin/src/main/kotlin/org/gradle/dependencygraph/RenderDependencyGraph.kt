@@ -0,0 +1,40 @@
+package org.gradle.dependencygraph
+
+import org.gradle.dependencygraph.extractor.DependencyGraphWriter
+import org.gradle.dependencygraph.extractor.PersistedExtraction
+import org.gradle.dependencygraph.util.PluginParameters
+import java.io.File
+import kotlin.system.exitProcess
+
+/**
+ * Renders a dependency graph extraction written with `DEPENDENCY_GRAPH_PERSIST_EXTRACTION`, without running the build.
+ *
+ * Usage: `RenderDependencyGraph <extraction-file> <output-dir> <renderer-class>[,<renderer-class>...]`
+ *
+ * The renderers read their parameters from environment variables or System Properties, as when run in the build.
+ * The Gradle distribution libraries must be on the classpath, as renderers use the Gradle logging API.
+ */
+object RenderDependencyGraph {
+
+    @JvmStatic
+    fun main(args: Array<String>) {
+        if (args.size != 3) {
+            System.err.println("Usage: RenderDependencyGraph <extraction-file> <output-dir> <renderer-class>[,<renderer-class>...]")
+            exitProcess(2)
+        }
+        val extractionFile = File(args[0])
+        if (!extractionFile.isFile) {
+            System.err.println("Dependency graph extraction not found: ${extractionFile.path}")
+            exitProcess(2)
+        }
+        val rendererClassNames = args[2].split(',').map { it.trim() }.filter { it.isNotEmpty() }.distinct()
+        render(extractionFile, File(args[1]), rendererClassNames)
+    }
+
+    fun render(extractionFile: File, outputDirectory: File, rendererClassNames: List<String>) {
+        require(rendererClassNames.isNotEmpty()) { "At least one renderer class must be specified" }
+        val extraction = PersistedExtraction.read(extractionFile)
+        DependencyGraphWriter(PluginParameters(), extraction.buildLayout, rendererClassNames, outputDirectory)
+            .writeDependencyGraph(extraction.resolvedConfigurations, extraction.unresolved)
+    }
+}
@@ -0,0 +1,166 @@
+package org.gradle.dependencygraph.binary
+
+import java.io.File
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+
+/**
+ * A dependency graph file written by the [BinaryDependencyGraphRenderer], memory-mapped for queries.
+ *
+ * Only the header is read when the file is opened. Each query reads the records that it needs from the mapped file,
+ * using binary search over the sorted sections, so the file is never loaded onto the heap.
+ * Components and configurations are identified by their index in the file.
+ */
+class BinaryDependencyGraph(file: File) {
+    private val buffer: ByteBuffer = RandomAccessFile(file, "r").use {
+        it.channel.map(FileChannel.MapMode.READ_ONLY, 0, it.length())
+    }
+
+    val isPartial: Boolean
+    val componentCount: Int
+    val configurationCount: Int
+
+    private val stringCount: Int
+    private val stringOffsetsPosition: Int
+    private val stringDataPosition: Int
+    private val componentsPosition: Int
+    private val idIndexPosition: Int
+    private val dependenciesPosition: Int
+    private val dependentsPosition: Int
+    private val configurationsPosition: Int
+    private val membersPosition: Int
+    private val containedByPosition: Int
+
+    init {
+        check(buffer.getInt(0) == BinaryGraphFormat.MAGIC) { "Not a binary dependency graph file: ${file.path}" }
+        val formatVersion = buffer.getInt(4)
+        check(formatVersion == BinaryGraphFormat.FORMAT_VERSION) {
+            "Unsupported binary dependency graph format version $formatVersion in ${file.path}: expected ${BinaryGraphFormat.FORMAT_VERSION}"
+        }
+        isPartial = buffer.getInt(8) and BinaryGraphFormat.FLAG_PARTIAL != 0
+        stringCount = buffer.getInt(12)
+        componentCount = buffer.getInt(16)
+        val edgeCount = buffer.getInt(20)
+        configurationCount = buffer.getInt(24)
+        val membershipCount = buffer.getInt(28)
+
+        stringOffsetsPosition = BinaryGraphFormat.HEADER_INTS * 4
+        stringDataPosition = stringOffsetsPosition + (stringCount + 1) * 4
+        val stringDataLength = buffer.getInt(stringOffsetsPosition + stringCount * 4)
+        componentsPosition = stringDataPosition + stringDataLength + BinaryGraphFormat.padding(stringDataLength)
+        idIndexPosition = componentsPosition + componentCount * 3 * 4
+        dependenciesPosition = idIndexPosition + componentCount * 4
+        dependentsPosition = dependenciesPosition + (componentCount + 1 + edgeCount) * 4
+        configurationsPosition = dependentsPosition + (componentCount + 1 + edgeCount) * 4
+        membersPosition = configurationsPosition + configurationCount * 3 * 4
+        containedByPosition = membersPosition + (configurationCount + 1 + membershipCount) * 4
+    }
+
+    /**
+     * Returns the index of the component with the given package URL or ID, such as `group:module:version`, or -1 if not found.
+     */
+    fun findComponent(purlOrId: String): Int {
+        val byPurl = binarySearch(componentCount, purlOrId) { componentPurl(it) }
+        if (byPurl >= 0) return byPurl
+        val byId = binarySearch(componentCount, purlOrId) { componentId(intAt(idIndexPosition, it)) }
+        return if (byId >= 0) intAt(idIndexPosition, byId) else -1
+    }
+
+    fun componentPurl(component: Int): String = string(intAt(componentsPosition, component * 3))
+
+    fun componentId(component: Int): String = string(intAt(componentsPosition, component * 3 + 1))
+
+    fun isProject(component: Int): Boolean {
+        return intAt(componentsPosition, component * 3 + 2) and BinaryGraphFormat.COMPONENT_FLAG_PROJECT != 0
+    }
+
+    /**
+     * The components that the component depends on directly.
+     */
+    fun dependencies(component: Int): List<Int> = adjacency(dependenciesPosition, componentCount, component)
+
+    /**
+     * The components that depend directly on the component.
+     */
+    fun dependents(component: Int): List<Int> = adjacency(dependentsPosition, componentCount, component)
+
+    /**
+     * The configurations that contain the component.
+     */
+    fun configurationsContaining(component: Int): List<Int> = adjacency(containedByPosition, componentCount, component)
+
+    /**
+     * The components contained in the configuration, ordered by package URL.
+     */
+    fun members(configuration: Int): List<Int> = adjacency(membersPosition, configurationCount, configuration)
+
+    fun contains(configuration: Int, component: Int): Boolean {
+        val start = intAt(membersPosition, configuration)
+        val end = intAt(membersPosition, configuration + 1)
+        val targetsPosition = membersPosition + (configurationCount + 1) * 4
+        var low = start
+        var high = end - 1
+        while (low <= high) {
+            val middle = (low + high) ushr 1
+            val value = intAt(targetsPosition, middle)
+            when {
+                value < component -> low = middle + 1
+                value > component -> high = middle - 1
+                else -> return true
+            }
+        }
+        return false
+    }
+
+    fun configurationProjectPath(configuration: Int): String = string(intAt(configurationsPosition, configuration * 3))
+
+    fun configurationName(configuration: Int): String = string(intAt(configurationsPosition, configuration * 3 + 1))
+
+    fun configurationScope(configuration: Int): String = string(intAt(configurationsPosition, configuration * 3 + 2))
+
+    /**
+     * Returns the index of the configuration, or -1 if not found.
+     */
+    fun findConfiguration(projectPath: String, configurationName: String): Int {
+        return (0 until configurationCount).firstOrNull {
+            configurationName(it) == configurationName && configurationProjectPath(it) == projectPath
+        } ?: -1
+    }
+
+    private fun adjacency(position: Int, count: Int, index: Int): List<Int> {
+        val start = intAt(position, index)
+        val end = intAt(position, index + 1)
+        val targetsPosition = position + (count + 1) * 4
+        return (start until end).map { intAt(targetsPosition, it) }
+    }
+
+    private fun intAt(position: Int, index: Int): Int {
+        return buffer.getInt(position + index * 4)
+    }
+
+    private fun string(index: Int): String {
+        val start = intAt(stringOffsetsPosition, index)
+        val end = intAt(stringOffsetsPosition, index + 1)
+        val bytes = ByteArray(end - start)
+        for (i in bytes.indices) {
+            bytes[i] = buffer.get(stringDataPosition + start + i)
+        }
+        return String(bytes, Charsets.UTF_8)
+    }
+
+    private inline fun binarySearch(size: Int, key: String, valueAt: (Int) -> String): Int {
+        var low = 0
+        var high = size - 1
+        while (low <= high) {
+            val middle = (low + high) ushr 1
+            val comparison = valueAt(middle).compareTo(key)
+            when {
+                comparison < 0 -> low = middle + 1
+                comparison > 0 -> high = middle - 1
+                else -> return middle
+            }
+        }
+        return -1
+    }
+}
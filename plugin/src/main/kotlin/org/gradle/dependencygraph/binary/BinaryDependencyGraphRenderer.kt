@@ -0,0 +1,48 @@
+package org.gradle.dependencygraph.binary
+
+import org.gradle.api.logging.Logging
+import org.gradle.dependencygraph.PartialDependencyGraphRenderer
+import org.gradle.dependencygraph.model.BuildLayout
+import org.gradle.dependencygraph.model.ResolutionFailure
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.util.PluginParameters
+import java.io.File
+
+/**
+ * A `DependencyGraphRenderer` that writes the dependency graph as an indexed binary file, `dependency-graph.bin`,
+ * which can be queried with [QueryDependencyGraph] without parsing the complete file.
+ * See [BinaryGraphFormat] for the layout of the file.
+ */
+class BinaryDependencyGraphRenderer : PartialDependencyGraphRenderer {
+
+    override fun outputDependencyGraph(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        outputDirectory: File
+    ) {
+        outputBinaryGraph(resolvedConfigurations, false, outputDirectory)
+    }
+
+    override fun outputPartialDependencyGraph(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        unresolved: List<ResolutionFailure>,
+        outputDirectory: File
+    ) {
+        outputBinaryGraph(resolvedConfigurations, true, outputDirectory)
+    }
+
+    private fun outputBinaryGraph(resolvedConfigurations: List<ResolvedConfiguration>, partial: Boolean, outputDirectory: File) {
+        val outputFile = File(outputDirectory, FILE_NAME)
+        BinaryGraphFormat.write(outputFile, resolvedConfigurations, partial)
+        LOGGER.lifecycle("\nBinaryDependencyGraphRenderer: Wrote binary dependency graph to \n${outputFile.canonicalPath}")
+    }
+
+    companion object {
+        const val FILE_NAME = "dependency-graph.bin"
+
+        private val LOGGER = Logging.getLogger(BinaryDependencyGraphRenderer::class.java)
+    }
+}
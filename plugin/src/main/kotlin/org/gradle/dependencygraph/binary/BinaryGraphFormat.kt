@@ -0,0 +1,132 @@
+package org.gradle.dependencygraph.binary
+
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import java.io.DataOutputStream
+import java.io.File
+
+/**
+ * The layout of a binary dependency graph file. All values are big-endian 32-bit integers, except for the string data.
+ *
+ * ```
+ * header          MAGIC, FORMAT_VERSION, flags, stringCount, componentCount, edgeCount, configurationCount, membershipCount
+ * stringOffsets   int[stringCount + 1]: offset of each string in the string data, followed by the length of the string data
+ * stringData      UTF-8 bytes, padded to a multiple of 4 bytes
+ * components      int[componentCount * 3]: purl, id and flags of each component, sorted by purl
+ * idIndex         int[componentCount]: component indices sorted by id
+ * dependencies    int[componentCount + 1] offsets, int[edgeCount] component indices (CSR)
+ * dependents      int[componentCount + 1] offsets, int[edgeCount] component indices (CSR)
+ * configurations  int[configurationCount * 3]: project path, configuration name and scope of each configuration
+ * members         int[configurationCount + 1] offsets, int[membershipCount] sorted component indices (CSR)
+ * containedBy     int[componentCount + 1] offsets, int[membershipCount] sorted configuration indices (CSR)
+ * ```
+ * Strings and components are referenced by their index.
+ */
+internal object BinaryGraphFormat {
+    const val MAGIC = 0x47444742 // "GDGB"
+    const val FORMAT_VERSION = 1
+    const val HEADER_INTS = 8
+
+    const val FLAG_PARTIAL = 1
+    const val COMPONENT_FLAG_PROJECT = 1
+
+    fun write(file: File, resolvedConfigurations: List<ResolvedConfiguration>, partial: Boolean) {
+        // Merge each component with the same ID, together with its dependencies in every configuration
+        val componentPurls = linkedMapOf<String, String>()
+        val projectComponents = mutableSetOf<String>()
+        val componentDependencies = mutableMapOf<String, MutableSet<String>>()
+        for (configuration in resolvedConfigurations) {
+            for (dependency in configuration.allDependencies) {
+                componentPurls.getOrPut(dependency.id) { dependency.packageUrl() }
+                if (dependency.isProject) projectComponents.add(dependency.id)
+                componentDependencies.getOrPut(dependency.id) { linkedSetOf() }.addAll(dependency.dependencies)
+            }
+        }
+
+        val componentIds = componentPurls.keys.sortedWith(compareBy<String> { componentPurls.getValue(it) }.thenBy { it })
+        val componentIndex = componentIds.withIndex().associate { it.value to it.index }
+        val idIndex = componentIds.indices.sortedBy { componentIds[it] }
+
+        val strings = StringTable()
+        val components = componentIds.map {
+            intArrayOf(strings.add(componentPurls.getValue(it)), strings.add(it), if (projectComponents.contains(it)) COMPONENT_FLAG_PROJECT else 0)
+        }
+
+        val dependencies = componentIds.map { id ->
+            componentDependencies.getValue(id).mapNotNull { componentIndex[it] }.distinct().sorted()
+        }
+        val dependents = List(componentIds.size) { mutableListOf<Int>() }
+        dependencies.forEachIndexed { component, targets -> targets.forEach { dependents[it].add(component) } }
+
+        val configurations = resolvedConfigurations.map {
+            intArrayOf(strings.add(it.rootOrigin.path), strings.add(it.configurationName), strings.add(it.scope.name))
+        }
+        val members = resolvedConfigurations.map { configuration ->
+            configuration.allDependencies.map { componentIndex.getValue(it.id) }.distinct().sorted()
+        }
+        val containedBy = List(componentIds.size) { mutableListOf<Int>() }
+        members.forEachIndexed { configuration, componentIndices -> componentIndices.forEach { containedBy[it].add(configuration) } }
+
+        val stringData = strings.encode()
+        DataOutputStream(file.outputStream().buffered()).use { output ->
+            output.writeInt(MAGIC)
+            output.writeInt(FORMAT_VERSION)
+            output.writeInt(if (partial) FLAG_PARTIAL else 0)
+            output.writeInt(strings.size)
+            output.writeInt(componentIds.size)
+            output.writeInt(dependencies.map { it.size }.sum())
+            output.writeInt(configurations.size)
+            output.writeInt(members.map { it.size }.sum())
+
+            stringData.offsets.forEach { output.writeInt(it) }
+            output.write(stringData.bytes)
+            repeat(padding(stringData.bytes.size)) { output.writeByte(0) }
+
+            components.forEach { record -> record.forEach { output.writeInt(it) } }
+            idIndex.forEach { output.writeInt(it) }
+            writeAdjacency(output, dependencies)
+            writeAdjacency(output, dependents)
+            configurations.forEach { record -> record.forEach { output.writeInt(it) } }
+            writeAdjacency(output, members)
+            writeAdjacency(output, containedBy)
+        }
+    }
+
+    fun padding(length: Int): Int {
+        return (4 - length % 4) % 4
+    }
+
+    /**
+     * Writes the lists in compressed sparse row form: the offset of each list, followed by the concatenated lists.
+     */
+    private fun writeAdjacency(output: DataOutputStream, lists: List<List<Int>>) {
+        var offset = 0
+        output.writeInt(offset)
+        for (list in lists) {
+            offset += list.size
+            output.writeInt(offset)
+        }
+        lists.forEach { list -> list.forEach { output.writeInt(it) } }
+    }
+
+    private class StringTable {
+        private val indices = linkedMapOf<String, Int>()
+
+        val size: Int
+            get() = indices.size
+
+        fun add(value: String): Int {
+            return indices.getOrPut(value) { indices.size }
+        }
+
+        fun encode(): EncodedStrings {
+            val encoded = indices.keys.map { it.toByteArray(Charsets.UTF_8) }
+            val offsets = IntArray(encoded.size + 1)
+            encoded.forEachIndexed { index, bytes -> offsets[index + 1] = offsets[index] + bytes.size }
+            val data = ByteArray(offsets[encoded.size])
+            encoded.forEachIndexed { index, bytes -> System.arraycopy(bytes, 0, data, offsets[index], bytes.size) }
+            return EncodedStrings(offsets, data)
+        }
+    }
+
+    private class EncodedStrings(val offsets: IntArray, val bytes: ByteArray)
+}
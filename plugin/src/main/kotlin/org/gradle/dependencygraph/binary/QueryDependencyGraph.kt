@@ -0,0 +1,73 @@
+package org.gradle.dependencygraph.binary
+
+import java.io.File
+import kotlin.system.exitProcess
+
+private const val USAGE = """Usage: QueryDependencyGraph <dependency-graph.bin> <query> <arguments>
+Queries:
+  component <purl-or-id>                    the component and its direct dependencies
+  dependents <purl-or-id>                   the components that depend directly on the component
+  configurations <purl-or-id>               the project configurations that contain the component
+  members <project-path> <configuration>    the components contained in a project configuration"""
+
+/**
+ * Answers queries over a binary dependency graph file written by the [BinaryDependencyGraphRenderer],
+ * reading only the records needed from the memory-mapped file.
+ */
+object QueryDependencyGraph {
+
+    @JvmStatic
+    fun main(args: Array<String>) {
+        if (args.size < 3) {
+            System.err.println(USAGE)
+            exitProcess(2)
+        }
+        val graph = BinaryDependencyGraph(File(args[0]))
+        val startTime = System.nanoTime()
+        val lines = query(graph, args[1], args.drop(2))
+        if (lines == null) {
+            System.err.println(USAGE)
+            exitProcess(2)
+        }
+        lines.forEach { println(it) }
+        System.err.println("Answered '${args[1]}' in ${(System.nanoTime() - startTime) / 1_000_000} ms")
+    }
+
+    /**
+     * Returns the lines answering the query, or `null` if the query is not known.
+     */
+    fun query(graph: BinaryDependencyGraph, query: String, arguments: List<String>): List<String>? {
+        return when {
+            query == "component" && arguments.size == 1 -> {
+                val component = graph.findComponent(arguments[0])
+                if (component < 0) return listOf("Component not found: ${arguments[0]}")
+                listOf(describeComponent(graph, component)) + graph.dependencies(component).map { "  -> ${describeComponent(graph, it)}" }
+            }
+            query == "dependents" && arguments.size == 1 -> {
+                val component = graph.findComponent(arguments[0])
+                if (component < 0) return listOf("Component not found: ${arguments[0]}")
+                graph.dependents(component).map { describeComponent(graph, it) }
+            }
+            query == "configurations" && arguments.size == 1 -> {
+                val component = graph.findComponent(arguments[0])
+                if (component < 0) return listOf("Component not found: ${arguments[0]}")
+                graph.configurationsContaining(component).map { describeConfiguration(graph, it) }
+            }
+            query == "members" && arguments.size == 2 -> {
+                val configuration = graph.findConfiguration(arguments[0], arguments[1])
+                if (configuration < 0) return listOf("Configuration not found: ${arguments[0]} ${arguments[1]}")
+                graph.members(configuration).map { describeComponent(graph, it) }
+            }
+            else -> null
+        }
+    }
+
+    private fun describeComponent(graph: BinaryDependencyGraph, component: Int): String {
+        val kind = if (graph.isProject(component)) " (project)" else ""
+        return "${graph.componentId(component)}$kind ${graph.componentPurl(component)}"
+    }
+
+    private fun describeConfiguration(graph: BinaryDependencyGraph, configuration: Int): String {
+        return "${graph.configurationProjectPath(configuration)} ${graph.configurationName(configuration)} (${graph.configurationScope(configuration)})"
+    }
+}
@@ -0,0 +1,191 @@
+package org.gradle.dependencygraph.cyclonedx
+
+import com.fasterxml.jackson.core.JsonEncoding
+import com.fasterxml.jackson.core.JsonFactory
+import com.fasterxml.jackson.core.JsonGenerator
+import org.gradle.api.logging.Logging
+import org.gradle.dependencygraph.PartialDependencyGraphRenderer
+import org.gradle.dependencygraph.model.BuildLayout
+import org.gradle.dependencygraph.model.DependencyScope
+import org.gradle.dependencygraph.model.ResolutionFailure
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.model.ResolvedDependency
+import org.gradle.dependencygraph.util.PluginParameters
+import java.io.File
+import java.text.SimpleDateFormat
+import java.util.*
+
+private const val ROOT_REF = "root"
+
+/**
+ * A `DependencyGraphRenderer` that writes the dependency graph as a CycloneDX 1.5 JSON bill of materials, `bom.cdx.json`.
+ *
+ * - Each external component is listed once, identified by its package URL.
+ * - The component scope is `required` for runtime dependencies and `optional` for development dependencies,
+ *   and is omitted when dependency scopes are not configured.
+ * - The dependency tree starts from a root component for the build, which depends on the direct dependencies of every configuration.
+ *
+ * The file is written with a streaming generator, so no intermediate document is built in memory.
+ */
+class CycloneDxDependencyGraphRenderer : PartialDependencyGraphRenderer {
+
+    override fun outputDependencyGraph(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        outputDirectory: File
+    ) {
+        outputBom(buildLayout, resolvedConfigurations, null, outputDirectory)
+    }
+
+    override fun outputPartialDependencyGraph(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        unresolved: List<ResolutionFailure>,
+        outputDirectory: File
+    ) {
+        outputBom(buildLayout, resolvedConfigurations, unresolved, outputDirectory)
+    }
+
+    private class Component(val purl: String, val dependency: ResolvedDependency) {
+        val scopes = mutableSetOf<DependencyScope>()
+        val dependsOn = linkedSetOf<String>()
+    }
+
+    private fun outputBom(
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        unresolved: List<ResolutionFailure>?,
+        outputDirectory: File
+    ) {
+        // Merge each component with the same ID, as for the GitHub dependency graph
+        val components = linkedMapOf<String, Component>()
+        val rootDependsOn = linkedSetOf<String>()
+        for (configuration in resolvedConfigurations.sortedWith(ResolvedConfiguration.CANONICAL_ORDER)) {
+            for (dependency in configuration.allDependencies) {
+                if (dependency.isProject) continue
+                val component = components.getOrPut(dependency.id) { Component(dependency.packageUrl(), dependency) }
+                component.scopes.add(configuration.scope)
+                component.dependsOn.addAll(dependency.dependencies)
+                if (dependency.isDirect) {
+                    rootDependsOn.add(dependency.id)
+                }
+            }
+        }
+
+        val outputFile = File(outputDirectory, "bom.cdx.json")
+        JsonFactory().createGenerator(outputFile, JsonEncoding.UTF8).use { json ->
+            json.useDefaultPrettyPrinter()
+            json.writeStartObject()
+            json.writeStringField("bomFormat", "CycloneDX")
+            json.writeStringField("specVersion", "1.5")
+            json.writeStringField("serialNumber", "urn:uuid:${UUID.randomUUID()}")
+            json.writeNumberField("version", 1)
+            writeMetadata(json, buildLayout, unresolved)
+
+            json.writeArrayFieldStart("components")
+            for (component in components.values) {
+                writeComponent(json, component)
+            }
+            json.writeEndArray()
+
+            json.writeArrayFieldStart("dependencies")
+            writeDependency(json, ROOT_REF, rootDependsOn.mapNotNull { components[it]?.purl })
+            for (component in components.values) {
+                writeDependency(json, component.purl, component.dependsOn.mapNotNull { components[it]?.purl })
+            }
+            json.writeEndArray()
+
+            json.writeArrayFieldStart("compositions")
+            json.writeStartObject()
+            json.writeStringField("aggregate", if (unresolved == null) "complete" else "incomplete")
+            json.writeArrayFieldStart("assemblies")
+            json.writeString(ROOT_REF)
+            json.writeEndArray()
+            json.writeEndObject()
+            json.writeEndArray()
+
+            json.writeEndObject()
+        }
+        LOGGER.lifecycle("\nCycloneDxDependencyGraphRenderer: Wrote bill of materials to \n${outputFile.canonicalPath}")
+    }
+
+    private fun writeMetadata(json: JsonGenerator, buildLayout: BuildLayout, unresolved: List<ResolutionFailure>?) {
+        json.writeObjectFieldStart("metadata")
+        json.writeStringField("timestamp", timestamp())
+
+        json.writeObjectFieldStart("tools")
+        json.writeArrayFieldStart("components")
+        json.writeStartObject()
+        json.writeStringField("type", "application")
+        json.writeStringField("name", javaClass.`package`.implementationTitle ?: "GitHub Dependency Graph Gradle Plugin")
+        javaClass.`package`.implementationVersion?.let { json.writeStringField("version", it) }
+        json.writeEndObject()
+        json.writeEndArray()
+        json.writeEndObject()
+
+        json.writeObjectFieldStart("component")
+        json.writeStringField("type", "application")
+        json.writeStringField("bom-ref", ROOT_REF)
+        json.writeStringField("name", buildLayout.getRootBuildPath()?.parent?.fileName?.toString() ?: "build")
+        json.writeEndObject()
+
+        if (unresolved != null) {
+            json.writeArrayFieldStart("properties")
+            writeProperty(json, "gradle:dependency-graph:partial", "true")
+            if (unresolved.isNotEmpty()) {
+                writeProperty(json, "gradle:dependency-graph:unresolved", unresolved.joinToString(", ") { it.displayName() })
+            }
+            json.writeEndArray()
+        }
+        json.writeEndObject()
+    }
+
+    private fun writeComponent(json: JsonGenerator, component: Component) {
+        val coordinates = component.dependency.coordinates
+        json.writeStartObject()
+        json.writeStringField("type", "library")
+        json.writeStringField("bom-ref", component.purl)
+        if (coordinates.group.isNotEmpty()) {
+            json.writeStringField("group", coordinates.group)
+        }
+        json.writeStringField("name", coordinates.module)
+        json.writeStringField("version", coordinates.version)
+        json.writeStringField("purl", component.purl)
+        when (DependencyScope.getEffectiveScope(component.scopes.toList())) {
+            DependencyScope.Runtime -> json.writeStringField("scope", "required")
+            DependencyScope.Development -> json.writeStringField("scope", "optional")
+            DependencyScope.Unknown -> {}
+        }
+        json.writeEndObject()
+    }
+
+    private fun writeDependency(json: JsonGenerator, ref: String, dependsOn: List<String>) {
+        json.writeStartObject()
+        json.writeStringField("ref", ref)
+        json.writeArrayFieldStart("dependsOn")
+        for (dependency in dependsOn.distinct()) {
+            json.writeString(dependency)
+        }
+        json.writeEndArray()
+        json.writeEndObject()
+    }
+
+    private fun writeProperty(json: JsonGenerator, name: String, value: String) {
+        json.writeStartObject()
+        json.writeStringField("name", name)
+        json.writeStringField("value", value)
+        json.writeEndObject()
+    }
+
+    private fun timestamp(): String {
+        val dateFormat = SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX")
+        dateFormat.timeZone = TimeZone.getTimeZone("UTC")
+        return dateFormat.format(Date())
+    }
+
+    companion object {
+        private val LOGGER = Logging.getLogger(CycloneDxDependencyGraphRenderer::class.java)
+    }
+}
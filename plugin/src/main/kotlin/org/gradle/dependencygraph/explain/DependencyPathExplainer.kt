@@ -0,0 +1,113 @@
+package org.gradle.dependencygraph.explain
+
+import org.gradle.dependencygraph.model.DependencyCoordinates
+import org.gradle.dependencygraph.model.DependencyScope
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.model.ResolvedDependency
+import java.util.ArrayDeque
+
+/**
+ * The shortest dependency paths from the root of a configuration to a component.
+ * Each path starts with a direct dependency of the configuration and ends with the component.
+ */
+data class DependencyPaths(
+    val path: String,
+    val configuration: String,
+    val scope: DependencyScope,
+    val component: String,
+    val paths: List<List<String>>
+) {
+    fun describe(): List<String> {
+        return paths.map { "$path $configuration: ${it.joinToString(" -> ")}" }
+    }
+}
+
+/**
+ * Explains why modules are in the dependency graph, with the shortest paths to each matching component in each configuration.
+ */
+object DependencyPathExplainer {
+    // Limits the number of shortest paths reported for a component, as diamond dependencies multiply the number of paths
+    private const val MAX_PATHS = 10
+
+    /**
+     * Finds the shortest paths to the modules, each given as `group:module` or `group:module:version`,
+     * in every configuration that contains them.
+     */
+    fun explain(resolvedConfigurations: List<ResolvedConfiguration>, modules: List<String>): List<DependencyPaths> {
+        val matchers = modules.map { moduleMatcher(it) }
+        return resolvedConfigurations.flatMap { configuration ->
+            val targets = configuration.allDependencies
+                .filter { dependency -> !dependency.isProject && matchers.any { it(dependency.coordinates) } }
+                .map { it.id }
+                .distinct()
+                .sorted()
+            if (targets.isEmpty()) emptyList() else explain(configuration, targets)
+        }
+    }
+
+    private fun explain(configuration: ResolvedConfiguration, targets: List<String>): List<DependencyPaths> {
+        val components = configuration.allDependencies.associateBy { it.id }
+        val depths = mutableMapOf<String, Int>()
+        val predecessors = mutableMapOf<String, MutableList<String>>()
+
+        // Breadth-first search from the direct dependencies of the configuration, recording every predecessor on a shortest path
+        val queue = ArrayDeque<ResolvedDependency>()
+        for (dependency in configuration.allDependencies) {
+            if (dependency.isDirect && dependency.origin == configuration.rootOrigin && !depths.containsKey(dependency.id)) {
+                depths[dependency.id] = 1
+                queue.add(dependency)
+            }
+        }
+        while (queue.isNotEmpty()) {
+            val current = queue.poll()
+            val childDepth = depths.getValue(current.id) + 1
+            for (childId in current.dependencies) {
+                val depth = depths[childId]
+                if (depth == null) {
+                    depths[childId] = childDepth
+                    predecessors[childId] = mutableListOf(current.id)
+                    components[childId]?.let { queue.add(it) }
+                } else if (depth == childDepth) {
+                    predecessors.getValue(childId).add(current.id)
+                }
+            }
+        }
+
+        return targets.filter { depths.containsKey(it) }.map { target ->
+            DependencyPaths(
+                configuration.rootOrigin.path,
+                configuration.configurationName,
+                configuration.scope,
+                target,
+                shortestPaths(target, depths, predecessors, MAX_PATHS)
+            )
+        }
+    }
+
+    private fun shortestPaths(
+        id: String,
+        depths: Map<String, Int>,
+        predecessors: Map<String, List<String>>,
+        limit: Int
+    ): List<List<String>> {
+        if (depths[id] == 1) {
+            return listOf(listOf(id))
+        }
+        val paths = mutableListOf<List<String>>()
+        for (predecessor in predecessors[id].orEmpty()) {
+            for (path in shortestPaths(predecessor, depths, predecessors, limit - paths.size)) {
+                paths.add(path + id)
+            }
+            if (paths.size >= limit) break
+        }
+        return paths
+    }
+
+    private fun moduleMatcher(module: String): (DependencyCoordinates) -> Boolean {
+        val parts = module.trim().split(':')
+        check(parts.size == 2 || parts.size == 3) { "Invalid module '$module': expected 'group:module' or 'group:module:version'" }
+        return { coordinates ->
+            coordinates.group == parts[0] && coordinates.module == parts[1] && (parts.size == 2 || coordinates.version == parts[2])
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.gradle.dependencygraph.explain
+
+import org.gradle.dependencygraph.extractor.PersistedExtraction
+import java.io.File
+import kotlin.system.exitProcess
+
+/**
+ * Explains why modules are in a dependency graph extraction written with `DEPENDENCY_GRAPH_PERSIST_EXTRACTION`,
+ * printing the shortest dependency paths in every configuration that contains them.
+ *
+ * Usage: `ExplainDependencyPaths <extraction-file> <group:module[:version]>[,<group:module[:version]>...]`
+ */
+object ExplainDependencyPaths {
+
+    @JvmStatic
+    fun main(args: Array<String>) {
+        if (args.size != 2) {
+            System.err.println("Usage: ExplainDependencyPaths <extraction-file> <group:module[:version]>[,<group:module[:version]>...]")
+            exitProcess(2)
+        }
+        val extraction = PersistedExtraction.read(File(args[0]))
+        val modules = args[1].split(',').filter { it.isNotBlank() }
+        val explanations = DependencyPathExplainer.explain(extraction.resolvedConfigurations, modules)
+        if (explanations.isEmpty()) {
+            println("No configuration contains ${modules.joinToString()}")
+        }
+        explanations.flatMap { it.describe() }.forEach { println(it) }
+    }
+}
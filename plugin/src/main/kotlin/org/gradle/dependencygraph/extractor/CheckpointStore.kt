@@ -0,0 +1,75 @@
+package org.gradle.dependencygraph.extractor
+
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.util.JacksonJsonReader
+import org.gradle.dependencygraph.util.JacksonJsonSerializer
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+
+/**
+ * Persists each extracted [ResolvedConfiguration] as a checkpoint record, so that an interrupted
+ * extraction can be resumed without resolving the same configurations again.
+ *
+ * Each record is keyed by project path and configuration name, and is only valid while the
+ * input fingerprint of the project (see [ResolutionInputs]) is unchanged.
+ */
+class CheckpointStore(private val directory: File) {
+
+    data class Checkpoint(
+        val projectPath: String,
+        val configurationName: String,
+        val fingerprint: String,
+        val configuration: ResolvedConfiguration
+    )
+
+    fun write(fingerprint: String, configuration: ResolvedConfiguration) {
+        val projectPath = configuration.rootOrigin.path
+        val checkpoint = Checkpoint(projectPath, configuration.configurationName, fingerprint, configuration)
+        val checkpointFile = checkpointFile(projectPath, configuration.configurationName)
+        directory.mkdirs()
+
+        // Write to a temporary file first, so that an interrupted build never leaves a truncated record
+        val tempFile = File.createTempFile(checkpointFile.name, ".tmp", directory)
+        tempFile.writeText(JacksonJsonSerializer.serializeToJson(checkpoint))
+        Files.move(tempFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+    }
+
+    fun isValid(projectPath: String, configurationName: String, fingerprint: String): Boolean {
+        val checkpointFile = checkpointFile(projectPath, configurationName)
+        if (!checkpointFile.isFile) {
+            return false
+        }
+        return JacksonJsonReader.readTextField(checkpointFile, "fingerprint") == fingerprint
+    }
+
+    /**
+     * Reads all checkpoint records that are valid according to the supplied project fingerprint function.
+     */
+    fun readValid(projectFingerprint: (String) -> String?): List<Checkpoint> {
+        val checkpointFiles = directory.listFiles { file -> file.name.endsWith(".json") } ?: return emptyList()
+        return checkpointFiles.mapNotNull { checkpointFile ->
+            val node = JacksonJsonReader.readTree(checkpointFile)
+            val projectPath = node.path("projectPath").asText()
+            val fingerprint = node.path("fingerprint").asText()
+            if (fingerprint == projectFingerprint(projectPath)) {
+                Checkpoint(
+                    projectPath,
+                    node.path("configurationName").asText(),
+                    fingerprint,
+                    JacksonJsonReader.readResolvedConfiguration(node.path("configuration"))
+                )
+            } else {
+                null
+            }
+        }
+    }
+
+    private fun checkpointFile(projectPath: String, configurationName: String): File {
+        val key = MessageDigest.getInstance("SHA-1")
+            .digest("$projectPath|$configurationName".toByteArray())
+            .joinToString("") { String.format("%02x", it) }
+        return File(directory, "$key.json")
+    }
+}
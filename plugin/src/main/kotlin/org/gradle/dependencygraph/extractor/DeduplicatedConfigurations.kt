@@ -0,0 +1,61 @@
+package org.gradle.dependencygraph.extractor
+
+import org.gradle.dependencygraph.model.DependencyOrigin
+import org.gradle.dependencygraph.model.DependencyScope
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.util.JacksonJsonReader
+import org.gradle.dependencygraph.util.JacksonJsonSerializer
+import java.io.File
+import java.net.URLEncoder
+
+/**
+ * The configurations that were not resolved because a configuration with identical dependency declarations
+ * was resolved in another project of the same build. A file is written under the report directory for each build.
+ */
+object DeduplicatedConfigurations {
+    private const val DEDUPLICATED_CONFIGURATIONS_DIR = "deduplicated-configurations"
+
+    data class Alias(
+        val projectPath: String,
+        val configurationName: String,
+        val representativeProjectPath: String
+    )
+
+    fun write(reportDirectory: File, buildPath: String, aliases: List<Alias>) {
+        val file = File(reportDirectory, "$DEDUPLICATED_CONFIGURATIONS_DIR/${URLEncoder.encode(buildPath, "UTF-8")}.json")
+        file.parentFile.mkdirs()
+        file.writeText(JacksonJsonSerializer.serializeToJson(aliases))
+    }
+
+    fun read(reportDirectory: File): List<Alias> {
+        val files = File(reportDirectory, DEDUPLICATED_CONFIGURATIONS_DIR).listFiles { file -> file.name.endsWith(".json") }
+            ?: return emptyList()
+        return files.flatMap { file ->
+            JacksonJsonReader.readTree(file).map {
+                Alias(
+                    it.required("projectPath").asText(),
+                    it.required("configurationName").asText(),
+                    it.required("representativeProjectPath").asText()
+                )
+            }
+        }
+    }
+
+    /**
+     * Copies the configuration extracted for the representative project, replacing the root origin with that of the alias project.
+     * Dependencies declared by other projects in the graph keep their origin.
+     */
+    fun copyFor(alias: Alias, representative: ResolvedConfiguration, scope: DependencyScope): ResolvedConfiguration {
+        val representativeOrigin = representative.rootOrigin
+        val aliasId = if (representativeOrigin.id.endsWith(representativeOrigin.path)) {
+            representativeOrigin.id.removeSuffix(representativeOrigin.path) + alias.projectPath
+        } else {
+            "project ${alias.projectPath}"
+        }
+        val aliasOrigin = DependencyOrigin(aliasId, alias.projectPath)
+        val dependencies = representative.allDependencies.map {
+            if (it.origin == representativeOrigin) it.copy(origin = aliasOrigin) else it
+        }
+        return ResolvedConfiguration(aliasOrigin, alias.configurationName, scope, dependencies.toMutableList())
+    }
+}
@@ -6,11 +6,15 @@ import org.gradle.api.artifacts.result.ResolvedComponentResult
 import org.gradle.api.artifacts.result.ResolvedDependencyResult
 import org.gradle.api.internal.artifacts.DefaultProjectComponentIdentifier
 import org.gradle.api.internal.artifacts.configurations.ResolveConfigurationDependenciesBuildOperationType
+import org.gradle.api.internal.tasks.execution.ExecuteTaskBuildOperationType
 import org.gradle.api.logging.Logging
-import org.gradle.dependencygraph.DependencyGraphRenderer
+import org.gradle.dependencygraph.DependencyGraph
 import org.gradle.dependencygraph.model.*
-import org.gradle.dependencygraph.model.DependencyScope.*
+import org.gradle.dependencygraph.util.JacksonJsonReader
 import org.gradle.dependencygraph.util.PluginParameters
+import org.gradle.forceresolve.LockfileProjectDependenciesTask
+import org.gradle.forceresolve.RESOLVE_PROJECT_RUNTIME_TASK
+import org.gradle.forceresolve.RESOLVE_PROJECT_TASK
 import org.gradle.initialization.EvaluateSettingsBuildOperationType
 import org.gradle.initialization.LoadProjectsBuildOperationType
 import org.gradle.internal.exceptions.DefaultMultiCauseException
@@ -18,6 +22,9 @@ import org.gradle.internal.operations.*
 import java.io.File
 import java.net.URI
 import java.util.*
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
 
 const val PARAM_INCLUDE_PROJECTS = "DEPENDENCY_GRAPH_INCLUDE_PROJECTS"
 const val PARAM_INCLUDE_CONFIGURATIONS = "DEPENDENCY_GRAPH_INCLUDE_CONFIGURATIONS"
@@ -28,11 +35,100 @@ const val PARAM_RUNTIME_INCLUDE_CONFIGURATIONS = "DEPENDENCY_GRAPH_RUNTIME_INCLU
 const val PARAM_RUNTIME_EXCLUDE_PROJECTS = "DEPENDENCY_GRAPH_RUNTIME_EXCLUDE_PROJECTS"
 const val PARAM_RUNTIME_EXCLUDE_CONFIGURATIONS = "DEPENDENCY_GRAPH_RUNTIME_EXCLUDE_CONFIGURATIONS"
 
+/**
+ * When 'true', a configuration that fails to resolve is recorded as a resolution failure instead of failing the build.
+ */
+const val PARAM_LENIENT_RESOLUTION = "DEPENDENCY_GRAPH_LENIENT_RESOLUTION"
+
+/**
+ * When 'true', a partial dependency graph is written from the configurations that were resolved, even if the build fails.
+ */
+const val PARAM_SALVAGE_PARTIAL_GRAPH = "DEPENDENCY_GRAPH_SALVAGE_PARTIAL_GRAPH"
+
+/**
+ * When 'true', each extracted configuration is checkpointed, and configurations with a valid checkpoint are not resolved again.
+ */
+const val PARAM_CHECKPOINTS = "DEPENDENCY_GRAPH_CHECKPOINTS"
+
+/**
+ * When set, only the projects whose build inputs changed since this Git commit are resolved.
+ * The dependencies of other projects are taken from the graph in [PARAM_PREVIOUS_GRAPH].
+ */
+const val PARAM_BASE_COMMIT = "DEPENDENCY_GRAPH_BASE_COMMIT"
+
+/**
+ * The resolved configurations file written by a previous run with [PARAM_BASE_COMMIT] set.
+ */
+const val PARAM_PREVIOUS_GRAPH = "DEPENDENCY_GRAPH_PREVIOUS_GRAPH"
+
+/**
+ * When 'true', the dependencies of projects with a lockfile for every configuration are read from the lockfile instead of being resolved.
+ */
+const val PARAM_LOCKFILE_MODE = "DEPENDENCY_GRAPH_LOCKFILE_MODE"
+
+/**
+ * When 'true', extracted configurations are cached in the Gradle daemon, and reused by later builds with the same resolution inputs.
+ */
+const val PARAM_DAEMON_CACHE = "DEPENDENCY_GRAPH_DAEMON_CACHE"
+const val PARAM_DAEMON_CACHE_MAX_ENTRIES = "DEPENDENCY_GRAPH_DAEMON_CACHE_MAX_ENTRIES"
+const val PARAM_DAEMON_CACHE_MAX_MB = "DEPENDENCY_GRAPH_DAEMON_CACHE_MAX_MB"
+
+/**
+ * When set, runtime configurations are resolved first, and no resolution task is started once this many seconds
+ * have passed since the start of the build. A partial dependency graph is written from the configurations that were resolved.
+ */
+const val PARAM_TIME_BUDGET_SECONDS = "DEPENDENCY_GRAPH_TIME_BUDGET_SECONDS"
+
+/**
+ * When 'true', configurations with identical dependency declarations in different projects are resolved only once,
+ * and the extracted dependencies are copied to the other projects.
+ */
+const val PARAM_DEDUPLICATE_CONFIGURATIONS = "DEPENDENCY_GRAPH_DEDUPLICATE_CONFIGURATIONS"
+
+/**
+ * A comma-separated list of class names of additional `DependencyGraphRenderer` implementations.
+ * The renderers are run concurrently with the renderer of the applied plugin.
+ */
+const val PARAM_RENDERERS = "DEPENDENCY_GRAPH_RENDERERS"
+
+/**
+ * When 'true', the extracted configurations and build layout are written to the report directory,
+ * so that the dependency graph can be rendered again without running the build.
+ */
+const val PARAM_PERSIST_EXTRACTION = "DEPENDENCY_GRAPH_PERSIST_EXTRACTION"
+
+/**
+ * A comma-separated list of modules, as 'group:module' or 'group:module:version'.
+ * The shortest dependency paths to these modules are written for every configuration that contains them.
+ */
+const val PARAM_EXPLAIN_MODULES = "DEPENDENCY_GRAPH_EXPLAIN_MODULES"
+
+/**
+ * The encoding of JSON output files: 'pretty' (the default), 'compact', or 'gzip' for compressed compact JSON.
+ */
+const val PARAM_OUTPUT_ENCODING = "DEPENDENCY_GRAPH_OUTPUT_ENCODING"
+
+/**
+ * The number of shards that the projects of the build are partitioned into, and the 0-based index of the shard to resolve.
+ * Only the projects in the shard are resolved and rendered, so that the outputs of all shards combine to the dependency graph of the build.
+ */
+const val PARAM_SHARD_COUNT = "DEPENDENCY_GRAPH_SHARD_COUNT"
+const val PARAM_SHARD_INDEX = "DEPENDENCY_GRAPH_SHARD_INDEX"
+
+/**
+ * A comma-separated list of the project resolution time files written by the shards of a previous run,
+ * used to balance the shards by resolution time rather than by project count.
+ */
+const val PARAM_SHARD_WEIGHTS = "DEPENDENCY_GRAPH_SHARD_WEIGHTS"
 
 const val PARAM_REPORT_DIR = "DEPENDENCY_GRAPH_REPORT_DIR"
 
+internal const val DEFAULT_REPORT_DIR = "reports/dependency-graph-snapshots"
+internal const val CHECKPOINTS_DIR = "checkpoints"
+
 abstract class DependencyExtractor :
     BuildOperationListener,
+    DependencyGraph,
     AutoCloseable {
 
     private val pluginParameters = PluginParameters()
@@ -43,10 +139,39 @@ abstract class DependencyExtractor :
 
     private val resolvedConfigurations = Collections.synchronizedList(mutableListOf<ResolvedConfiguration>())
 
+    private val resolutionFailures = Collections.synchronizedList(mutableListOf<ResolutionFailure>())
+
+    // Projects with at least one resolved configuration, or where the force-resolve task completed
+    private val resolvedProjects = Collections.synchronizedSet(mutableSetOf<String>())
+
+    // Projects where the force-resolve task completed
+    private val forceResolvedProjects = Collections.synchronizedSet(mutableSetOf<String>())
+
+    // Projects where the dependencies were read from lockfiles
+    private val lockfileProjects = Collections.synchronizedSet(mutableSetOf<String>())
+
+    // Projects where the force-resolve task for runtime configurations completed
+    private val runtimeResolvedProjects = Collections.synchronizedSet(mutableSetOf<String>())
+
+    // Projects where the dependencies were taken from the previous dependency graph
+    private val previousGraphProjects = Collections.synchronizedSet(mutableSetOf<String>())
+
+    // Time taken by the force-resolve tasks of each project, in milliseconds
+    private val projectResolutionMillis = ConcurrentHashMap<String, Long>()
+
     private val thrownExceptions = Collections.synchronizedList(mutableListOf<Throwable>())
 
     var rootProjectBuildDirectory: File? = null
 
+    // The init scripts and Gradle user home of the build, which must match those used to fingerprint checkpoints when they are read
+    var initScripts: List<File> = emptyList()
+    var gradleUserHomeDir: File? = null
+
+    /**
+     * When set, no dependency graph is written, and the reason is logged at the end of the build.
+     */
+    var skipDependencyGraphReason: String? = null
+
     private val buildLayout = BuildLayout()
 
     // Properties are lazily initialized so that System Properties are initialized by the time
@@ -59,6 +184,58 @@ abstract class DependencyExtractor :
         pluginParameters.loadOptional(PARAM_REPORT_DIR)
     }
 
+    private val lenientResolution by lazy {
+        pluginParameters.loadBoolean(PARAM_LENIENT_RESOLUTION)
+    }
+
+    private val salvagePartialGraph by lazy {
+        pluginParameters.loadBoolean(PARAM_SALVAGE_PARTIAL_GRAPH)
+    }
+
+    private val checkpointsEnabled by lazy {
+        pluginParameters.loadBoolean(PARAM_CHECKPOINTS)
+    }
+
+    private val buildFingerprints = ConcurrentHashMap<File, String>()
+
+    private val graphCache by lazy {
+        if (pluginParameters.loadBoolean(PARAM_DAEMON_CACHE)) {
+            ResolvedConfigurationCache.forDaemon(
+                pluginParameters.loadOptionalInt(PARAM_DAEMON_CACHE_MAX_ENTRIES, 1) ?: 500,
+                (pluginParameters.loadOptionalLong(PARAM_DAEMON_CACHE_MAX_MB, 1) ?: 64) * 1024 * 1024
+            )
+        } else {
+            null
+        }
+    }
+    private val graphCacheHits = AtomicInteger()
+    private val graphCacheMisses = AtomicInteger()
+
+    private val timeBudgetSeconds by lazy {
+        pluginParameters.loadOptionalLong(PARAM_TIME_BUDGET_SECONDS, 0)
+    }
+
+    private val baseCommit by lazy {
+        pluginParameters.loadOptional(PARAM_BASE_COMMIT)
+    }
+
+    private val deduplicateConfigurations by lazy {
+        pluginParameters.loadBoolean(PARAM_DEDUPLICATE_CONFIGURATIONS)
+    }
+
+    private val previousGraph by lazy {
+        pluginParameters.loadOptional(PARAM_PREVIOUS_GRAPH)?.let { File(it) }
+    }
+
+    private val sharded by lazy {
+        pluginParameters.loadOptional(PARAM_SHARD_COUNT) != null
+    }
+
+    // Projects that are resolved by other shards, and are left out of the dependency graph of this shard
+    private val skippedProjects by lazy {
+        if (sharded) ProjectShards.readSkippedProjects(getOutputDir()) else emptySet()
+    }
+
     abstract fun getRendererClassName(): String
 
     override fun started(buildOperation: BuildOperationDescriptor, startEvent: OperationStartEvent) {
@@ -72,6 +249,10 @@ abstract class DependencyExtractor :
     }
 
     override fun finished(buildOperation: BuildOperationDescriptor, finishEvent: OperationFinishEvent) {
+        if (lenientResolution && recordResolutionFailure(buildOperation, finishEvent)) {
+            return
+        }
+        trackForceResolveTask(buildOperation, finishEvent)
 
         handleBuildOperationType<
             ResolveConfigurationDependenciesBuildOperationType.Details,
@@ -121,6 +302,69 @@ abstract class DependencyExtractor :
         handler(details, result)
     }
 
+    /**
+     * Records a failed configuration resolution, so that it is reported rather than failing the extraction.
+     * Returns `true` if the build operation was a failed resolution.
+     */
+    private fun recordResolutionFailure(buildOperation: BuildOperationDescriptor, finishEvent: OperationFinishEvent): Boolean {
+        val details = buildOperation.details as? ResolveConfigurationDependenciesBuildOperationType.Details ?: return false
+        val failure = finishEvent.failure ?: return false
+
+        val rootPath = identityPath(details)
+        resolvedProjects.add(rootPath)
+        if (configurationFilter.include(rootPath, details.configurationName)) {
+            LOGGER.warn("Failed to resolve configuration for dependency graph: $rootPath - ${details.configurationName}")
+            resolutionFailures.add(ResolutionFailure(rootPath, details.configurationName, describeFailure(failure)))
+        }
+        return true
+    }
+
+    /**
+     * Records the projects where the force-resolve task completed, so that projects that were never resolved can be reported.
+     */
+    private fun trackForceResolveTask(buildOperation: BuildOperationDescriptor, finishEvent: OperationFinishEvent) {
+        val details = buildOperation.details as? ExecuteTaskBuildOperationType.Details ?: return
+        val runtimeTask = details.taskPath.endsWith(":$RESOLVE_PROJECT_RUNTIME_TASK")
+        if (!runtimeTask && !details.taskPath.endsWith(":$RESOLVE_PROJECT_TASK")) return
+
+        val result = finishEvent.result as? ExecuteTaskBuildOperationType.Result
+        if (finishEvent.failure == null && result?.skipMessage == null) {
+            val taskName = if (runtimeTask) RESOLVE_PROJECT_RUNTIME_TASK else RESOLVE_PROJECT_TASK
+            val projectPath = details.taskPath.removeSuffix(taskName).removeSuffix(":").ifEmpty { ":" }
+            val projectIdentityPath = identityPath(details.buildPath, projectPath)
+            resolvedProjects.add(projectIdentityPath)
+            projectResolutionMillis.merge(projectIdentityPath, finishEvent.endTime - finishEvent.startTime) { a, b -> a + b }
+            if (runtimeTask) {
+                runtimeResolvedProjects.add(projectIdentityPath)
+                return
+            }
+            forceResolvedProjects.add(projectIdentityPath)
+            if (LockfileProjectDependenciesTask::class.java.isAssignableFrom(details.taskClass)) {
+                lockfileProjects.add(projectIdentityPath)
+            }
+        }
+    }
+
+    private fun identityPath(details: ResolveConfigurationDependenciesBuildOperationType.Details): String {
+        val projectPath = details.projectPath ?: return details.buildPath
+        return identityPath(details.buildPath, projectPath)
+    }
+
+    private fun identityPath(buildPath: String, projectPath: String): String {
+        return when {
+            buildPath == ":" -> projectPath
+            projectPath == ":" -> buildPath
+            else -> buildPath + projectPath
+        }
+    }
+
+    private fun describeFailure(failure: Throwable): String {
+        return generateSequence(failure) { it.cause }
+            .mapNotNull { it.message }
+            .distinct()
+            .joinToString(separator = "\n")
+    }
+
     open fun extractSettings(
         details: EvaluateSettingsBuildOperationType.Details
     ) {
@@ -134,10 +378,11 @@ abstract class DependencyExtractor :
     private fun extractProjects(
         result: LoadProjectsBuildOperationType.Result
     ) {
+        val buildRootDir = result.rootProject.projectDir
         tailrec fun recursivelyExtractProjects(projects: Set<LoadProjectsBuildOperationType.Result.Project>) {
             if (projects.isEmpty()) return
             projects.forEach { project ->
-                buildLayout.addProject(project.identityPath, project.buildFile)
+                buildLayout.addProject(project.identityPath, project.buildFile, project.projectDir, buildRootDir)
             }
             val newProjects = projects.flatMap { it.children }.toSet()
             recursivelyExtractProjects(newProjects)
@@ -145,6 +390,26 @@ abstract class DependencyExtractor :
         recursivelyExtractProjects(setOf(result.rootProject))
     }
 
+    override fun getResolvedConfigurations(): List<ResolvedConfiguration> {
+        return synchronized(resolvedConfigurations) { resolvedConfigurations.toList() }
+    }
+
+    override fun getResolvedConfigurations(projectPath: String): List<ResolvedConfiguration> {
+        return getResolvedConfigurations().filter { it.rootOrigin.path == projectPath }
+    }
+
+    override fun findResolvedConfiguration(projectPath: String, configurationName: String): ResolvedConfiguration? {
+        return getResolvedConfigurations(projectPath).find { it.configurationName == configurationName }
+    }
+
+    override fun getResolvedConfigurationsContaining(componentId: String): List<ResolvedConfiguration> {
+        return getResolvedConfigurations().filter { it.hasDependency(componentId) }
+    }
+
+    override fun getResolutionFailures(): List<ResolutionFailure> {
+        return synchronized(resolutionFailures) { resolutionFailures.toList() }
+    }
+
     private fun extractConfigurationDependencies(
         details: ResolveConfigurationDependenciesBuildOperationType.Details,
         result: ResolveConfigurationDependenciesBuildOperationType.Result
@@ -152,11 +417,13 @@ abstract class DependencyExtractor :
         val repositoryLookup = RepositoryUrlLookup(details, result)
         val rootComponent = result.rootComponent
 
+        val projectIdentityPath = (rootComponent.id as? DefaultProjectComponentIdentifier)?.identityPath?.path
+        resolvedProjects.add(projectIdentityPath ?: details.buildPath)
+
         if (rootComponent.dependencies.isEmpty()) {
             // No dependencies to extract: can safely ignore
             return
         }
-        val projectIdentityPath = (rootComponent.id as? DefaultProjectComponentIdentifier)?.identityPath?.path
 
         // At this point, any resolution not bound to a particular project will be assigned to the root "build :"
         // This is because `details.buildPath` is always ':', which isn't correct in a composite build.
@@ -172,10 +439,37 @@ abstract class DependencyExtractor :
         }
         LOGGER.info("Including resolved configuration in dependency graph: $rootPath - $configurationName")
 
-        val scope = dependencyScope(rootPath, configurationName)
+        val scope = configurationFilter.dependencyScope(rootPath, configurationName)
 
         val rootId = if (projectIdentityPath == null) "build $rootPath" else componentId(rootComponent)
         val rootOrigin = DependencyOrigin(rootId, rootPath)
+
+        val cache = graphCache
+        val cacheKey = cache?.let { resolutionInputsFingerprint(rootOrigin, configurationName, scope, details, rootComponent) }
+        val cachedConfiguration = cacheKey?.let { cache.get(it) }
+        val resolvedConfiguration = if (cachedConfiguration != null) {
+            graphCacheHits.incrementAndGet()
+            cachedConfiguration
+        } else {
+            walkResolvedConfiguration(rootOrigin, configurationName, scope, rootComponent, repositoryLookup).also {
+                if (cacheKey != null) {
+                    graphCacheMisses.incrementAndGet()
+                    cache.put(cacheKey, it)
+                }
+            }
+        }
+
+        resolvedConfigurations.add(resolvedConfiguration)
+        writeCheckpoint(resolvedConfiguration)
+    }
+
+    private fun walkResolvedConfiguration(
+        rootOrigin: DependencyOrigin,
+        configurationName: String,
+        scope: DependencyScope,
+        rootComponent: ResolvedComponentResult,
+        repositoryLookup: RepositoryUrlLookup
+    ): ResolvedConfiguration {
         val resolvedConfiguration = ResolvedConfiguration(rootOrigin, configurationName, scope)
 
         for (dependencyComponent in getResolvedDependencies(rootComponent)) {
@@ -190,18 +484,172 @@ abstract class DependencyExtractor :
 
             walkComponentDependencies(dependencyComponent, directDep.origin, repositoryLookup, resolvedConfiguration)
         }
+        return resolvedConfiguration
+    }
 
-        resolvedConfigurations.add(resolvedConfiguration)
+    /**
+     * Fingerprints the inputs of the resolution, without visiting the resolution result: the root, the build inputs
+     * of the project as used for checkpoints, the repositories, and the declared and selected direct dependencies.
+     * Returns `null` when the project is not known, and the configuration should not be cached.
+     */
+    private fun resolutionInputsFingerprint(
+        rootOrigin: DependencyOrigin,
+        configurationName: String,
+        scope: DependencyScope,
+        details: ResolveConfigurationDependenciesBuildOperationType.Details,
+        rootComponent: ResolvedComponentResult
+    ): String? {
+        val buildRootDir = buildLayout.getBuildRootDir(rootOrigin.path) ?: return null
+        val projectFingerprint = projectFingerprint(rootOrigin.path) ?: return null
+        val digest = MessageDigest.getInstance("SHA-256")
+        fun put(value: String?) {
+            digest.update((value ?: "").toByteArray())
+            digest.update(0)
+        }
+        put(buildRootDir.absolutePath)
+        put(projectFingerprint)
+        put(rootOrigin.id)
+        put(rootOrigin.path)
+        put(configurationName)
+        put(scope.name)
+        for (repository in details.repositories ?: emptyList()) {
+            put(repository.id)
+            put(repository.type)
+            put(repository.properties.toSortedMap().toString())
+        }
+        for (dependency in rootComponent.dependencies) {
+            put(dependency.requested.displayName)
+            put((dependency as? ResolvedDependencyResult)?.let { componentId(it.selected) })
+        }
+        return digest.digest().joinToString("") { String.format("%02x", it) }
     }
 
-    private fun dependencyScope(
-        rootPath: String,
-        configurationName: String
-    ): DependencyScope {
-        if (configurationFilter.scopesAreConfigured()) {
-            return if (configurationFilter.isRuntime(rootPath, configurationName)) Runtime else Development
+    private fun writeCheckpoint(configuration: ResolvedConfiguration) {
+        if (!checkpointsEnabled) return
+        val fingerprint = projectFingerprint(configuration.rootOrigin.path) ?: return
+        checkpointStore().write(fingerprint, configuration)
+    }
+
+    /**
+     * Adds the checkpointed configurations from previous runs that are still valid, and were not resolved again.
+     */
+    private fun mergeCheckpoints() {
+        val extracted = resolvedConfigurations.map { it.rootOrigin.path to it.configurationName }.toSet()
+        val checkpoints = checkpointStore()
+            .readValid { projectFingerprint(it) }
+            .filter { !extracted.contains(it.projectPath to it.configurationName) }
+            .filter { configurationFilter.include(it.projectPath, it.configurationName) }
+        if (checkpoints.isNotEmpty()) {
+            LOGGER.lifecycle("Reusing ${checkpoints.size} checkpointed configuration(s) from a previous dependency graph extraction.")
+            resolvedConfigurations.addAll(checkpoints.map { it.configuration })
         }
-        return Unknown
+    }
+
+    /**
+     * Adds the configurations that were read from dependency lockfiles, rather than resolved.
+     */
+    private fun mergeLockfileConfigurations() {
+        val outputDirectory = getOutputDir()
+        val extracted = resolvedConfigurations.map { it.rootOrigin.path to it.configurationName }.toSet()
+        val lockedConfigurations = lockfileProjects.toList()
+            .flatMap { LockfileConfigurations.read(outputDirectory, it) }
+            .filter { !extracted.contains(it.rootOrigin.path to it.configurationName) }
+        if (lockedConfigurations.isNotEmpty()) {
+            LOGGER.lifecycle("Read ${lockedConfigurations.size} configuration(s) from dependency lockfiles of ${lockfileProjects.size} project(s).")
+            resolvedConfigurations.addAll(lockedConfigurations)
+        }
+    }
+
+    /**
+     * Adds the configurations from the previous dependency graph for projects that were not resolved in this build.
+     */
+    private fun mergePreviousGraph() {
+        val previousGraphFile = previousGraph
+        if (previousGraphFile == null || !previousGraphFile.isFile) {
+            return
+        }
+        val projectPaths = buildLayout.getProjectIdentityPaths()
+        val extracted = resolvedConfigurations.map { it.rootOrigin.path to it.configurationName }.toSet()
+        val previousConfigurations = JacksonJsonReader.readResolvedConfigurations(previousGraphFile)
+            .filter { projectPaths.contains(it.rootOrigin.path) && !forceResolvedProjects.contains(it.rootOrigin.path) }
+            .filter { !runtimeResolvedProjects.contains(it.rootOrigin.path) }
+            .filter { !extracted.contains(it.rootOrigin.path to it.configurationName) }
+            .filter { configurationFilter.include(it.rootOrigin.path, it.configurationName) }
+        if (previousConfigurations.isNotEmpty()) {
+            LOGGER.lifecycle("Reusing ${previousConfigurations.size} configuration(s) of unchanged projects from ${previousGraphFile.path}")
+            resolvedConfigurations.addAll(previousConfigurations)
+            resolvedProjects.addAll(previousConfigurations.map { it.rootOrigin.path })
+            previousGraphProjects.addAll(previousConfigurations.map { it.rootOrigin.path })
+        }
+    }
+
+    /**
+     * Adds a copy of the representative configuration for each configuration that was deduplicated in this build.
+     * If the representative project was not resolved, the deduplicated configuration is reported as a resolution failure.
+     */
+    private fun mergeDeduplicatedConfigurations() {
+        val resolvedByKey = resolvedConfigurations.associateBy { it.rootOrigin.path to it.configurationName }
+        val failedByKey = resolutionFailures.associateBy { it.projectPath to it.configurationName }
+        val completedProjects = forceResolvedProjects + runtimeResolvedProjects
+        val aliases = DeduplicatedConfigurations.read(getOutputDir())
+            .filter { completedProjects.contains(it.projectPath) }
+            .filter { !resolvedByKey.containsKey(it.projectPath to it.configurationName) }
+        var copied = 0
+        for (alias in aliases) {
+            val representativeKey = alias.representativeProjectPath to alias.configurationName
+            val representative = resolvedByKey[representativeKey]
+            when {
+                representative != null -> {
+                    val scope = configurationFilter.dependencyScope(alias.projectPath, alias.configurationName)
+                    resolvedConfigurations.add(DeduplicatedConfigurations.copyFor(alias, representative, scope))
+                    copied++
+                }
+                failedByKey.containsKey(representativeKey) || !completedProjects.contains(alias.representativeProjectPath) -> {
+                    resolutionFailures.add(ResolutionFailure(
+                        alias.projectPath,
+                        alias.configurationName,
+                        "Identical configuration '${alias.configurationName}' of project '${alias.representativeProjectPath}' was not resolved"
+                    ))
+                }
+                // Otherwise the representative configuration was resolved, and has no dependencies
+            }
+        }
+        if (copied > 0) {
+            LOGGER.lifecycle("Copied $copied configuration(s) from projects with identical dependency declarations.")
+        }
+    }
+
+    /**
+     * Removes the configurations and failures of the projects that are resolved by other shards,
+     * including any configurations of those projects that were resolved by this shard or reused from a previous run.
+     */
+    private fun excludeSkippedProjects() {
+        if (skippedProjects.isEmpty()) return
+        synchronized(resolvedConfigurations) {
+            resolvedConfigurations.removeAll { skippedProjects.contains(it.rootOrigin.path) }
+        }
+        synchronized(resolutionFailures) {
+            resolutionFailures.removeAll { skippedProjects.contains(it.projectPath) }
+        }
+    }
+
+    private fun checkpointStore(): CheckpointStore {
+        return CheckpointStore(File(getOutputDir(), CHECKPOINTS_DIR))
+    }
+
+    private fun projectFingerprint(projectPath: String): String? {
+        val projectDir = buildLayout.getProjectDir(projectPath) ?: return null
+        val buildRootDir = buildLayout.getBuildRootDir(projectPath) ?: return null
+        val buildFingerprint = buildFingerprints.getOrPut(buildRootDir) {
+            ResolutionInputs.buildFingerprint(
+                buildRootDir,
+                buildLayout.getBuildFiles(buildRootDir),
+                initScripts,
+                listOfNotNull(gradleUserHomeDir?.absoluteFile).toSet(),
+                pluginParameters
+            )
+        }
+        return ResolutionInputs.projectFingerprint(buildFingerprint, projectDir)
     }
 
     private fun walkComponentDependencies(
@@ -314,20 +762,82 @@ abstract class DependencyExtractor :
         }
     }
 
-    private fun writeDependencyGraph() {
-        val outputDirectory = getOutputDir()
-        outputDirectory.mkdirs()
-        createRenderer().outputDependencyGraph(pluginParameters, buildLayout, resolvedConfigurations, outputDirectory)
+    private fun writeDependencyGraph(partial: Boolean) {
+        val unresolved = when {
+            timeBudgetSeconds != null -> resolutionFailures + getUnresolvedWithinBudget()
+            partial -> getUnresolved()
+            else -> resolutionFailures.toList()
+        }
+        val writer = DependencyGraphWriter(pluginParameters, buildLayout, getRendererClassNames(), getOutputDir())
+        val complete = !partial && unresolved.isEmpty()
+        if (pluginParameters.loadBoolean(PARAM_PERSIST_EXTRACTION)) {
+            // Written before rendering, so that a failed renderer can be run again from the extraction
+            writer.writeExtraction(resolvedConfigurations, if (complete) null else unresolved)
+        }
+        writer.writeDependencyGraph(resolvedConfigurations, if (complete) null else unresolved)
+
+        if (lenientResolution || partial || timeBudgetSeconds != null) {
+            writer.writeResolutionFailures(unresolved)
+        }
+        val explainModules = pluginParameters.loadOptional(PARAM_EXPLAIN_MODULES)?.split(',')?.filter { it.isNotBlank() }
+        if (explainModules != null && explainModules.isNotEmpty()) {
+            writer.writeDependencyPaths(resolvedConfigurations, explainModules)
+        }
+        if (baseCommit != null && complete) {
+            // Provides the previous dependency graph for the next run: an incomplete graph cannot be used
+            writer.writeResolvedConfigurations(resolvedConfigurations)
+        }
+        if (sharded) {
+            // Provides the weights to balance the shards of the next run
+            ProjectShards.writeResolutionTimes(File(getOutputDir(), ProjectShards.RESOLUTION_TIMES_FILE), projectResolutionMillis)
+        }
+    }
+
+    /**
+     * The configurations that failed to resolve, together with any included project that was never resolved.
+     */
+    private fun getUnresolved(): List<ResolutionFailure> {
+        val unresolvedProjects = buildLayout.getProjectIdentityPaths()
+            .filter { configurationFilter.includeProject(it) && !resolvedProjects.contains(it) && !skippedProjects.contains(it) }
+            .map { ResolutionFailure(it, null, "Project dependencies were not resolved before the build failed") }
+        return resolutionFailures + unresolvedProjects
     }
 
-    private fun createRenderer(): DependencyGraphRenderer {
-        LOGGER.lifecycle("Constructing renderer: ${getRendererClassName()}")
-        val dependencyGraphRenderer =
-            Class.forName(getRendererClassName()).getDeclaredConstructor().newInstance() as DependencyGraphRenderer
-        if (LOGGER.isInfoEnabled) {
-            return LoggingDependencyGraphRenderer(dependencyGraphRenderer)
+    /**
+     * The projects where some configurations were not resolved before the time budget was exhausted.
+     */
+    private fun getUnresolvedWithinBudget(): List<ResolutionFailure> {
+        val projects = buildLayout.getProjectIdentityPaths().filter { configurationFilter.includeProject(it) && !skippedProjects.contains(it) }
+        var runtimeOnly = 0
+        val unresolved = projects.mapNotNull { projectPath ->
+            val previous = previousGraphProjects.contains(projectPath)
+            val runtime = previous || runtimeResolvedProjects.contains(projectPath) || lockfileProjects.contains(projectPath)
+            val remaining = previous || forceResolvedProjects.contains(projectPath)
+            when {
+                runtime && remaining -> null
+                runtime -> {
+                    runtimeOnly++
+                    ResolutionFailure(projectPath, null, "Only runtime configurations were resolved within the time budget")
+                }
+                else -> ResolutionFailure(projectPath, null, "Runtime configurations were not resolved within the time budget")
+            }
         }
-        return dependencyGraphRenderer
+        LOGGER.lifecycle(
+            "Dependency graph coverage within the time budget of $timeBudgetSeconds seconds: " +
+                "all configurations of ${projects.size - unresolved.size} project(s), " +
+                "runtime configurations only of $runtimeOnly project(s), " +
+                "no configurations of ${unresolved.size - runtimeOnly} project(s)."
+        )
+        return unresolved
+    }
+
+    private fun getRendererClassNames(): List<String> {
+        val additionalRendererClassNames = pluginParameters.loadOptional(PARAM_RENDERERS)
+            ?.split(',')
+            ?.map { it.trim() }
+            ?.filter { it.isNotEmpty() }
+            ?: emptyList()
+        return (listOf(getRendererClassName()) + additionalRendererClassNames).distinct()
     }
 
     private fun getOutputDir(): File {
@@ -340,7 +850,7 @@ abstract class DependencyExtractor :
         }
         return File(
             rootProjectBuildDirectory,
-            "reports/dependency-graph-snapshots"
+            DEFAULT_REPORT_DIR
         )
     }
 
@@ -360,6 +870,12 @@ abstract class DependencyExtractor :
             )
         }
 
+        val skipReason = skipDependencyGraphReason
+        if (skipReason != null) {
+            LOGGER.lifecycle("$skipReason: Dependency Graph file will not be generated.")
+            return
+        }
+
         // We use the absence of Settings Evaluated to determine if the build was loaded from the configuration-cache
         if (!settingsEvaluated) {
             LOGGER.lifecycle(
@@ -368,36 +884,45 @@ abstract class DependencyExtractor :
             )
             return
         }
-        // Do not write an incomplete graph when build didn't complete successfully
-        if (!buildCompleted || buildFailed) {
+        graphCache?.let {
+            LOGGER.lifecycle("Dependency graph daemon cache: ${graphCacheHits.get()} hit(s), ${graphCacheMisses.get()} miss(es) in this build; ${it.describe()}")
+        }
+        if (lockfileProjects.isNotEmpty()) {
+            mergeLockfileConfigurations()
+        }
+        if (checkpointsEnabled) {
+            mergeCheckpoints()
+        }
+        if (baseCommit != null) {
+            mergePreviousGraph()
+        }
+        if (deduplicateConfigurations) {
+            mergeDeduplicatedConfigurations()
+        }
+        if (sharded) {
+            excludeSkippedProjects()
+        }
+
+        // Do not write an incomplete graph when build didn't complete successfully, unless explicitly requested
+        val buildSucceeded = buildCompleted && !buildFailed
+        if (!buildSucceeded && (!salvagePartialGraph || resolvedConfigurations.isEmpty())) {
             LOGGER.lifecycle(
                 "Gradle Build did not complete successfully: Dependency Graph file will not be generated."
             )
             return
         }
+        if (!buildSucceeded) {
+            LOGGER.lifecycle(
+                "Gradle Build did not complete successfully: Writing partial Dependency Graph from the configurations that were resolved."
+            )
+        }
         try {
-            writeDependencyGraph()
+            writeDependencyGraph(!buildSucceeded)
         } catch (e: RuntimeException) {
             throw DefaultMultiCauseException("Failed to write dependency-graph to file", e)
         }
     }
 
-    private class LoggingDependencyGraphRenderer(private val delegate: DependencyGraphRenderer) : DependencyGraphRenderer {
-        override fun outputDependencyGraph(
-            pluginParameters: PluginParameters,
-            buildLayout: BuildLayout,
-            resolvedConfigurations: List<ResolvedConfiguration>,
-            outputDirectory: File
-        ) {
-            for (configuration in resolvedConfigurations) {
-                for (dependency in configuration.allDependencies) {
-                    LOGGER.info("Detected dependency '${dependency.id}': project = '${configuration.rootOrigin.path}', configuration = '${configuration.configurationName}'")
-                }
-            }
-            delegate.outputDependencyGraph(pluginParameters, buildLayout, resolvedConfigurations, outputDirectory)
-        }
-    }
-
     companion object {
         private val LOGGER = Logging.getLogger(DependencyExtractor::class.java)
     }
@@ -0,0 +1,130 @@
+package org.gradle.dependencygraph.extractor
+
+import org.gradle.api.logging.Logging
+import org.gradle.dependencygraph.CompositeDependencyGraphRenderer
+import org.gradle.dependencygraph.DependencyGraphRenderer
+import org.gradle.dependencygraph.PartialDependencyGraphRenderer
+import org.gradle.dependencygraph.explain.DependencyPathExplainer
+import org.gradle.dependencygraph.model.BuildLayout
+import org.gradle.dependencygraph.model.ResolutionFailure
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.outputDependencyGraph
+import org.gradle.dependencygraph.util.JacksonJsonSerializer
+import org.gradle.dependencygraph.util.PluginParameters
+import java.io.File
+
+private const val RESOLUTION_FAILURES_FILE = "dependency-resolution-failures.json"
+private const val RESOLVED_CONFIGURATIONS_FILE = "resolved-configurations.json"
+private const val DEPENDENCY_PATHS_FILE = "dependency-paths.json"
+
+/**
+ * Writes the extracted dependency graph with the configured renderers, together with the supporting report files.
+ *
+ * This is the only entry point from the extractor to the renderers and the JSON serializer,
+ * so that these classes are loaded when the dependency graph is written, and never for builds that write nothing,
+ * such as configuration-cache hits and failed builds.
+ */
+internal class DependencyGraphWriter(
+    private val pluginParameters: PluginParameters,
+    private val buildLayout: BuildLayout,
+    private val rendererClassNames: List<String>,
+    private val outputDirectory: File
+) {
+
+    /**
+     * Renders the dependency graph. A `null` list of unresolved configurations indicates a complete dependency graph.
+     */
+    fun writeDependencyGraph(resolvedConfigurations: List<ResolvedConfiguration>, unresolved: List<ResolutionFailure>?) {
+        outputDirectory.mkdirs()
+        createRenderer().outputDependencyGraph(pluginParameters, buildLayout, resolvedConfigurations, unresolved, outputDirectory)
+    }
+
+    fun writeResolutionFailures(unresolved: List<ResolutionFailure>) {
+        val failuresFile = File(outputDirectory, RESOLUTION_FAILURES_FILE)
+        failuresFile.writeText(JacksonJsonSerializer.serializeToJson(unresolved))
+        if (unresolved.isNotEmpty()) {
+            LOGGER.lifecycle(
+                "${unresolved.size} configuration(s) or project(s) were not resolved and are missing from the dependency graph. " +
+                    "See ${failuresFile.canonicalPath}"
+            )
+        }
+    }
+
+    /**
+     * Provides the previous dependency graph for the next run.
+     */
+    fun writeResolvedConfigurations(resolvedConfigurations: List<ResolvedConfiguration>) {
+        File(outputDirectory, RESOLVED_CONFIGURATIONS_FILE)
+            .writeText(JacksonJsonSerializer.serializeToJson(resolvedConfigurations))
+    }
+
+    fun writeExtraction(resolvedConfigurations: List<ResolvedConfiguration>, unresolved: List<ResolutionFailure>?) {
+        val extractionFile = File(outputDirectory, PersistedExtraction.FILE_NAME)
+        PersistedExtraction.write(extractionFile, buildLayout, resolvedConfigurations, unresolved)
+        LOGGER.lifecycle("Wrote dependency graph extraction to ${extractionFile.canonicalPath}")
+    }
+
+    /**
+     * Writes the shortest dependency paths to each of the modules, in every configuration that contains them.
+     */
+    fun writeDependencyPaths(resolvedConfigurations: List<ResolvedConfiguration>, modules: List<String>) {
+        val startTime = System.nanoTime()
+        val explanations = DependencyPathExplainer.explain(resolvedConfigurations, modules)
+        val pathsFile = File(outputDirectory, DEPENDENCY_PATHS_FILE)
+        pathsFile.writeText(JacksonJsonSerializer.serializeToJson(explanations))
+        LOGGER.lifecycle(
+            "Explained ${modules.joinToString()} in ${explanations.map { it.path to it.configuration }.distinct().size} configuration(s) " +
+                "of ${resolvedConfigurations.size} in ${(System.nanoTime() - startTime) / 1_000_000} ms. See ${pathsFile.canonicalPath}"
+        )
+    }
+
+    private fun createRenderer(): DependencyGraphRenderer {
+        val renderers = rendererClassNames.map { rendererClassName ->
+            LOGGER.lifecycle("Constructing renderer: $rendererClassName")
+            Class.forName(rendererClassName).getDeclaredConstructor().newInstance() as DependencyGraphRenderer
+        }
+        val dependencyGraphRenderer = renderers.singleOrNull() ?: CompositeDependencyGraphRenderer(renderers)
+        if (LOGGER.isInfoEnabled) {
+            return LoggingDependencyGraphRenderer(dependencyGraphRenderer)
+        }
+        return dependencyGraphRenderer
+    }
+
+    private class LoggingDependencyGraphRenderer(private val delegate: DependencyGraphRenderer) : PartialDependencyGraphRenderer {
+        override fun outputDependencyGraph(
+            pluginParameters: PluginParameters,
+            buildLayout: BuildLayout,
+            resolvedConfigurations: List<ResolvedConfiguration>,
+            outputDirectory: File
+        ) {
+            logDependencies(resolvedConfigurations)
+            delegate.outputDependencyGraph(pluginParameters, buildLayout, resolvedConfigurations, outputDirectory)
+        }
+
+        override fun outputPartialDependencyGraph(
+            pluginParameters: PluginParameters,
+            buildLayout: BuildLayout,
+            resolvedConfigurations: List<ResolvedConfiguration>,
+            unresolved: List<ResolutionFailure>,
+            outputDirectory: File
+        ) {
+            logDependencies(resolvedConfigurations)
+            for (failure in unresolved) {
+                LOGGER.info("Unresolved: ${failure.displayName()}: ${failure.cause}")
+            }
+            delegate.outputDependencyGraph(pluginParameters, buildLayout, resolvedConfigurations, unresolved, outputDirectory)
+        }
+
+        private fun logDependencies(resolvedConfigurations: List<ResolvedConfiguration>) {
+            for (configuration in resolvedConfigurations) {
+                for (dependency in configuration.allDependencies) {
+                    LOGGER.info("Detected dependency '${dependency.id}': project = '${configuration.rootOrigin.path}', configuration = '${configuration.configurationName}'")
+                }
+            }
+        }
+    }
+
+    companion object {
+        private val LOGGER = Logging.getLogger(DependencyExtractor::class.java)
+    }
+}
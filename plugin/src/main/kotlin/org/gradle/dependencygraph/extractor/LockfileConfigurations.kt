@@ -0,0 +1,22 @@
+package org.gradle.dependencygraph.extractor
+
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.util.JacksonJsonReader
+import java.io.File
+import java.net.URLEncoder
+
+/**
+ * The resolved configurations built from dependency lockfiles, written for each project under the report directory.
+ */
+object LockfileConfigurations {
+    private const val LOCKFILE_CONFIGURATIONS_DIR = "lockfile-configurations"
+
+    fun file(reportDirectory: File, projectPath: String): File {
+        return File(reportDirectory, "$LOCKFILE_CONFIGURATIONS_DIR/${URLEncoder.encode(projectPath, "UTF-8")}.json")
+    }
+
+    fun read(reportDirectory: File, projectPath: String): List<ResolvedConfiguration> {
+        val file = file(reportDirectory, projectPath)
+        return if (file.isFile) JacksonJsonReader.readResolvedConfigurations(file) else emptyList()
+    }
+}
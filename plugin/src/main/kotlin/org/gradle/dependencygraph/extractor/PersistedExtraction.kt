@@ -0,0 +1,177 @@
+package org.gradle.dependencygraph.extractor
+
+import com.fasterxml.jackson.core.JsonEncoding
+import com.fasterxml.jackson.core.JsonFactory
+import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.json.JsonMapper
+import org.gradle.dependencygraph.model.*
+import java.io.File
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+/**
+ * The raw result of a dependency graph extraction: the build layout, the extracted configurations,
+ * and the configurations that were not resolved. Renderers can be run against a persisted extraction without resolving again.
+ *
+ * The file is gzipped JSON, with a format version. Each distinct origin and dependency is written once,
+ * and configurations refer to them by index, as the same dependencies are typically found in many configurations.
+ */
+object PersistedExtraction {
+    const val FILE_NAME = "dependency-graph-extraction.json.gz"
+    private const val FORMAT_VERSION = 1
+
+    class Extraction(
+        val buildLayout: BuildLayout,
+        val resolvedConfigurations: List<ResolvedConfiguration>,
+        // `null` for a complete dependency graph
+        val unresolved: List<ResolutionFailure>?
+    )
+
+    fun write(
+        file: File,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        unresolved: List<ResolutionFailure>?
+    ) {
+        val origins = linkedMapOf<DependencyOrigin, Int>()
+        val dependencies = linkedMapOf<ResolvedDependency, Int>()
+        for (configuration in resolvedConfigurations) {
+            origins.getOrPut(configuration.rootOrigin) { origins.size }
+            for (dependency in configuration.allDependencies) {
+                origins.getOrPut(dependency.origin) { origins.size }
+                dependencies.getOrPut(dependency) { dependencies.size }
+            }
+        }
+
+        file.parentFile.mkdirs()
+        val tempFile = File(file.parentFile, "${file.name}.tmp")
+        GZIPOutputStream(tempFile.outputStream()).use { output ->
+            JsonFactory().createGenerator(output, JsonEncoding.UTF8).use { json ->
+                json.writeStartObject()
+                json.writeNumberField("formatVersion", FORMAT_VERSION)
+                writeBuildLayout(json, buildLayout)
+
+                json.writeArrayFieldStart("origins")
+                for (origin in origins.keys) {
+                    json.writeStartArray()
+                    json.writeString(origin.id)
+                    json.writeString(origin.path)
+                    json.writeEndArray()
+                }
+                json.writeEndArray()
+
+                json.writeArrayFieldStart("dependencies")
+                for (dependency in dependencies.keys) {
+                    json.writeStartArray()
+                    json.writeString(dependency.id)
+                    json.writeNumber(origins.getValue(dependency.origin))
+                    json.writeBoolean(dependency.isDirect)
+                    json.writeBoolean(dependency.isProject)
+                    json.writeString(dependency.coordinates.group)
+                    json.writeString(dependency.coordinates.module)
+                    json.writeString(dependency.coordinates.version)
+                    json.writeString(dependency.repositoryUrl)
+                    json.writeStartArray()
+                    dependency.dependencies.forEach { json.writeString(it) }
+                    json.writeEndArray()
+                    json.writeEndArray()
+                }
+                json.writeEndArray()
+
+                json.writeArrayFieldStart("configurations")
+                for (configuration in resolvedConfigurations) {
+                    json.writeStartArray()
+                    json.writeNumber(origins.getValue(configuration.rootOrigin))
+                    json.writeString(configuration.configurationName)
+                    json.writeString(configuration.scope.name)
+                    json.writeStartArray()
+                    configuration.allDependencies.forEach { json.writeNumber(dependencies.getValue(it)) }
+                    json.writeEndArray()
+                    json.writeEndArray()
+                }
+                json.writeEndArray()
+
+                if (unresolved != null) {
+                    json.writeArrayFieldStart("unresolved")
+                    for (failure in unresolved) {
+                        json.writeStartArray()
+                        json.writeString(failure.projectPath)
+                        json.writeString(failure.configurationName)
+                        json.writeString(failure.cause)
+                        json.writeEndArray()
+                    }
+                    json.writeEndArray()
+                }
+                json.writeEndObject()
+            }
+        }
+        check(tempFile.renameTo(file) || (file.delete() && tempFile.renameTo(file))) {
+            "Failed to write dependency graph extraction to ${file.path}"
+        }
+    }
+
+    private fun writeBuildLayout(json: JsonGenerator, buildLayout: BuildLayout) {
+        json.writeObjectFieldStart("buildLayout")
+        json.writeObjectFieldStart("settings")
+        for ((buildPath, settingsFile) in buildLayout.getSettingsFiles()) {
+            json.writeStringField(buildPath, settingsFile)
+        }
+        json.writeEndObject()
+        json.writeArrayFieldStart("projects")
+        for (projectPath in buildLayout.getProjectIdentityPaths()) {
+            json.writeStartArray()
+            json.writeString(projectPath)
+            json.writeString(buildLayout.getBuildFile(projectPath)?.path)
+            json.writeString(buildLayout.getProjectDir(projectPath)?.path)
+            json.writeString(buildLayout.getBuildRootDir(projectPath)?.path)
+            json.writeEndArray()
+        }
+        json.writeEndArray()
+        json.writeEndObject()
+    }
+
+    fun read(file: File): Extraction {
+        val root = GZIPInputStream(file.inputStream()).use { JsonMapper.builder().build().readTree(it) }
+        val formatVersion = root.path("formatVersion").asInt()
+        check(formatVersion == FORMAT_VERSION) {
+            "Unsupported dependency graph extraction format version $formatVersion in ${file.path}: expected $FORMAT_VERSION"
+        }
+
+        val buildLayout = BuildLayout()
+        val layout = root.required("buildLayout")
+        layout.path("settings").fields().forEach { (buildPath, settingsFile) -> buildLayout.addSettings(buildPath, settingsFile.asText()) }
+        for (project in layout.path("projects")) {
+            buildLayout.addProject(project[0].asText(), project[1].asText(), project[2].asText(), project[3].asText())
+        }
+
+        val origins = root.path("origins").map { DependencyOrigin(it[0].asText(), it[1].asText()) }
+        val dependencies = root.path("dependencies").map {
+            ResolvedDependency(
+                it[0].asText(),
+                origins[it[1].asInt()],
+                it[2].asBoolean(),
+                it[3].asBoolean(),
+                DependencyCoordinates(it[4].asText(), it[5].asText(), it[6].asText()),
+                textOrNull(it[7]),
+                it[8].map { dependency -> dependency.asText() }
+            )
+        }
+        val resolvedConfigurations = root.path("configurations").map {
+            ResolvedConfiguration(
+                origins[it[0].asInt()],
+                it[1].asText(),
+                DependencyScope.valueOf(it[2].asText()),
+                it[3].map { index -> dependencies[index.asInt()] }.toMutableList()
+            )
+        }
+        val unresolved = root.get("unresolved")?.map {
+            ResolutionFailure(it[0].asText(), textOrNull(it[1]), it[2].asText())
+        }
+        return Extraction(buildLayout, resolvedConfigurations, unresolved)
+    }
+
+    private fun textOrNull(node: JsonNode): String? {
+        return if (node.isNull) null else node.asText()
+    }
+}
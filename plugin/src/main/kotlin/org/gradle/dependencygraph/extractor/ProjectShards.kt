@@ -0,0 +1,96 @@
+package org.gradle.dependencygraph.extractor
+
+import org.gradle.dependencygraph.util.JacksonJsonReader
+import org.gradle.dependencygraph.util.JacksonJsonSerializer
+import java.io.File
+import java.net.URLEncoder
+import java.security.MessageDigest
+
+/**
+ * Partitions the projects of a build into shards, so that the dependencies of a large build can be resolved on several machines.
+ *
+ * Every machine computes the same partition from the same inputs. The projects that are not in the shard of a build
+ * are recorded under the report directory, in a file for each build, so that they are left out of the rendered dependency graph.
+ */
+object ProjectShards {
+    private const val SKIPPED_PROJECTS_DIR = "shard-skipped-projects"
+    const val RESOLUTION_TIMES_FILE = "project-resolution-times.json"
+
+    /**
+     * Assigns each project, by identity path, to a shard between 0 and `shardCount - 1`.
+     *
+     * Without weights, each project is assigned by a stable hash of its identity path.
+     * With weights, such as the resolution time of each project in a previous run, the heaviest projects are assigned first,
+     * each to the shard with the lowest total weight. Projects without a weight are given the mean weight of the other projects.
+     */
+    fun partition(identityPaths: Collection<String>, shardCount: Int, weights: Map<String, Long>): Map<String, Int> {
+        check(shardCount >= 1) { "The number of shards must be at least 1: $shardCount" }
+        val knownWeights = identityPaths.mapNotNull { weights[it] }
+        if (knownWeights.isEmpty()) {
+            return identityPaths.associateWith { Math.floorMod(stableHash(it), shardCount) }
+        }
+        val defaultWeight = maxOf(1L, knownWeights.sum() / knownWeights.size)
+        val ordered = identityPaths.distinct().sortedWith(
+            compareByDescending<String> { weights[it] ?: defaultWeight }.thenBy { it }
+        )
+        val loads = LongArray(shardCount)
+        val shards = linkedMapOf<String, Int>()
+        for (identityPath in ordered) {
+            var shard = 0
+            for (index in loads.indices) {
+                if (loads[index] < loads[shard]) shard = index
+            }
+            loads[shard] += weights[identityPath] ?: defaultWeight
+            shards[identityPath] = shard
+        }
+        return shards
+    }
+
+    /**
+     * A hash of the identity path that is the same on every machine and JVM.
+     */
+    private fun stableHash(identityPath: String): Int {
+        val digest = MessageDigest.getInstance("SHA-256").digest(identityPath.toByteArray(Charsets.UTF_8))
+        return (digest[0].toInt() and 0xff shl 24) or
+            (digest[1].toInt() and 0xff shl 16) or
+            (digest[2].toInt() and 0xff shl 8) or
+            (digest[3].toInt() and 0xff)
+    }
+
+    fun writeSkippedProjects(reportDirectory: File, buildPath: String, identityPaths: List<String>) {
+        val file = File(reportDirectory, "$SKIPPED_PROJECTS_DIR/${URLEncoder.encode(buildPath, "UTF-8")}.json")
+        file.parentFile.mkdirs()
+        file.writeText(JacksonJsonSerializer.serializeToJson(identityPaths.sorted()))
+    }
+
+    fun readSkippedProjects(reportDirectory: File): Set<String> {
+        val files = File(reportDirectory, SKIPPED_PROJECTS_DIR).listFiles { file -> file.name.endsWith(".json") }
+            ?: return emptySet()
+        return files.flatMap { file -> JacksonJsonReader.readTree(file).map { it.asText() } }.toSet()
+    }
+
+    fun clearSkippedProjects(reportDirectory: File) {
+        File(reportDirectory, SKIPPED_PROJECTS_DIR).deleteRecursively()
+    }
+
+    /**
+     * Writes the time taken to resolve the dependencies of each project, in milliseconds, to be used as weights by a later run.
+     */
+    fun writeResolutionTimes(file: File, resolutionTimes: Map<String, Long>) {
+        file.parentFile.mkdirs()
+        file.writeText(JacksonJsonSerializer.serializeToJson(resolutionTimes.toSortedMap()))
+    }
+
+    /**
+     * Reads and combines the resolution times written by each shard of a previous run. Missing files are ignored.
+     */
+    fun readResolutionTimes(files: List<File>): Map<String, Long> {
+        val resolutionTimes = sortedMapOf<String, Long>()
+        for (file in files.filter { it.isFile }) {
+            JacksonJsonReader.readTree(file).fields().forEach { (identityPath, millis) ->
+                resolutionTimes[identityPath] = (resolutionTimes[identityPath] ?: 0) + millis.asLong()
+            }
+        }
+        return resolutionTimes
+    }
+}
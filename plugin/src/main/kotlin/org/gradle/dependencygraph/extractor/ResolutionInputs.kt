@@ -0,0 +1,181 @@
+package org.gradle.dependencygraph.extractor
+
+import org.gradle.dependencygraph.util.PluginParameters
+import org.gradle.util.GradleVersion
+import java.io.File
+import java.security.MessageDigest
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Fingerprints the inputs that can influence the dependencies resolved for a project.
+ *
+ * The fingerprint is deliberately conservative: a change to any build script, settings file, init script,
+ * version catalog or build logic in a build invalidates every project in that build.
+ * Only dependency lockfiles are considered per-project.
+ */
+object ResolutionInputs {
+    private val PARAMETERS = listOf(
+        PARAM_INCLUDE_PROJECTS,
+        PARAM_INCLUDE_CONFIGURATIONS,
+        PARAM_EXCLUDE_PROJECTS,
+        PARAM_EXCLUDE_CONFIGURATIONS,
+        PARAM_RUNTIME_INCLUDE_PROJECTS,
+        PARAM_RUNTIME_INCLUDE_CONFIGURATIONS,
+        PARAM_RUNTIME_EXCLUDE_PROJECTS,
+        PARAM_RUNTIME_EXCLUDE_CONFIGURATIONS
+    )
+    private val BUILD_LOGIC_DIRS = listOf("buildSrc", "build-logic")
+    private val PROJECT_LOCKFILES = listOf("gradle.lockfile", "buildscript-gradle.lockfile")
+
+    // Build logic is hashed by content, but only re-hashed when the file metadata changes
+    private val buildLogicDigests = ConcurrentHashMap<String, String>()
+
+    /**
+     * Fingerprints the inputs shared by all projects in a build: every Gradle script, `gradle.properties` file and version catalog
+     * under the build root directory, including shared scripts applied with `apply from:`, together with the build logic,
+     * the build files of projects located outside the build root directory and the init scripts.
+     * Lockfiles are not included, as they are fingerprinted per project.
+     */
+    fun buildFingerprint(
+        buildRootDir: File,
+        buildFiles: Collection<File>,
+        initScripts: Collection<File>,
+        excludedDirs: Set<File>,
+        pluginParameters: PluginParameters
+    ): String {
+        val rootDir = buildRootDir.absoluteFile
+        val digest = MessageDigest.getInstance("SHA-256")
+        digest.putString(GradleVersion.current().version)
+        for (parameter in PARAMETERS) {
+            digest.putString(parameter + "=" + (pluginParameters.loadOptional(parameter) ?: ""))
+        }
+        buildInputFiles(rootDir, excludedDirs) { isBuildScript(it) }
+            .forEach { digest.putFile(it.relativeTo(rootDir).path, it) }
+        for (dirName in BUILD_LOGIC_DIRS) {
+            digest.putString(buildLogicDigest(File(rootDir, dirName)))
+        }
+        for (buildFile in buildFiles.map { it.absoluteFile }.filter { !it.startsWith(rootDir) }.distinct().sorted()) {
+            digest.putFile(buildFile.path, buildFile)
+        }
+        for (initScript in initScripts.map { it.absoluteFile }.distinct().sorted()) {
+            digest.putFile(initScript.path, initScript)
+        }
+        return digest.toHex()
+    }
+
+    /**
+     * Fingerprints the inputs for a single project, combining the fingerprint of the containing build.
+     */
+    fun projectFingerprint(buildFingerprint: String, projectDir: File): String {
+        val digest = MessageDigest.getInstance("SHA-256")
+        digest.putString(buildFingerprint)
+        for (fileName in PROJECT_LOCKFILES) {
+            digest.putFile(fileName, File(projectDir, fileName))
+        }
+        File(projectDir, "gradle/dependency-locks").listFiles { file -> file.name.endsWith(".lockfile") }
+            ?.sorted()
+            ?.forEach { digest.putFile(it.name, it) }
+        return digest.toHex()
+    }
+
+    /**
+     * Fingerprints every file under the build root directories that can influence dependency resolution, without configuring any project:
+     * Gradle scripts, `gradle.properties`, version catalogs, lockfiles and build logic, together with the supplied files and parameters.
+     * Hidden directories, `build` directories and the excluded directories are not visited.
+     */
+    fun buildTreeFingerprint(
+        rootDirs: List<File>,
+        excludedDirs: Set<File>,
+        additionalFiles: Collection<File>,
+        parameters: Map<String, String>
+    ): String {
+        val digest = MessageDigest.getInstance("SHA-256")
+        digest.putString(GradleVersion.current().version)
+        for ((name, value) in parameters.toSortedMap()) {
+            digest.putString("$name=$value")
+        }
+        for (rootDir in rootDirs) {
+            // Each root directory is identified relative to the first, so that the fingerprint does not depend on the checkout location
+            digest.putString(rootDir.relativeToOrSelf(rootDirs.first()).path)
+            buildInputFiles(rootDir, excludedDirs) { isBuildScript(it) || it.name.endsWith(".lockfile") }
+                .forEach { digest.putFile(it.relativeTo(rootDir).path, it) }
+            for (dirName in BUILD_LOGIC_DIRS) {
+                digest.putString(buildLogicDigest(File(rootDir, dirName)))
+            }
+        }
+        for (file in additionalFiles.map { it.absoluteFile }.distinct().sorted()) {
+            digest.putFile(file.path, file)
+        }
+        return digest.toHex()
+    }
+
+    /**
+     * Returns `true` if the directory holds the build logic of the build, which is fingerprinted with the build.
+     */
+    fun isBuildLogicDir(buildRootDir: File, dir: File): Boolean {
+        return BUILD_LOGIC_DIRS.any { File(buildRootDir.absoluteFile, it) == dir.absoluteFile }
+    }
+
+    /**
+     * The files under the root directory that match the filter, in a stable order.
+     * Hidden directories, `build` directories, build logic directories and the excluded directories are not visited.
+     */
+    private fun buildInputFiles(rootDir: File, excludedDirs: Set<File>, filter: (File) -> Boolean): List<File> {
+        return rootDir.walkTopDown()
+            .onEnter { it == rootDir || !(it.name.startsWith(".") || it.name == "build" || BUILD_LOGIC_DIRS.contains(it.name) || excludedDirs.contains(it)) }
+            .filter { it.isFile && filter(it) }
+            .sortedBy { it.path }
+            .toList()
+    }
+
+    private fun isBuildScript(file: File): Boolean {
+        val name = file.name
+        return name.endsWith(".gradle")
+            || name.endsWith(".gradle.kts")
+            || name.endsWith(".versions.toml")
+            || name == "gradle.properties"
+            || name == "gradle-wrapper.properties"
+    }
+
+    private fun buildLogicDigest(dir: File): String {
+        if (!dir.isDirectory) {
+            return "${dir.name}:absent"
+        }
+        val files = dir.walkTopDown()
+            .onEnter { it == dir || (it.name != "build" && it.name != ".gradle") }
+            .filter { it.isFile }
+            .sortedBy { it.path }
+            .toList()
+        val metadata = MessageDigest.getInstance("SHA-256")
+        metadata.putString(dir.absolutePath)
+        for (file in files) {
+            metadata.putString("${file.relativeTo(dir).path}:${file.length()}:${file.lastModified()}")
+        }
+        return buildLogicDigests.getOrPut(metadata.toHex()) {
+            val content = MessageDigest.getInstance("SHA-256")
+            for (file in files) {
+                content.putString(file.relativeTo(dir).path)
+                content.update(file.readBytes())
+            }
+            content.toHex()
+        }
+    }
+
+    private fun MessageDigest.putString(value: String) {
+        update(value.toByteArray())
+        update(0)
+    }
+
+    private fun MessageDigest.putFile(name: String, file: File) {
+        putString(name)
+        if (file.isFile) {
+            update(file.readBytes())
+        } else {
+            putString("absent")
+        }
+    }
+
+    private fun MessageDigest.toHex(): String {
+        return digest().joinToString("") { String.format("%02x", it) }
+    }
+}
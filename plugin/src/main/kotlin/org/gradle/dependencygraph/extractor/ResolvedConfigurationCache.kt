@@ -0,0 +1,107 @@
+package org.gradle.dependencygraph.extractor
+
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import java.lang.ref.SoftReference
+import java.util.*
+
+/**
+ * A daemon-scoped cache of extracted configurations, keyed by a fingerprint of the resolution result.
+ *
+ * Entries are evicted in least-recently-used order once either the entry count or the approximate retained size
+ * is exceeded. Values are held by soft references, so that they can be reclaimed under heap pressure.
+ */
+internal class ResolvedConfigurationCache private constructor(
+    private val maxEntries: Int,
+    private val maxBytes: Long
+) {
+    private class Entry(val configuration: SoftReference<ResolvedConfiguration>, val bytes: Long)
+
+    private val entries = LinkedHashMap<String, Entry>(16, 0.75f, true)
+    private var retainedBytes = 0L
+    private var hits = 0L
+    private var misses = 0L
+
+    @Synchronized
+    fun get(key: String): ResolvedConfiguration? {
+        val configuration = entries[key]?.configuration?.get()
+        if (configuration == null) {
+            remove(key)
+            misses++
+            return null
+        }
+        hits++
+        return copyOf(configuration)
+    }
+
+    @Synchronized
+    fun put(key: String, configuration: ResolvedConfiguration) {
+        val bytes = estimateBytes(configuration)
+        if (bytes > maxBytes) {
+            return
+        }
+        remove(key)
+        entries[key] = Entry(SoftReference(copyOf(configuration)), bytes)
+        retainedBytes += bytes
+        evict()
+    }
+
+    @Synchronized
+    fun describe(): String {
+        val requests = hits + misses
+        val hitRate = if (requests == 0L) 0 else hits * 100 / requests
+        return "$hits hit(s), $misses miss(es) since daemon start ($hitRate% hit rate), " +
+            "${entries.size} entries retaining ~${retainedBytes / 1024} KiB"
+    }
+
+    private fun remove(key: String) {
+        val removed = entries.remove(key)
+        if (removed != null) {
+            retainedBytes -= removed.bytes
+        }
+    }
+
+    private fun evict() {
+        val iterator = entries.values.iterator()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+            if (entry.configuration.get() == null || entries.size > maxEntries || retainedBytes > maxBytes) {
+                retainedBytes -= entry.bytes
+                iterator.remove()
+            }
+        }
+    }
+
+    private fun copyOf(configuration: ResolvedConfiguration): ResolvedConfiguration {
+        return configuration.copy(allDependencies = configuration.allDependencies.toMutableList())
+    }
+
+    /**
+     * A rough estimate of the retained size, counting 2 bytes per character plus a fixed overhead per object.
+     */
+    private fun estimateBytes(configuration: ResolvedConfiguration): Long {
+        var bytes = 128L + 2L * configuration.configurationName.length
+        for (dependency in configuration.allDependencies) {
+            bytes += 160L + 2L * (dependency.id.length + (dependency.repositoryUrl?.length ?: 0))
+            for (child in dependency.dependencies) {
+                bytes += 48L + 2L * child.length
+            }
+        }
+        return bytes
+    }
+
+    companion object {
+        private var instance: ResolvedConfigurationCache? = null
+
+        /**
+         * Returns the cache for this daemon, replacing any existing cache that was created with different bounds.
+         */
+        @Synchronized
+        fun forDaemon(maxEntries: Int, maxBytes: Long): ResolvedConfigurationCache {
+            val current = instance
+            if (current != null && current.maxEntries == maxEntries && current.maxBytes == maxBytes) {
+                return current
+            }
+            return ResolvedConfigurationCache(maxEntries, maxBytes).also { instance = it }
+        }
+    }
+}
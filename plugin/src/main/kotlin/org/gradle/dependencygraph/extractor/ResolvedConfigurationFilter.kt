@@ -1,5 +1,6 @@
 package org.gradle.dependencygraph.extractor
 
+import org.gradle.dependencygraph.model.DependencyScope
 import org.gradle.dependencygraph.util.PluginParameters
 
 class ResolvedConfigurationFilter(pluginParameters: PluginParameters) {
@@ -14,12 +15,16 @@ class ResolvedConfigurationFilter(pluginParameters: PluginParameters) {
     private val runtimeExcludeConfigurations = pluginParameters.loadOptional(PARAM_RUNTIME_EXCLUDE_CONFIGURATIONS)?.toRegex()
 
     fun include(projectPath: String, configurationName: String): Boolean {
-        return includes(includeProjects, projectPath)
-            && notExcludes(excludeProjects, projectPath)
+        return includeProject(projectPath)
             && includes(includeConfigurations, configurationName)
             && notExcludes(excludeConfigurations, configurationName)
     }
 
+    fun includeProject(projectPath: String): Boolean {
+        return includes(includeProjects, projectPath)
+            && notExcludes(excludeProjects, projectPath)
+    }
+
     fun scopesAreConfigured(): Boolean {
         return runtimeIncludeProjects != null
             || runtimeIncludeConfigurations != null
@@ -34,6 +39,13 @@ class ResolvedConfigurationFilter(pluginParameters: PluginParameters) {
             && notExcludes(runtimeExcludeConfigurations, configurationName)
     }
 
+    fun dependencyScope(projectPath: String, configurationName: String): DependencyScope {
+        if (scopesAreConfigured()) {
+            return if (isRuntime(projectPath, configurationName)) DependencyScope.Runtime else DependencyScope.Development
+        }
+        return DependencyScope.Unknown
+    }
+
     private fun includes(regex: Regex?, value: String): Boolean {
         return regex == null || regex.matches(value)
     }
@@ -8,13 +8,67 @@ import java.util.concurrent.ConcurrentHashMap
 class BuildLayout {
     private val buildPathToSettingsFile = ConcurrentHashMap<String, String>()
     private val projectPathToBuildFile = ConcurrentHashMap<String, String>()
+    private val projectPathToProjectDir = ConcurrentHashMap<String, String>()
+    private val projectPathToBuildRootDir = ConcurrentHashMap<String, String>()
 
     fun addSettings(identityPath: String, settingsFilePath: String) {
         buildPathToSettingsFile[identityPath] = settingsFilePath
     }
 
-    fun addProject(identityPath: String, buildFileAbsolutePath: String) {
+    fun addProject(identityPath: String, buildFileAbsolutePath: String, projectDir: String, buildRootDir: String) {
         projectPathToBuildFile[identityPath] = buildFileAbsolutePath
+        projectPathToProjectDir[identityPath] = projectDir
+        projectPathToBuildRootDir[identityPath] = buildRootDir
+    }
+
+    /**
+     * Returns the settings file of each build in the build tree, by build identity path.
+     */
+    fun getSettingsFiles(): Map<String, String> {
+        return buildPathToSettingsFile.toSortedMap()
+    }
+
+    /**
+     * Returns the identity paths of all projects in the build tree.
+     */
+    fun getProjectIdentityPaths(): Set<String> {
+        return projectPathToBuildFile.keys.toSortedSet()
+    }
+
+    /**
+     * Returns the identity path of the build that contains the project, which is the longest build path that prefixes the project path.
+     */
+    fun getBuildPath(identityPath: String): String {
+        return buildPathToSettingsFile.keys
+            .filter { it == identityPath || identityPath.startsWith("$it:") }
+            .sortedByDescending { it.length }
+            .firstOrNull() ?: ":"
+    }
+
+    fun getBuildFile(identityPath: String): File? {
+        return projectPathToBuildFile[identityPath]?.let { File(it) }
+    }
+
+    fun getProjectDir(identityPath: String): File? {
+        return projectPathToProjectDir[identityPath]?.let { File(it) }
+    }
+
+    /**
+     * Returns the root directory of the build that contains the project.
+     */
+    fun getBuildRootDir(identityPath: String): File? {
+        return projectPathToBuildRootDir[identityPath]?.let { File(it) }
+    }
+
+    /**
+     * Returns the build files of all projects in the build with the given root directory.
+     */
+    fun getBuildFiles(buildRootDir: File): List<File> {
+        return projectPathToBuildRootDir
+            .filterValues { File(it) == buildRootDir }
+            .keys
+            .mapNotNull { projectPathToBuildFile[it] }
+            .map { File(it) }
     }
 
     /**
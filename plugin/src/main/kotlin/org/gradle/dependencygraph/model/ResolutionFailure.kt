@@ -0,0 +1,11 @@
+package org.gradle.dependencygraph.model
+
+/**
+ * A configuration that could not be resolved, and is therefore missing from the dependency graph.
+ * A `null` configuration name indicates that none of the project configurations were resolved.
+ */
+data class ResolutionFailure(val projectPath: String, val configurationName: String?, val cause: String) {
+    fun displayName(): String {
+        return if (configurationName == null) projectPath else "$projectPath ($configurationName)"
+    }
+}
@@ -13,4 +13,12 @@ data class ResolvedConfiguration(
     fun hasDependency(componentId: String): Boolean {
         return allDependencies.map { it.id }.contains(componentId)
     }
+
+    companion object {
+        /**
+         * Orders configurations by project and configuration name, independently of the order in which they were resolved.
+         */
+        val CANONICAL_ORDER: Comparator<ResolvedConfiguration> =
+            compareBy<ResolvedConfiguration>({ it.rootOrigin.path }, { it.rootOrigin.id }, { it.configurationName })
+    }
 }
@@ -19,7 +19,8 @@ class SimpleDependencyGraphPlugin : Plugin<Gradle> {
 
     class SimpleDependencyExtractorPlugin : AbstractDependencyExtractorPlugin() {
         override fun getRendererClassName(): String {
-            return SimpleDependencyGraphRenderer::class.java.name
+            // Referenced by name, so that the renderer is only loaded when the dependency graph is written
+            return "org.gradle.dependencygraph.simple.SimpleDependencyGraphRenderer"
         }
     }
 }
\ No newline at end of file
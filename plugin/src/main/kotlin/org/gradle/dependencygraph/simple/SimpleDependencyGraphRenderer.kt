@@ -1,18 +1,35 @@
 package org.gradle.dependencygraph.simple
 
+import org.gradle.api.logging.Logging
 import org.gradle.dependencygraph.DependencyGraphRenderer
 import org.gradle.dependencygraph.model.BuildLayout
 import org.gradle.dependencygraph.model.ResolvedConfiguration
 import org.gradle.dependencygraph.model.DependencyScope
-import org.gradle.dependencygraph.util.JacksonJsonSerializer
+import org.gradle.dependencygraph.util.ConcurrentOutputs
+import org.gradle.dependencygraph.util.OutputEncoding
 import org.gradle.dependencygraph.util.PluginParameters
 import java.io.File
 
 /**
- * An example `DependencyGraphRenderer` that outputs the dependency graph in 2 files:
+ * When 'true', the `SimpleDependencyGraphRenderer` writes newline-delimited JSON files with one record per line,
+ * rather than JSON arrays.
+ */
+const val PARAM_SIMPLE_NDJSON = "DEPENDENCY_GRAPH_SIMPLE_NDJSON"
+
+/**
+ * An example `DependencyGraphRenderer` that outputs the dependency graph in 3 files:
  * - `dependency-graph.json` contains the raw structure of the extracted `ResolvedConfiguration` instances.
+ * - `dependency-resolution.json` contains each resolved dependency, with the projects and configurations that resolved it.
  * - `dependency-list.txt` contains a list of coordinates of all resolved dependencies.
  *
+ * The JSON files are written with the configured `OutputEncoding`, and are named `.json.gz` when compressed.
+ * With `DEPENDENCY_GRAPH_SIMPLE_NDJSON`, the JSON files are written as newline-delimited JSON, one record per line, as they are produced:
+ * - `dependency-graph.ndjson` contains a record for each `ResolvedConfiguration`.
+ * - `dependency-resolution.ndjson` contains a record for each resolved dependency in each configuration.
+ *
+ * Configurations are written in canonical order, by project and configuration name, and dependencies are ordered by ID,
+ * so that the same dependency graph always produces the same files.
+ *
  * Note that the structure of `ResolvedConfiguration` is not stable and is subject to change.
  */
 class SimpleDependencyGraphRenderer : DependencyGraphRenderer {
@@ -22,25 +39,37 @@ class SimpleDependencyGraphRenderer : DependencyGraphRenderer {
         resolvedConfigurations: List<ResolvedConfiguration>,
         outputDirectory: File
     ) {
-        outputDependencyGraph(outputDirectory, resolvedConfigurations)
-        outputDependencyScopes(outputDirectory, resolvedConfigurations)
-        outputDependencyList(outputDirectory, resolvedConfigurations)
+        val encoding = OutputEncoding.load(pluginParameters)
+        val configurations = resolvedConfigurations.sortedWith(ResolvedConfiguration.CANONICAL_ORDER)
+        if (pluginParameters.loadBoolean(PARAM_SIMPLE_NDJSON)) {
+            ConcurrentOutputs.run(mapOf(
+                "dependency-graph" to { outputDependencyGraphLines(outputDirectory, encoding, configurations) },
+                "dependency-resolution" to { outputDependencyResolutionLines(outputDirectory, encoding, configurations) },
+                "dependency-list.txt" to { outputDependencyList(outputDirectory, configurations) }
+            ))
+            return
+        }
+        // Each file is written on its own thread
+        ConcurrentOutputs.run(mapOf(
+            "dependency-graph" to { outputDependencyGraph(outputDirectory, encoding, configurations) },
+            "dependency-resolution" to { outputDependencyScopes(outputDirectory, encoding, configurations) },
+            "dependency-list.txt" to { outputDependencyList(outputDirectory, configurations) }
+        ))
     }
 
     private fun outputDependencyGraph(
         outputDirectory: File,
+        encoding: OutputEncoding,
         resolvedConfigurations: List<ResolvedConfiguration>
     ) {
-        val outputFile = File(outputDirectory, "dependency-graph.json")
-        val jsonContent = JacksonJsonSerializer.serializeToJson(resolvedConfigurations)
-        outputFile.writeText(jsonContent)
+        writeJson(resolvedConfigurations, encoding, encoding.file(outputDirectory, "dependency-graph"))
     }
 
     private fun outputDependencyScopes(
         outputDirectory: File,
+        encoding: OutputEncoding,
         resolvedConfigurations: List<ResolvedConfiguration>
     ) {
-        val outputFile = File(outputDirectory, "dependency-resolution.json")
         val dependencyList: MutableMap<String, MutableSet<SimpleDependencyResolution>> = mutableMapOf()
         for (config in resolvedConfigurations) {
             for (dependency in config.allDependencies) {
@@ -57,11 +86,40 @@ class SimpleDependencyGraphRenderer : DependencyGraphRenderer {
             }
         }
 
-        val simpleDependencies = dependencyList.map { (id, resolutions) ->
+        val simpleDependencies = dependencyList.toSortedMap().map { (id, resolutions) ->
             SimpleDependency(id, DependencyScope.getEffectiveScope(resolutions.map {it.scope}), resolutions.toList())
         }
-        val jsonContent = JacksonJsonSerializer.serializeToJson(simpleDependencies)
-        outputFile.writeText(jsonContent)
+        writeJson(simpleDependencies, encoding, encoding.file(outputDirectory, "dependency-resolution"))
+    }
+
+    private fun outputDependencyGraphLines(
+        outputDirectory: File,
+        encoding: OutputEncoding,
+        resolvedConfigurations: List<ResolvedConfiguration>
+    ) {
+        val outputFile = encoding.linesFile(outputDirectory, "dependency-graph")
+        val summary = encoding.writeLines(resolvedConfigurations.asSequence(), outputFile)
+        LOGGER.info("SimpleDependencyGraphRenderer: Wrote ${outputFile.name} ($summary)")
+    }
+
+    private fun outputDependencyResolutionLines(
+        outputDirectory: File,
+        encoding: OutputEncoding,
+        resolvedConfigurations: List<ResolvedConfiguration>
+    ) {
+        val outputFile = encoding.linesFile(outputDirectory, "dependency-resolution")
+        val records = resolvedConfigurations.asSequence().flatMap { config ->
+            config.allDependencies.asSequence()
+                .filter { !it.isProject }
+                .map { SimpleDependencyResolutionRecord(it.id, config.rootOrigin.path, config.configurationName, config.scope) }
+        }
+        val summary = encoding.writeLines(records, outputFile)
+        LOGGER.info("SimpleDependencyGraphRenderer: Wrote ${outputFile.name} ($summary)")
+    }
+
+    private fun writeJson(value: Any, encoding: OutputEncoding, outputFile: File) {
+        val summary = encoding.write(value, outputFile)
+        LOGGER.info("SimpleDependencyGraphRenderer: Wrote ${outputFile.name} ($summary)")
     }
 
     private fun outputDependencyList(
@@ -78,6 +136,10 @@ class SimpleDependencyGraphRenderer : DependencyGraphRenderer {
         val listTxt = dependencyList.joinToString(separator = "\n")
         outputFile.writeText(listTxt)
     }
+
+    companion object {
+        private val LOGGER = Logging.getLogger(SimpleDependencyGraphRenderer::class.java)
+    }
 }
 
 data class SimpleDependency(
@@ -87,3 +149,10 @@ data class SimpleDependency(
 )
 
 data class SimpleDependencyResolution(val path: String, val configuration: String, val scope: DependencyScope)
+
+data class SimpleDependencyResolutionRecord(
+    val dependency: String,
+    val path: String,
+    val configuration: String,
+    val scope: DependencyScope
+)
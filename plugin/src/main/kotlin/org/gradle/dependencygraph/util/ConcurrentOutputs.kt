@@ -0,0 +1,50 @@
+package org.gradle.dependencygraph.util
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Runs independent output actions, each on its own thread.
+ */
+object ConcurrentOutputs {
+    private val threadCount = AtomicInteger()
+
+    /**
+     * Runs the named actions concurrently and returns the time taken by each action, in milliseconds.
+     * If any action fails, the first failure is rethrown once all actions have completed, with the other failures suppressed.
+     */
+    fun run(actions: Map<String, () -> Unit>): Map<String, Long> {
+        if (actions.size <= 1) {
+            return actions.mapValues { (_, action) -> timed(action) }
+        }
+        val executor = Executors.newFixedThreadPool(actions.size) { runnable ->
+            Thread(runnable, "dependency-graph-output-${threadCount.incrementAndGet()}").apply { isDaemon = true }
+        }
+        try {
+            val futures = actions.mapValues { (_, action) -> executor.submit(Callable { timed(action) }) }
+            val timings = linkedMapOf<String, Long>()
+            var failure: Throwable? = null
+            for ((name, future) in futures) {
+                try {
+                    timings[name] = future.get()
+                } catch (e: ExecutionException) {
+                    val cause = e.cause ?: e
+                    val firstFailure = failure
+                    if (firstFailure == null) failure = cause else firstFailure.addSuppressed(cause)
+                }
+            }
+            failure?.let { throw it }
+            return timings
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    private fun timed(action: () -> Unit): Long {
+        val start = System.nanoTime()
+        action()
+        return (System.nanoTime() - start) / 1_000_000
+    }
+}
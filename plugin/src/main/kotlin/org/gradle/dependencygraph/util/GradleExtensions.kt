@@ -16,3 +16,11 @@ internal abstract class GradleExtensions {
 
 internal inline fun <reified T> Gradle.service(): T =
     (this as GradleInternal).services.get(T::class.java)
+
+internal fun Gradle.rootGradle(): Gradle {
+    var root = this
+    while (root.parent != null) {
+        root = root.parent!!
+    }
+    return root
+}
@@ -0,0 +1,86 @@
+package org.gradle.dependencygraph.util
+
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.json.JsonMapper
+import org.gradle.dependencygraph.model.*
+import java.io.File
+import java.util.zip.GZIPInputStream
+
+/**
+ * Reads JSON files written by [JacksonJsonSerializer] back into the dependency graph model.
+ */
+object JacksonJsonReader {
+    private val mapper = JsonMapper.builder().build()
+
+    /**
+     * Reads a JSON file, which is decompressed when the file name ends with `.gz`.
+     */
+    fun readTree(file: File): JsonNode {
+        if (file.name.endsWith(".gz")) {
+            return GZIPInputStream(file.inputStream()).use { mapper.readTree(it) }
+        }
+        return mapper.readTree(file)
+    }
+
+    fun readTree(json: String): JsonNode {
+        return mapper.readTree(json)
+    }
+
+    /**
+     * Reads a single top-level text field, without parsing the remainder of the file.
+     */
+    fun readTextField(file: File, fieldName: String): String? {
+        mapper.factory.createParser(file).use { parser ->
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                val name = parser.currentName
+                parser.nextToken()
+                if (name == fieldName) {
+                    return parser.valueAsString
+                }
+                parser.skipChildren()
+            }
+            return null
+        }
+    }
+
+    fun readResolvedConfigurations(file: File): List<ResolvedConfiguration> {
+        return readTree(file).map { readResolvedConfiguration(it) }
+    }
+
+    fun readResolvedConfiguration(node: JsonNode): ResolvedConfiguration {
+        val configuration = ResolvedConfiguration(
+            readOrigin(node.required("rootOrigin")),
+            node.required("configurationName").asText(),
+            DependencyScope.valueOf(node.path("scope").asText(DependencyScope.Unknown.name))
+        )
+        for (dependency in node.path("allDependencies")) {
+            configuration.addDependency(readDependency(dependency))
+        }
+        return configuration
+    }
+
+    private fun readDependency(node: JsonNode): ResolvedDependency {
+        val coordinates = node.required("coordinates")
+        return ResolvedDependency(
+            node.required("id").asText(),
+            readOrigin(node.required("origin")),
+            node.path("direct").asBoolean(),
+            node.path("project").asBoolean(),
+            DependencyCoordinates(
+                coordinates.required("group").asText(),
+                coordinates.required("module").asText(),
+                coordinates.required("version").asText()
+            ),
+            node.get("repositoryUrl")?.asText(),
+            node.path("dependencies").map { it.asText() }
+        )
+    }
+
+    private fun readOrigin(node: JsonNode): DependencyOrigin {
+        return DependencyOrigin(node.required("id").asText(), node.required("path").asText())
+    }
+}
@@ -1,14 +1,64 @@
 package org.gradle.dependencygraph.util
 
 import com.fasterxml.jackson.annotation.JsonInclude
+import com.fasterxml.jackson.databind.MapperFeature
+import com.fasterxml.jackson.databind.SerializationFeature
 import com.fasterxml.jackson.databind.json.JsonMapper
+import java.io.OutputStream
+import java.security.DigestOutputStream
+import java.security.MessageDigest
 
 object JacksonJsonSerializer {
     private val mapper = JsonMapper.builder()
         .serializationInclusion(JsonInclude.Include.NON_NULL)
         .build()
+    // Writes properties and map entries in sorted order, so that equal values always produce the same JSON
+    private val canonicalMapper = JsonMapper.builder()
+        .serializationInclusion(JsonInclude.Include.NON_NULL)
+        .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+        .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+        .build()
+    private val NEWLINE = "\n".toByteArray()
 
     fun serializeToJson(dependencyGraph: Any): String {
         return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(dependencyGraph)
     }
+
+    /**
+     * Serializes directly to the stream, without building the JSON document in memory.
+     */
+    fun serializeToStream(dependencyGraph: Any, output: OutputStream, pretty: Boolean) {
+        val writer = if (pretty) mapper.writerWithDefaultPrettyPrinter() else mapper.writer()
+        writer.writeValue(output, dependencyGraph)
+    }
+
+    /**
+     * Serializes each value on its own line, as newline-delimited JSON, without closing the stream.
+     */
+    fun serializeLinesToStream(values: Sequence<Any>, output: OutputStream) {
+        val writer = mapper.writer()
+        for (value in values) {
+            output.write(writer.writeValueAsBytes(value))
+            output.write(NEWLINE)
+        }
+        output.flush()
+    }
+
+    /**
+     * Returns the SHA-256 digest of the canonical JSON form of the value, as a hex string.
+     * The JSON is streamed into the digest, without building the document in memory.
+     */
+    fun digest(value: Any): String {
+        val digest = MessageDigest.getInstance("SHA-256")
+        DigestOutputStream(DiscardingOutputStream, digest).use {
+            canonicalMapper.writer().writeValue(it, value)
+        }
+        return digest.digest().joinToString("") { String.format("%02x", it) }
+    }
+
+    private object DiscardingOutputStream : OutputStream() {
+        override fun write(b: Int) {}
+
+        override fun write(b: ByteArray, off: Int, len: Int) {}
+    }
 }
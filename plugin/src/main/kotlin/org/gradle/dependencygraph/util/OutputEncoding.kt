@@ -0,0 +1,75 @@
+package org.gradle.dependencygraph.util
+
+import org.gradle.dependencygraph.extractor.PARAM_OUTPUT_ENCODING
+import java.io.File
+import java.io.OutputStream
+import java.util.zip.GZIPOutputStream
+
+/**
+ * The encoding of the JSON files written by renderers.
+ */
+enum class OutputEncoding(private val parameterValue: String, val extension: String) {
+    // Indented JSON, for debugging
+    Pretty("pretty", ".json"),
+    // JSON without whitespace
+    Compact("compact", ".json"),
+    // Compact JSON, compressed as it is written
+    Gzip("gzip", ".json.gz");
+
+    fun file(outputDirectory: File, baseName: String): File {
+        return File(outputDirectory, baseName + extension)
+    }
+
+    /**
+     * Streams the value as JSON to the file, returning a summary of the file size and encode time.
+     */
+    fun write(value: Any, file: File): String {
+        return writeStream(file) { JacksonJsonSerializer.serializeToStream(value, it, this == Pretty) }
+    }
+
+    fun linesFile(outputDirectory: File, baseName: String): File {
+        return File(outputDirectory, baseName + if (this == Gzip) ".ndjson.gz" else ".ndjson")
+    }
+
+    /**
+     * Streams each value as a line of newline-delimited JSON, returning a summary of the file size and encode time.
+     * Lines are always compact, and are compressed with the `gzip` encoding.
+     */
+    fun writeLines(values: Sequence<Any>, file: File): String {
+        return writeStream(file) { JacksonJsonSerializer.serializeLinesToStream(values, it) }
+    }
+
+    /**
+     * Writes to the file through the stream passed to the action, compressed with the `gzip` encoding,
+     * returning a summary of the file size and encode time.
+     */
+    fun writeStream(file: File, serialize: (OutputStream) -> Unit): String {
+        val startTime = System.nanoTime()
+        file.outputStream().buffered().use { fileOutput ->
+            if (this == Gzip) {
+                GZIPOutputStream(fileOutput).use(serialize)
+            } else {
+                serialize(fileOutput)
+            }
+        }
+        val encodeMillis = (System.nanoTime() - startTime) / 1_000_000
+        return "$parameterValue, ${file.length()} bytes, encoded in $encodeMillis ms"
+    }
+
+    companion object {
+        /**
+         * The encoding for a file written by a command-line tool: `gzip` when the file name ends with `.gz`, otherwise `compact`.
+         */
+        fun forFile(file: File): OutputEncoding {
+            return if (file.name.endsWith(".gz")) Gzip else Compact
+        }
+
+        fun load(pluginParameters: PluginParameters): OutputEncoding {
+            val value = pluginParameters.loadOptional(PARAM_OUTPUT_ENCODING) ?: return Pretty
+            return values().find { it.parameterValue.equals(value.trim(), ignoreCase = true) }
+                ?: throw IllegalStateException(
+                    "Invalid value '$value' for $PARAM_OUTPUT_ENCODING: expected one of ${values().joinToString { it.parameterValue }}"
+                )
+        }
+    }
+}
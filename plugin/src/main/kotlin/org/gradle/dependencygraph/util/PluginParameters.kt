@@ -1,19 +1,50 @@
 package org.gradle.dependencygraph.util
 
 
-class PluginParameters {
+open class PluginParameters {
     fun load(envName: String, default: String? = null): String {
-        return System.getProperty(envName)
-            ?: System.getenv()[envName]
+        return loadOptional(envName)
             ?: default
             ?: throwEnvironmentVariableMissingException(envName)
     }
 
-    fun loadOptional(envName: String): String? {
+    open fun loadOptional(envName: String): String? {
         return System.getProperty(envName)
             ?: System.getenv()[envName]
     }
 
+    fun loadBoolean(envName: String): Boolean {
+        return loadOptional(envName)?.equals("true", ignoreCase = true) ?: false
+    }
+
+    /**
+     * Loads an integer parameter, failing with the name of the parameter when the value is not an integer of at least `min`.
+     */
+    fun loadOptionalInt(envName: String, min: Int = Int.MIN_VALUE): Int? {
+        return loadOptionalLong(envName, min.toLong())?.let {
+            check(it <= Int.MAX_VALUE) { "Invalid value '$it' for $envName: expected an integer of at most ${Int.MAX_VALUE}" }
+            it.toInt()
+        }
+    }
+
+    fun loadOptionalLong(envName: String, min: Long = Long.MIN_VALUE): Long? {
+        val value = loadOptional(envName) ?: return null
+        val number = value.trim().toLongOrNull()
+            ?: throw IllegalStateException("Invalid value '$value' for $envName: expected an integer")
+        check(number >= min) { "Invalid value '$value' for $envName: expected an integer of at least $min" }
+        return number
+    }
+
+    /**
+     * Loads every parameter with a name starting with the prefix, with System Properties taking precedence over environment variables.
+     */
+    fun loadAll(prefix: String): Map<String, String> {
+        val parameters = sortedMapOf<String, String>()
+        System.getenv().filterKeys { it.startsWith(prefix) }.forEach { (name, value) -> parameters[name] = value }
+        System.getProperties().stringPropertyNames().filter { it.startsWith(prefix) }.forEach { parameters[it] = System.getProperty(it) }
+        return parameters
+    }
+
     private fun throwEnvironmentVariableMissingException(variable: String): Nothing {
         throw IllegalStateException("The configuration parameter '$variable' must be set: " +
             "set an environment variable, or use '-D${variable}=value' on the command-line.")
@@ -5,39 +5,82 @@ import org.gradle.api.artifacts.Configuration
 import org.gradle.api.tasks.Internal
 import org.gradle.dependencygraph.extractor.ResolvedConfigurationFilter
 import org.gradle.work.DisableCachingByDefault
-import java.lang.reflect.Method
 
 @DisableCachingByDefault(because = "Not worth caching")
 abstract class AbstractResolveProjectDependenciesTask : DefaultTask() {
-    private val canSafelyBeResolvedMethod: Method? = getCanSafelyBeResolvedMethod()
-
     @Internal
     var configurationFilter: ResolvedConfigurationFilter? = null
 
+    /**
+     * When set, a configuration that fails to resolve is logged and skipped, rather than failing the task.
+     */
+    @Internal
+    var lenientResolution: Boolean = false
+
+    /**
+     * When set, configurations with a valid checkpoint record are not resolved again.
+     */
+    @Internal
+    var checkpoints: ProjectCheckpoints? = null
+
+    /**
+     * Configurations that are not resolved, because an identical configuration is resolved in another project.
+     * Maps the configuration name to the identity path of that project.
+     */
+    @Internal
+    var deduplicatedConfigurations: Map<String, String> = emptyMap()
+
+    /**
+     * Which of the reportable configurations are resolved by this task.
+     */
+    @Internal
+    var phase: ResolutionPhase = ResolutionPhase.ALL
+
+    /**
+     * When set, the task is skipped if it has not started by this time (in milliseconds since the epoch).
+     */
+    @Internal
+    var deadline: Long? = null
+
+    init {
+        onlyIf { (it as AbstractResolveProjectDependenciesTask).isWithinDeadline() }
+    }
+
     @Internal
     protected fun getReportableConfigurations(): List<Configuration> {
-        return project.configurations.filter {
-            canSafelyBeResolved(it) && configurationFilter!!.include(project.path, it.name)
+        val filter = configurationFilter!!
+        return ReportableConfigurations.of(project, filter).filter {
+            phase.includes(filter.isRuntime(project.path, it.name))
         }
     }
 
-    /**
-     * If `DeprecatableConfiguration.canSafelyBeResolved()` is available, use it.
-     * Else fall back to `Configuration.canBeResolved`.
-     */
-    private fun canSafelyBeResolved(configuration: Configuration): Boolean {
-        if (canSafelyBeResolvedMethod != null) {
-            return canSafelyBeResolvedMethod.invoke(configuration) as Boolean
+    fun isWithinDeadline(): Boolean {
+        val taskDeadline = deadline ?: return true
+        if (System.currentTimeMillis() < taskDeadline) {
+            return true
         }
-        return configuration.isCanBeResolved
+        logger.lifecycle("Skipping task '$path': the dependency graph time budget is exhausted")
+        return false
     }
 
-    private fun getCanSafelyBeResolvedMethod(): Method? {
-        return try {
-            val dc = Class.forName("org.gradle.internal.deprecation.DeprecatableConfiguration")
-            dc.getMethod("canSafelyBeResolved")
-        } catch (e: ReflectiveOperationException) {
-            null
+    protected fun resolveConfiguration(configurationName: String, resolve: () -> Unit) {
+        val representativeProject = deduplicatedConfigurations[configurationName]
+        if (representativeProject != null) {
+            logger.info("Skipping configuration '$configurationName' for task '$path': identical to the configuration of project '$representativeProject'")
+            return
+        }
+        if (checkpoints?.isCheckpointed(configurationName) == true) {
+            logger.info("Skipping configuration '$configurationName' for task '$path': resolved dependencies were checkpointed")
+            return
+        }
+        if (!lenientResolution) {
+            resolve()
+            return
+        }
+        try {
+            resolve()
+        } catch (e: Exception) {
+            logger.warn("Failed to resolve configuration '$configurationName' for task '$path': ${e.message}")
         }
     }
-}
\ No newline at end of file
+}
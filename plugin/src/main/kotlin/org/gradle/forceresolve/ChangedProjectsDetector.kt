@@ -0,0 +1,143 @@
+package org.gradle.forceresolve
+
+import org.gradle.api.Project
+import org.gradle.api.artifacts.ProjectDependency
+import org.gradle.api.invocation.Gradle
+import org.gradle.api.logging.Logging
+import org.gradle.dependencygraph.model.BuildLayout
+import java.io.File
+
+private val BUILD_LOGIC_DIRS = listOf("buildSrc", "build-logic")
+private val SETTINGS_FILES = listOf("settings.gradle", "settings.gradle.kts")
+private val PROJECT_LOCKFILES = listOf("gradle.lockfile", "buildscript-gradle.lockfile")
+
+/**
+ * Determines which projects in a build must be resolved again, given the files that changed since a base commit.
+ *
+ * Only changes to the build file or the dependency lockfiles of a non-root project are attributed to that project.
+ * Any other change that could influence dependency resolution (settings, root build file, shared scripts,
+ * `gradle.properties`, version catalogs, build logic or the Gradle wrapper) requires every project to be resolved.
+ */
+internal class ChangedProjectsDetector(
+    private val buildLayout: BuildLayout,
+    private val buildRootDir: File,
+    private val compositeBuild: Boolean,
+    private val projectDependents: Map<String, Set<String>>
+) {
+    /**
+     * Returns the paths of the projects to resolve, or `null` if every project must be resolved.
+     */
+    fun detectChangedProjects(changedFiles: List<File>): Set<String>? {
+        val changedProjects = mutableSetOf<String>()
+        for (changedFile in changedFiles) {
+            val reason = requiresFullResolution(changedFile)
+            if (reason != null) {
+                LOGGER.lifecycle("Resolving all projects: $reason changed (${changedFile.path})")
+                return null
+            }
+            changedProjects.addAll(projectsAffectedBy(changedFile))
+        }
+
+        // Substituted dependencies between builds are not tracked, so any project change in a composite is treated as global
+        if (compositeBuild && changedProjects.isNotEmpty()) {
+            LOGGER.lifecycle("Resolving all projects: projects changed in a composite build (${changedProjects.sorted().joinToString()})")
+            return null
+        }
+        return withDependents(changedProjects)
+    }
+
+    private fun requiresFullResolution(file: File): String? {
+        val relativePath = relativePath(file)
+        if (relativePath == null) {
+            // Build inputs outside of this build may belong to another build in the composite
+            return if (compositeBuild && isBuildInput(file)) "build input of another build" else null
+        }
+        val topLevelDir = relativePath.substringBefore('/')
+        return when {
+            BUILD_LOGIC_DIRS.contains(topLevelDir) && relativePath.contains('/') -> "build logic"
+            SETTINGS_FILES.contains(file.name) -> "settings file"
+            file.name == "gradle.properties" -> "Gradle properties"
+            file.name.endsWith(".versions.toml") -> "version catalog"
+            relativePath == "gradle/wrapper/gradle-wrapper.properties" -> "Gradle wrapper"
+            file == buildLayout.getBuildFile(":") -> "root build file"
+            isScript(file) && projectForBuildFile(file) == null -> "shared build script"
+            else -> null
+        }
+    }
+
+    private fun projectsAffectedBy(file: File): List<String> {
+        return buildLayout.getProjectIdentityPaths().filter { projectPath ->
+            file == buildLayout.getBuildFile(projectPath) || isLockfile(file, buildLayout.getProjectDir(projectPath))
+        }
+    }
+
+    private fun isLockfile(file: File, projectDir: File?): Boolean {
+        if (projectDir == null) return false
+        return (PROJECT_LOCKFILES.contains(file.name) && file.parentFile == projectDir)
+            || (file.name.endsWith(".lockfile") && file.parentFile == File(projectDir, "gradle/dependency-locks"))
+    }
+
+    private fun projectForBuildFile(file: File): String? {
+        return buildLayout.getProjectIdentityPaths().find { file == buildLayout.getBuildFile(it) }
+    }
+
+    private fun isBuildInput(file: File): Boolean {
+        return isScript(file)
+            || file.name == "gradle.properties"
+            || file.name.endsWith(".versions.toml")
+            || file.name.endsWith(".lockfile")
+    }
+
+    private fun isScript(file: File): Boolean {
+        return file.name.endsWith(".gradle") || file.name.endsWith(".gradle.kts")
+    }
+
+    private fun relativePath(file: File): String? {
+        val relative = file.relativeToOrNull(buildRootDir)?.path?.replace('\\', '/') ?: return null
+        return if (relative == ".." || relative.startsWith("../")) null else relative
+    }
+
+    private fun withDependents(changedProjects: Set<String>): Set<String> {
+        val result = mutableSetOf<String>()
+        var pending = changedProjects.toList()
+        while (pending.isNotEmpty()) {
+            val added = pending.filter { result.add(it) }
+            pending = added.flatMap { projectDependents[it] ?: emptySet() }
+        }
+        return result
+    }
+
+    companion object {
+        private val LOGGER = Logging.getLogger(ChangedProjectsDetector::class.java)
+
+        /**
+         * Creates a detector for the projects of a build, keyed by project path.
+         * Must be called once all projects have been evaluated.
+         */
+        fun create(gradle: Gradle): ChangedProjectsDetector {
+            val rootProject = gradle.rootProject
+            val buildRootDir = rootProject.projectDir.canonicalFile
+            val buildLayout = BuildLayout()
+            rootProject.allprojects.forEach {
+                buildLayout.addProject(it.path, it.buildFile.canonicalPath, it.projectDir.canonicalPath, buildRootDir.path)
+            }
+            val compositeBuild = gradle.parent != null || gradle.includedBuilds.isNotEmpty()
+            return ChangedProjectsDetector(buildLayout, buildRootDir, compositeBuild, projectDependents(rootProject))
+        }
+
+        /**
+         * Maps each project to the projects that declare a dependency on it.
+         */
+        fun projectDependents(rootProject: Project): Map<String, Set<String>> {
+            val dependents = mutableMapOf<String, MutableSet<String>>()
+            rootProject.allprojects.forEach { project ->
+                project.configurations.forEach { configuration ->
+                    configuration.dependencies.withType(ProjectDependency::class.java).forEach { dependency ->
+                        dependents.getOrPut(ProjectDependencies.path(dependency)) { mutableSetOf() }.add(project.path)
+                    }
+                }
+            }
+            return dependents
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.gradle.forceresolve
+
+import org.gradle.api.Project
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.artifacts.ExternalModuleDependency
+import org.gradle.api.artifacts.FileCollectionDependency
+import org.gradle.api.artifacts.ModuleDependency
+import org.gradle.api.artifacts.ProjectDependency
+import org.gradle.api.artifacts.ResolutionStrategy
+import org.gradle.api.artifacts.VersionConstraint
+import org.gradle.api.artifacts.repositories.ArtifactRepository
+import org.gradle.api.artifacts.repositories.FlatDirectoryArtifactRepository
+import org.gradle.api.artifacts.repositories.IvyArtifactRepository
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository
+import org.gradle.api.attributes.AttributeContainer
+import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionRules
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.internal.ImmutableActionSet
+import org.gradle.util.GradleVersion
+import java.security.MessageDigest
+
+/**
+ * Computes a canonical key for the dependency declarations of a configuration: the declared dependencies and constraints,
+ * exclude rules, attributes, repositories, conflict resolution, forced modules and locked modules.
+ * Configurations with the same key in different projects of a build resolve to the same dependency graph.
+ *
+ * Rules that are registered as code cannot be compared. A configuration with dependency substitution, `eachDependency`
+ * or component selection rules is always resolved in its own project. Capability resolution and component metadata rules
+ * cannot be detected, and are assumed to be the same for every project, as is the case when they are applied by a shared convention plugin.
+ */
+internal object DeclaredDependenciesKey {
+
+    /**
+     * Returns the key for the configuration, or `null` if the configuration must be resolved in its own project.
+     */
+    fun of(project: Project, configuration: Configuration, lockedModules: List<String>?): String? {
+        if (hasRules(configuration.resolutionStrategy)) {
+            return null
+        }
+        val entries = mutableListOf<String>()
+        for (dependency in configuration.allDependencies) {
+            entries.add(describeDependency(project, dependency) ?: return null)
+        }
+        for (constraint in configuration.allDependencyConstraints) {
+            entries.add("constraint ${constraint.group}:${constraint.name}:${describe(constraint.versionConstraint)} ${describe(constraint.attributes)}")
+        }
+        for (excludeRule in configuration.hierarchy.flatMap { it.excludeRules }) {
+            entries.add("exclude ${excludeRule.group}:${excludeRule.module}")
+        }
+        for (forcedModule in configuration.resolutionStrategy.forcedModules) {
+            entries.add("force ${forcedModule.group}:${forcedModule.name}:${forcedModule.version}")
+        }
+        lockedModules?.forEach { entries.add("locked $it") }
+        entries.sort()
+
+        val digest = MessageDigest.getInstance("SHA-256")
+        fun put(value: String) {
+            digest.update(value.toByteArray())
+            digest.update(0)
+        }
+        // Projects without repositories use the repositories declared in the settings, which are shared by the build
+        put((project.rootProject as ProjectInternal).identityPath.path)
+        put(configuration.name)
+        put("transitive=${configuration.isTransitive}")
+        put("conflictResolution=${(configuration.resolutionStrategy as ResolutionStrategyInternal).conflictResolution}")
+        put(describe(configuration.attributes))
+        project.repositories.forEach { put(describeRepository(it)) }
+        entries.forEach { put(it) }
+        return digest.digest().joinToString("") { String.format("%02x", it) }
+    }
+
+    /**
+     * Returns `true` if dependency substitution, `eachDependency` or component selection rules are registered for the configuration.
+     */
+    private fun hasRules(resolutionStrategy: ResolutionStrategy): Boolean {
+        // `eachDependency` rules are registered as dependency substitution rules
+        val substitutionRule = (resolutionStrategy.dependencySubstitution as DependencySubstitutionRules).ruleAction
+        val hasSubstitutionRules = substitutionRule !is ImmutableActionSet<*> || !substitutionRule.isEmpty
+        val hasSelectionRules = (resolutionStrategy.componentSelection as ComponentSelectionRulesInternal).rules.isNotEmpty()
+        return hasSubstitutionRules || hasSelectionRules
+    }
+
+    private fun describeDependency(project: Project, dependency: Any): String? {
+        return when (dependency) {
+            is ProjectDependency -> {
+                val path = ProjectDependencies.path(dependency)
+                // A dependency on the project itself would be copied to other projects unchanged
+                if (path == project.path) null else "project $path ${describeModuleDependency(dependency)}"
+            }
+            is ExternalModuleDependency ->
+                "module ${dependency.group}:${dependency.name}:${describe(dependency.versionConstraint)} ${describeModuleDependency(dependency)}"
+            // File dependencies do not contribute to the dependency graph
+            is FileCollectionDependency -> "files"
+            else -> null
+        }
+    }
+
+    private fun describeModuleDependency(dependency: ModuleDependency): String {
+        val excludes = dependency.excludeRules.map { "${it.group}:${it.module}" }.sorted()
+        val artifacts = dependency.artifacts.map { "${it.name}:${it.type}:${it.extension}:${it.classifier}" }.sorted()
+        // Requested capabilities are available since Gradle 5.3
+        val capabilities = if (GradleVersion.current() >= GradleVersion.version("5.3")) {
+            dependency.requestedCapabilities.map { "${it.group}:${it.name}:${it.version}" }.sorted()
+        } else {
+            emptyList()
+        }
+        return "target=${dependency.targetConfiguration} transitive=${dependency.isTransitive} " +
+            "excludes=$excludes artifacts=$artifacts capabilities=$capabilities ${describe(dependency.attributes)}"
+    }
+
+    private fun describe(versionConstraint: VersionConstraint): String {
+        // Strict versions are available since Gradle 6.0
+        val strictVersion = if (GradleVersion.current() >= GradleVersion.version("6.0")) versionConstraint.strictVersion else ""
+        return "${versionConstraint.requiredVersion}|${versionConstraint.preferredVersion}|$strictVersion|${versionConstraint.rejectedVersions.sorted()}"
+    }
+
+    private fun describe(attributes: AttributeContainer): String {
+        return attributes.keySet()
+            .map { "${it.name}=${attributes.getAttribute(it)}" }
+            .sorted()
+            .toString()
+    }
+
+    private fun describeRepository(repository: ArtifactRepository): String {
+        return when (repository) {
+            is MavenArtifactRepository -> "maven ${repository.url} ${repository.artifactUrls.sorted()}"
+            is IvyArtifactRepository -> "ivy ${repository.url}"
+            is FlatDirectoryArtifactRepository -> "flatDir ${repository.dirs.sorted()}"
+            else -> "${repository.javaClass.name} ${repository.name}"
+        }
+    }
+}
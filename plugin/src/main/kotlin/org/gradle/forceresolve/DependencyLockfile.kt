@@ -0,0 +1,61 @@
+package org.gradle.forceresolve
+
+import org.gradle.api.Project
+import org.gradle.util.GradleVersion
+import java.io.File
+
+/**
+ * Reads the modules locked for each configuration of a project, from either the single `gradle.lockfile`
+ * (Gradle 6 and later) or the per-configuration files in `gradle/dependency-locks` (earlier versions).
+ */
+internal object DependencyLockfile {
+    private const val EMPTY = "empty"
+
+    /**
+     * Returns the locked module coordinates for each locked configuration, or `null` if the project has no lockfile.
+     */
+    fun read(project: Project): Map<String, List<String>>? {
+        val lockfile = lockfile(project)
+        if (lockfile.isFile) {
+            return readLockfile(lockfile)
+        }
+        val legacyLockfiles = File(project.projectDir, "gradle/dependency-locks")
+            .listFiles { file -> file.name.endsWith(".lockfile") }
+        if (legacyLockfiles != null && legacyLockfiles.isNotEmpty()) {
+            return legacyLockfiles.associate { it.name.removeSuffix(".lockfile") to readLines(it) }
+        }
+        return null
+    }
+
+    private fun lockfile(project: Project): File {
+        // The lockfile location can be configured since Gradle 6.4
+        if (GradleVersion.current() >= GradleVersion.version("6.4")) {
+            val lockFile = project.dependencyLocking.lockFile
+            if (lockFile.isPresent) {
+                return lockFile.get().asFile
+            }
+        }
+        return File(project.projectDir, "gradle.lockfile")
+    }
+
+    private fun readLockfile(lockfile: File): Map<String, List<String>> {
+        val lockedModules = mutableMapOf<String, MutableList<String>>()
+        for (line in readLines(lockfile)) {
+            val module = line.substringBeforeLast('=')
+            val configurations = line.substringAfterLast('=').split(',').filter { it.isNotEmpty() }
+            for (configuration in configurations) {
+                val modules = lockedModules.getOrPut(configuration) { mutableListOf() }
+                if (module != EMPTY) {
+                    modules.add(module)
+                }
+            }
+        }
+        return lockedModules
+    }
+
+    private fun readLines(file: File): List<String> {
+        return file.readLines()
+            .map { it.trim() }
+            .filter { it.isNotEmpty() && !it.startsWith("#") }
+    }
+}
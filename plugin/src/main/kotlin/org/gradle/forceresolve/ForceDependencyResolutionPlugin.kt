@@ -3,14 +3,23 @@ package org.gradle.forceresolve
 import org.gradle.api.Plugin
 import org.gradle.api.Project
 import org.gradle.api.Task
+import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.invocation.Gradle
+import org.gradle.api.logging.Logging
+import org.gradle.api.plugins.ExtensionAware
 import org.gradle.api.tasks.TaskProvider
-import org.gradle.dependencygraph.extractor.ResolvedConfigurationFilter
+import org.gradle.dependencygraph.extractor.*
 import org.gradle.dependencygraph.util.PluginParameters
+import org.gradle.dependencygraph.util.rootGradle
+import org.gradle.dependencygraph.util.service
+import org.gradle.internal.buildevents.BuildStartedTime
 import org.gradle.util.GradleVersion
+import java.io.File
 
-private const val RESOLVE_PROJECT_TASK = "ForceDependencyResolutionPlugin_resolveProjectDependencies"
-private const val RESOLVE_ALL_TASK = "ForceDependencyResolutionPlugin_resolveAllDependencies"
+internal const val RESOLVE_PROJECT_TASK = "ForceDependencyResolutionPlugin_resolveProjectDependencies"
+internal const val RESOLVE_PROJECT_RUNTIME_TASK = "ForceDependencyResolutionPlugin_resolveProjectRuntimeDependencies"
+internal const val RESOLVE_RUNTIME_TASK = "ForceDependencyResolutionPlugin_resolveRuntimeDependencies"
+internal const val RESOLVE_ALL_TASK = "ForceDependencyResolutionPlugin_resolveAllDependencies"
 
 /**
  * Adds a task to resolve all dependencies in a Gradle build tree.
@@ -23,17 +32,104 @@ class ForceDependencyResolutionPlugin : Plugin<Gradle> {
     private val configurationFilter by lazy {
         ResolvedConfigurationFilter(pluginParameters)
     }
+    private val lenientResolution by lazy {
+        pluginParameters.loadBoolean(PARAM_LENIENT_RESOLUTION)
+    }
+    private val checkpointsEnabled by lazy {
+        pluginParameters.loadBoolean(PARAM_CHECKPOINTS)
+    }
+    private val baseCommit by lazy {
+        pluginParameters.loadOptional(PARAM_BASE_COMMIT)
+    }
+    private val lockfileMode by lazy {
+        pluginParameters.loadBoolean(PARAM_LOCKFILE_MODE)
+    }
+    private val deduplicateConfigurations by lazy {
+        pluginParameters.loadBoolean(PARAM_DEDUPLICATE_CONFIGURATIONS)
+    }
+    private val timeBudgetSeconds by lazy {
+        pluginParameters.loadOptionalLong(PARAM_TIME_BUDGET_SECONDS, 0)
+    }
+    private val shardCount by lazy {
+        pluginParameters.loadOptionalInt(PARAM_SHARD_COUNT, 1)
+    }
+    private val shardIndex by lazy {
+        pluginParameters.loadOptionalInt(PARAM_SHARD_INDEX, 0)
+    }
 
     override fun apply(gradle: Gradle) {
         gradle.projectsEvaluated {
+            if (isResolutionSkipped(gradle)) {
+                // The resolution tasks may be requested, but have nothing to do
+                gradle.rootProject.tasks.register(RESOLVE_ALL_TASK)
+                gradle.rootProject.tasks.register(RESOLVE_RUNTIME_TASK)
+                return@projectsEvaluated
+            }
             val resolveAllDeps = gradle.rootProject.tasks.register(RESOLVE_ALL_TASK)
+            val selectedProjects = selectShardProjects(gradle, baseCommit?.let { detectChangedProjects(gradle, it) })
+            val reportDirectory = if (checkpointsEnabled || lockfileMode) reportDirectory(gradle) else null
+            val checkpointStore = if (checkpointsEnabled) reportDirectory?.let { CheckpointStore(File(it, CHECKPOINTS_DIR)) } else null
+            val buildFingerprint = checkpointStore?.let {
+                ResolutionInputs.buildFingerprint(
+                    gradle.rootProject.projectDir,
+                    gradle.rootProject.allprojects.map { it.buildFile },
+                    gradle.startParameter.allInitScripts,
+                    setOf(gradle.gradleUserHomeDir.absoluteFile),
+                    pluginParameters
+                )
+            }
+
+            val deduplicatedConfigurations = if (deduplicateConfigurations) deduplicateConfigurations(gradle, selectedProjects) else emptyMap()
+            val deadline = timeBudgetSeconds?.let { gradle.service<BuildStartedTime>().startTime + it * 1000 }
+            val runtimeTasks = mutableMapOf<Project, TaskProvider<out AbstractResolveProjectDependenciesTask>>()
+            val remainingTasks = mutableMapOf<Project, TaskProvider<out AbstractResolveProjectDependenciesTask>>()
 
             // Depend on "dependencies" task in all projects
             gradle.allprojects { project ->
                 val projectTaskFactory = getResolveProjectDependenciesTaskFactory()
-                val resolveProjectDeps = projectTaskFactory.create(project, configurationFilter)
+                val configureTask: (AbstractResolveProjectDependenciesTask) -> Unit = {
+                    it.configurationFilter = configurationFilter
+                    it.lenientResolution = lenientResolution
+                    it.deadline = deadline
+                    it.deduplicatedConfigurations = deduplicatedConfigurations[project.path] ?: emptyMap()
+                    if (checkpointStore != null && buildFingerprint != null) {
+                        it.checkpoints = ProjectCheckpoints(
+                            checkpointStore,
+                            (project as ProjectInternal).identityPath.path,
+                            project.projectDir,
+                            buildFingerprint
+                        )
+                    }
+                }
+                val lockfileTask = createLockfileTask(project, reportDirectory)
+                val resolveProjectDeps = lockfileTask ?: projectTaskFactory.create(project, RESOLVE_PROJECT_TASK) {
+                    configureTask(it)
+                    if (deadline != null) {
+                        it.phase = ResolutionPhase.NON_RUNTIME
+                    }
+                }
+                val resolveProjectRuntimeDeps = if (deadline != null && lockfileTask == null) {
+                    projectTaskFactory.create(project, RESOLVE_PROJECT_RUNTIME_TASK) {
+                        configureTask(it)
+                        it.phase = ResolutionPhase.RUNTIME
+                    }
+                } else {
+                    null
+                }
+                if (selectedProjects == null || selectedProjects.contains(project.path)) {
+                    resolveAllDeps.configure {
+                        it.dependsOn(resolveProjectDeps)
+                    }
+                    if (resolveProjectRuntimeDeps != null) {
+                        runtimeTasks[project] = resolveProjectRuntimeDeps
+                        remainingTasks[project] = resolveProjectDeps
+                    }
+                }
+            }
+            if (runtimeTasks.isNotEmpty()) {
+                val resolveRuntimeDeps = scheduleByPriority(gradle, runtimeTasks, remainingTasks)
                 resolveAllDeps.configure {
-                    it.dependsOn(resolveProjectDeps)
+                    it.dependsOn(resolveRuntimeDeps)
                 }
             }
 
@@ -48,6 +144,196 @@ class ForceDependencyResolutionPlugin : Plugin<Gradle> {
         }
     }
 
+    /**
+     * Returns the paths of the projects that changed since the base commit, or `null` if all projects should be resolved.
+     * Dependencies of the projects that are not resolved are taken from the previous dependency graph.
+     */
+    private fun detectChangedProjects(gradle: Gradle, baseCommit: String): Set<String>? {
+        val previousGraph = pluginParameters.loadOptional(PARAM_PREVIOUS_GRAPH)
+        if (previousGraph == null || !File(previousGraph).isFile) {
+            LOGGER.lifecycle("Resolving all projects: no previous dependency graph available")
+            return null
+        }
+        val changedFiles = try {
+            GitChangedFiles(gradle.rootProject.providers, gradle.rootProject.projectDir).changedSince(baseCommit)
+        } catch (e: Exception) {
+            LOGGER.warn("Resolving all projects: cannot determine the files changed since '$baseCommit': ${e.message}")
+            return null
+        }
+        val changedProjects = ChangedProjectsDetector.create(gradle).detectChangedProjects(changedFiles)
+        if (changedProjects != null) {
+            LOGGER.lifecycle(
+                "Resolving ${changedProjects.size} of ${gradle.rootProject.allprojects.size} projects changed since '$baseCommit'" +
+                    changedProjects.sorted().joinToString(prefix = ": ").takeIf { changedProjects.isNotEmpty() }.orEmpty()
+            )
+        }
+        return changedProjects
+    }
+
+    /**
+     * Returns the paths of the selected projects that are in the shard of this build, or `null` if all projects should be resolved.
+     * The projects of each build are partitioned separately, and the projects outside the shard are recorded in the report directory,
+     * so that the dependency extractor leaves them out of the rendered dependency graph.
+     */
+    private fun selectShardProjects(gradle: Gradle, selectedProjects: Set<String>?): Set<String>? {
+        val shardCount = shardCount
+        if (shardCount == null) {
+            // The skip lists of a previous sharded run must not exclude any project from a later sharded run
+            if (gradle.parent == null) {
+                reportDirectory(gradle)?.let { ProjectShards.clearSkippedProjects(it) }
+            }
+            return selectedProjects
+        }
+        val shardIndex = shardIndex
+        check(shardIndex != null) { "$PARAM_SHARD_INDEX must be set when $PARAM_SHARD_COUNT is set" }
+        check(shardIndex < shardCount) {
+            "Invalid value '$shardIndex' for $PARAM_SHARD_INDEX: expected an integer less than $PARAM_SHARD_COUNT ($shardCount)"
+        }
+        val reportDirectory = reportDirectory(gradle)
+        check(reportDirectory != null) { "Cannot locate the dependency graph report directory, required for $PARAM_SHARD_COUNT" }
+
+        val projects = gradle.rootProject.allprojects.map { it as ProjectInternal }
+        val weights = pluginParameters.loadOptional(PARAM_SHARD_WEIGHTS)
+            ?.split(',')?.map { it.trim() }?.filter { it.isNotEmpty() }
+            ?.let { files -> ProjectShards.readResolutionTimes(files.map { File(it) }) }
+            .orEmpty()
+        val shards = ProjectShards.partition(projects.map { it.identityPath.path }, shardCount, weights)
+        val (inShard, skipped) = projects.partition { shards[it.identityPath.path] == shardIndex }
+        ProjectShards.writeSkippedProjects(
+            reportDirectory,
+            (gradle.rootProject as ProjectInternal).identityPath.path,
+            skipped.map { it.identityPath.path }
+        )
+        LOGGER.lifecycle(
+            "Resolving ${inShard.size} of ${projects.size} projects in shard $shardIndex of $shardCount" +
+                if (weights.isEmpty()) "" else ", balanced by the resolution times of a previous run"
+        )
+        val shardProjects = inShard.map { it.path }.toSet()
+        return selectedProjects?.intersect(shardProjects) ?: shardProjects
+    }
+
+    /**
+     * Selects a representative project for each set of configurations with identical dependency declarations,
+     * so that only the representative configuration is resolved. The configurations that are not resolved are recorded
+     * in the report directory, for the dependency extractor to copy the representative dependencies.
+     * Returns the deduplicated configurations of each project, mapped to the identity path of the representative project.
+     */
+    private fun deduplicateConfigurations(gradle: Gradle, selectedProjects: Set<String>?): Map<String, Map<String, String>> {
+        val reportDirectory = reportDirectory(gradle) ?: return emptyMap()
+        val representatives = mutableMapOf<String, ProjectInternal>()
+        val deduplicated = mutableMapOf<String, MutableMap<String, String>>()
+        val aliases = mutableListOf<DeduplicatedConfigurations.Alias>()
+        val projects = gradle.rootProject.allprojects
+            .filter { selectedProjects == null || selectedProjects.contains(it.path) }
+            .map { it as ProjectInternal }
+            .sortedBy { it.path }
+        for (project in projects) {
+            val lockedModules = DependencyLockfile.read(project)
+            for (configuration in ReportableConfigurations.of(project, configurationFilter)) {
+                val key = DeclaredDependenciesKey.of(project, configuration, lockedModules?.get(configuration.name)) ?: continue
+                val representative = representatives.getOrPut(key) { project }
+                if (representative != project) {
+                    deduplicated.getOrPut(project.path) { mutableMapOf() }[configuration.name] = representative.identityPath.path
+                    aliases.add(DeduplicatedConfigurations.Alias(project.identityPath.path, configuration.name, representative.identityPath.path))
+                }
+            }
+        }
+        DeduplicatedConfigurations.write(reportDirectory, (gradle.rootProject as ProjectInternal).identityPath.path, aliases)
+        if (aliases.isNotEmpty()) {
+            LOGGER.lifecycle("Resolving ${representatives.size} distinct configuration(s): ${aliases.size} configuration(s) have identical dependency declarations in another project")
+        }
+        return deduplicated
+    }
+
+    /**
+     * Orders the resolution tasks so that the runtime configurations of all projects are resolved first,
+     * and within each phase, projects with more declared dependencies and more dependent projects come first.
+     */
+    private fun scheduleByPriority(
+        gradle: Gradle,
+        runtimeTasks: Map<Project, TaskProvider<out AbstractResolveProjectDependenciesTask>>,
+        remainingTasks: Map<Project, TaskProvider<out AbstractResolveProjectDependenciesTask>>
+    ): TaskProvider<Task> {
+        val resolveRuntimeDeps = gradle.rootProject.tasks.register(RESOLVE_RUNTIME_TASK) {
+            it.dependsOn(runtimeTasks.values)
+        }
+        remainingTasks.values.forEach { task ->
+            task.configure { it.mustRunAfter(resolveRuntimeDeps) }
+        }
+
+        val dependents = ChangedProjectsDetector.projectDependents(gradle.rootProject)
+        val priorityOrder = runtimeTasks.keys.sortedByDescending { project ->
+            val declaredDependencies = ReportableConfigurations.of(project, configurationFilter).map { it.dependencies.size }.sum()
+            declaredDependencies + 10 * (dependents[project.path]?.size ?: 0)
+        }
+        for ((previous, next) in priorityOrder.zipWithNext()) {
+            runtimeTasks.getValue(next).configure { it.shouldRunAfter(runtimeTasks.getValue(previous)) }
+            remainingTasks.getValue(next).configure { it.shouldRunAfter(remainingTasks.getValue(previous)) }
+        }
+        return resolveRuntimeDeps
+    }
+
+    /**
+     * Creates a task that reads the dependencies of a project from its lockfile,
+     * if dependency locking is enabled for every reportable configuration of the project
+     * and the lockfile contains every module declared by those configurations.
+     */
+    private fun createLockfileTask(project: Project, reportDirectory: File?): TaskProvider<LockfileProjectDependenciesTask>? {
+        if (!lockfileMode || reportDirectory == null) {
+            return null
+        }
+        val lockedModules = DependencyLockfile.read(project)
+        if (lockedModules == null) {
+            LOGGER.info("Resolving dependencies of ${project.path}: no dependency lockfile found")
+            return null
+        }
+        val reportableConfigurations = ReportableConfigurations.of(project, configurationFilter)
+        val unlockedConfigurations = reportableConfigurations.map { it.name }.filter { !lockedModules.containsKey(it) }
+        if (unlockedConfigurations.isNotEmpty()) {
+            LOGGER.info("Resolving dependencies of ${project.path}: configurations are not locked: ${unlockedConfigurations.joinToString()}")
+            return null
+        }
+        val declaredModules = reportableConfigurations.associate { configuration ->
+            configuration.name to LockfileProjectDependenciesTask.declaredModules(configuration)
+        }
+        val missingModules = declaredModules.flatMap { (configurationName, modules) ->
+            val lockedIdentifiers = lockedModules.getValue(configurationName).map { LockfileProjectDependenciesTask.moduleIdentifier(it) }.toSet()
+            modules.filter { !lockedIdentifiers.contains(it) }
+        }.distinct()
+        if (missingModules.isNotEmpty()) {
+            LOGGER.lifecycle("Resolving dependencies of ${project.path}: the dependency lockfile is missing declared modules: ${missingModules.joinToString()}")
+            return null
+        }
+        val projectIdentityPath = (project as ProjectInternal).identityPath.path
+        return project.tasks.register(RESOLVE_PROJECT_TASK, LockfileProjectDependenciesTask::class.java) {
+            it.configurationFilter = configurationFilter
+            it.projectIdentityPath = projectIdentityPath
+            it.lockedModules = lockedModules.filterKeys { name -> declaredModules.containsKey(name) }
+            it.declaredModules = declaredModules
+            it.outputFile = LockfileConfigurations.file(reportDirectory, projectIdentityPath)
+        }
+    }
+
+    /**
+     * Locates the report directory of the root build, which is shared by any included builds.
+     */
+    private fun reportDirectory(gradle: Gradle): File? {
+        val reportDir = pluginParameters.loadOptional(PARAM_REPORT_DIR)
+        if (reportDir != null) {
+            return File(reportDir)
+        }
+        var rootGradle = gradle
+        while (rootGradle.parent != null) {
+            rootGradle = rootGradle.parent!!
+        }
+        return try {
+            File(rootGradle.rootProject.layout.buildDirectory.get().asFile, DEFAULT_REPORT_DIR)
+        } catch (e: IllegalStateException) {
+            LOGGER.info("Cannot locate dependency graph report directory for ${gradle.rootProject.projectDir}: ${e.message}")
+            null
+        }
+    }
+
     private fun getResolveProjectDependenciesTaskFactory(): ResolveProjectDependenciesTaskFactory {
         val gradleVersion = GradleVersion.current()
         val gradle8 = GradleVersion.version("8.0")
@@ -59,22 +345,50 @@ class ForceDependencyResolutionPlugin : Plugin<Gradle> {
     }
 
     private interface ResolveProjectDependenciesTaskFactory {
-        fun create(project: Project, filter: ResolvedConfigurationFilter): TaskProvider<out Task>
+        fun create(
+            project: Project,
+            name: String,
+            configure: (AbstractResolveProjectDependenciesTask) -> Unit
+        ): TaskProvider<out AbstractResolveProjectDependenciesTask>
 
         object Current : ResolveProjectDependenciesTaskFactory {
-            override fun create(project: Project, filter: ResolvedConfigurationFilter): TaskProvider<out Task> {
-                return project.tasks.register(RESOLVE_PROJECT_TASK, ResolveProjectDependenciesTask::class.java) {
-                    it.configurationFilter = filter
+            override fun create(
+                project: Project,
+                name: String,
+                configure: (AbstractResolveProjectDependenciesTask) -> Unit
+            ): TaskProvider<out AbstractResolveProjectDependenciesTask> {
+                return project.tasks.register(name, ResolveProjectDependenciesTask::class.java) {
+                    configure(it)
                 }
             }
         }
 
         object Legacy : ResolveProjectDependenciesTaskFactory {
-            override fun create(project: Project, filter: ResolvedConfigurationFilter): TaskProvider<out Task> {
-                return project.tasks.register(RESOLVE_PROJECT_TASK, LegacyResolveProjectDependenciesTask::class.java) {
-                    it.configurationFilter = filter
+            override fun create(
+                project: Project,
+                name: String,
+                configure: (AbstractResolveProjectDependenciesTask) -> Unit
+            ): TaskProvider<out AbstractResolveProjectDependenciesTask> {
+                return project.tasks.register(name, LegacyResolveProjectDependenciesTask::class.java) {
+                    configure(it)
                 }
             }
         }
     }
-}
\ No newline at end of file
+
+    companion object {
+        private val LOGGER = Logging.getLogger(ForceDependencyResolutionPlugin::class.java)
+        private const val RESOLUTION_SKIPPED_PROPERTY = "forceDependencyResolutionSkipped"
+
+        /**
+         * Skips dependency resolution in every build of the build tree: no resolution task is created for any project.
+         */
+        fun skipResolution(gradle: Gradle) {
+            (gradle.rootGradle() as ExtensionAware).extensions.extraProperties.set(RESOLUTION_SKIPPED_PROPERTY, true)
+        }
+
+        fun isResolutionSkipped(gradle: Gradle): Boolean {
+            return (gradle.rootGradle() as ExtensionAware).extensions.extraProperties.has(RESOLUTION_SKIPPED_PROPERTY)
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.gradle.forceresolve
+
+import org.gradle.api.GradleException
+import org.gradle.api.provider.ProviderFactory
+import org.gradle.util.GradleVersion
+import java.io.File
+
+/**
+ * Lists the files in a Git working tree that differ from a base commit, including untracked files.
+ */
+internal class GitChangedFiles(
+    private val providers: ProviderFactory,
+    private val workingDir: File
+) {
+    fun changedSince(baseCommit: String): List<File> {
+        val topLevel = File(git("rev-parse", "--show-toplevel").trim())
+        val changed = git("diff", "--name-only", baseCommit, "--").lines()
+        val untracked = git("ls-files", "--others", "--exclude-standard", "--full-name").lines()
+        return (changed + untracked)
+            .filter { it.isNotBlank() }
+            .map { File(topLevel, it).canonicalFile }
+            .distinct()
+    }
+
+    private fun git(vararg args: String): String {
+        val commandLine = listOf("git") + args
+        // Use the provider API where available, so that the output is tracked as a configuration-cache input
+        if (GradleVersion.current() >= GradleVersion.version("7.5")) {
+            return providers.exec {
+                it.workingDir = workingDir
+                it.commandLine(commandLine)
+            }.standardOutput.asText.get()
+        }
+        // Errors are written to a file rather than a pipe, so that a full error pipe cannot block the process while the output is read.
+        // They are not merged with the output, as warnings would then be read as file names.
+        val errorFile = File.createTempFile("git-changed-files", ".err")
+        try {
+            val process = ProcessBuilder(commandLine)
+                .directory(workingDir)
+                .redirectError(errorFile)
+                .start()
+            val output = process.inputStream.bufferedReader().readText()
+            if (process.waitFor() != 0) {
+                throw GradleException("Command '${commandLine.joinToString(" ")}' failed: ${errorFile.readText()}")
+            }
+            return output
+        } finally {
+            errorFile.delete()
+        }
+    }
+}
@@ -9,7 +9,9 @@ abstract class LegacyResolveProjectDependenciesTask: AbstractResolveProjectDepen
     @TaskAction
     fun action() {
         for (configuration in getReportableConfigurations()) {
-            configuration.incoming.resolutionResult.root
+            resolveConfiguration(configuration.name) {
+                configuration.incoming.resolutionResult.root
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package org.gradle.forceresolve
+
+import org.gradle.api.artifacts.Configuration
+import org.gradle.api.artifacts.ExternalModuleDependency
+import org.gradle.api.tasks.Internal
+import org.gradle.api.tasks.TaskAction
+import org.gradle.dependencygraph.model.*
+import org.gradle.dependencygraph.util.JacksonJsonSerializer
+import org.gradle.work.DisableCachingByDefault
+import java.io.File
+
+/**
+ * Builds the resolved configurations of a project from its dependency lockfile, without resolving any configuration.
+ *
+ * A lockfile only lists the modules selected for each configuration, so the resulting graph has no edges
+ * between dependencies, no repository URLs, and modules reached through a project dependency are reported as indirect.
+ */
+@DisableCachingByDefault(because = "Not worth caching")
+abstract class LockfileProjectDependenciesTask : AbstractResolveProjectDependenciesTask() {
+    @Internal
+    var projectIdentityPath: String = ""
+
+    /**
+     * The locked module coordinates for each reportable configuration.
+     */
+    @Internal
+    var lockedModules: Map<String, List<String>> = emptyMap()
+
+    /**
+     * The `group:module` of each external dependency declared for each reportable configuration.
+     */
+    @Internal
+    var declaredModules: Map<String, Set<String>> = emptyMap()
+
+    @Internal
+    var outputFile: File? = null
+
+    @TaskAction
+    fun action() {
+        val rootOrigin = DependencyOrigin("project $projectIdentityPath", projectIdentityPath)
+        val resolvedConfigurations = declaredModules.keys.sorted().map { configurationName ->
+            val directModules = declaredModules.getValue(configurationName)
+            val scope = configurationFilter!!.dependencyScope(projectIdentityPath, configurationName)
+            val configuration = ResolvedConfiguration(rootOrigin, configurationName, scope)
+            for (module in lockedModules[configurationName] ?: emptyList()) {
+                configuration.addDependency(lockedDependency(module, rootOrigin, directModules))
+            }
+            configuration
+        }.filter { it.allDependencies.isNotEmpty() }
+
+        val output = outputFile!!
+        output.parentFile.mkdirs()
+        output.writeText(JacksonJsonSerializer.serializeToJson(resolvedConfigurations))
+    }
+
+    private fun lockedDependency(module: String, rootOrigin: DependencyOrigin, directModules: Set<String>): ResolvedDependency {
+        val coordinates = module.split(':')
+        val group = coordinates[0]
+        val name = coordinates.getOrElse(1) { "" }
+        val version = coordinates.getOrElse(2) { "" }
+        return ResolvedDependency(
+            module,
+            rootOrigin,
+            directModules.contains("$group:$name"),
+            false,
+            DependencyCoordinates(group, name, version),
+            null,
+            emptyList()
+        )
+    }
+
+    companion object {
+        /**
+         * The `group:module` of each external dependency declared for a configuration.
+         */
+        fun declaredModules(configuration: Configuration): Set<String> {
+            return configuration.allDependencies
+                .withType(ExternalModuleDependency::class.java)
+                .map { "${it.group}:${it.name}" }
+                .toSet()
+        }
+
+        /**
+         * The `group:module` of locked module coordinates.
+         */
+        fun moduleIdentifier(lockedModule: String): String {
+            return lockedModule.split(':').take(2).joinToString(":")
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.gradle.forceresolve
+
+import org.gradle.dependencygraph.extractor.CheckpointStore
+import org.gradle.dependencygraph.extractor.ResolutionInputs
+import java.io.File
+
+/**
+ * The checkpoint records for a single project, used to skip configurations that have already been extracted.
+ */
+class ProjectCheckpoints(
+    private val store: CheckpointStore,
+    private val projectPath: String,
+    private val projectDir: File,
+    private val buildFingerprint: String
+) {
+    private var fingerprint: String? = null
+
+    fun isCheckpointed(configurationName: String): Boolean {
+        val projectFingerprint = fingerprint
+            ?: ResolutionInputs.projectFingerprint(buildFingerprint, projectDir).also { fingerprint = it }
+        return store.isValid(projectPath, configurationName, projectFingerprint)
+    }
+}
@@ -0,0 +1,19 @@
+package org.gradle.forceresolve
+
+import org.gradle.api.Project
+import org.gradle.api.artifacts.ProjectDependency
+import org.gradle.util.GradleVersion
+
+internal object ProjectDependencies {
+    /**
+     * Returns the path of the project that is the target of the dependency.
+     */
+    fun path(dependency: ProjectDependency): String {
+        // `ProjectDependency.getPath()` replaces `getDependencyProject()`, which was removed in Gradle 9
+        if (GradleVersion.current() >= GradleVersion.version("8.11")) {
+            return dependency.path
+        }
+        val dependencyProject = dependency.javaClass.getMethod("getDependencyProject").invoke(dependency) as Project
+        return dependencyProject.path
+    }
+}
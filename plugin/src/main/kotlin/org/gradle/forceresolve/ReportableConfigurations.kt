@@ -0,0 +1,40 @@
+package org.gradle.forceresolve
+
+import org.gradle.api.Project
+import org.gradle.api.artifacts.Configuration
+import org.gradle.dependencygraph.extractor.ResolvedConfigurationFilter
+import java.lang.reflect.Method
+
+/**
+ * Selects the configurations of a project that can be resolved and are included in the dependency graph.
+ */
+internal object ReportableConfigurations {
+    private val canSafelyBeResolvedMethod: Method? by lazy { findCanSafelyBeResolvedMethod() }
+
+    fun of(project: Project, configurationFilter: ResolvedConfigurationFilter): List<Configuration> {
+        return project.configurations.filter {
+            canSafelyBeResolved(it) && configurationFilter.include(project.path, it.name)
+        }
+    }
+
+    /**
+     * If `DeprecatableConfiguration.canSafelyBeResolved()` is available, use it.
+     * Else fall back to `Configuration.canBeResolved`.
+     */
+    private fun canSafelyBeResolved(configuration: Configuration): Boolean {
+        val method = canSafelyBeResolvedMethod
+        if (method != null) {
+            return method.invoke(configuration) as Boolean
+        }
+        return configuration.isCanBeResolved
+    }
+
+    private fun findCanSafelyBeResolvedMethod(): Method? {
+        return try {
+            val dc = Class.forName("org.gradle.internal.deprecation.DeprecatableConfiguration")
+            dc.getMethod("canSafelyBeResolved")
+        } catch (e: ReflectiveOperationException) {
+            null
+        }
+    }
+}
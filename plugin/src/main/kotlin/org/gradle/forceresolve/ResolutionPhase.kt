@@ -0,0 +1,16 @@
+package org.gradle.forceresolve
+
+/**
+ * Resolution of a project can be split into phases, so that runtime configurations are resolved first.
+ */
+enum class ResolutionPhase {
+    ALL, RUNTIME, NON_RUNTIME;
+
+    fun includes(runtime: Boolean): Boolean {
+        return when (this) {
+            ALL -> true
+            RUNTIME -> runtime
+            NON_RUNTIME -> !runtime
+        }
+    }
+}
@@ -10,16 +10,18 @@ import org.gradle.work.DisableCachingByDefault
 abstract class ResolveProjectDependenciesTask: AbstractResolveProjectDependenciesTask() {
     private val configurationResolvers = Cached.of { createConfigurationResolvers() }
 
-    private fun createConfigurationResolvers(): List<Provider<ResolvedComponentResult>> {
-        return getReportableConfigurations().map {
-            it.incoming.resolutionResult.rootComponent
+    private fun createConfigurationResolvers(): Map<String, Provider<ResolvedComponentResult>> {
+        return getReportableConfigurations().associate {
+            it.name to it.incoming.resolutionResult.rootComponent
         }
     }
 
     @TaskAction
     fun action() {
-        for (configuration in configurationResolvers.get()) {
-            configuration.get()
+        for ((configurationName, configuration) in configurationResolvers.get()) {
+            resolveConfiguration(configurationName) {
+                configuration.get()
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,12 @@
 package org.gradle.github
 
+import org.gradle.api.invocation.Gradle
 import org.gradle.dependencygraph.AbstractDependencyExtractorPlugin
+import org.gradle.dependencygraph.util.PluginParameters
+import org.gradle.forceresolve.ForceDependencyResolutionPlugin
 import org.gradle.github.dependencygraph.GitHubDependencyGraphRenderer
+import org.gradle.github.dependencygraph.PARAM_REUSE_UNCHANGED_SNAPSHOT
+import org.gradle.github.dependencygraph.UnchangedSnapshot
 
 /**
  * A plugin that collects all resolved dependencies in a Gradle build and exports it using the GitHub API format.
@@ -10,4 +15,16 @@ class GitHubDependencyExtractorPlugin : AbstractDependencyExtractorPlugin() {
     override fun getRendererClassName(): String {
         return GitHubDependencyGraphRenderer::class.java.name
     }
+
+    override fun apply(gradle: Gradle) {
+        super.apply(gradle)
+
+        gradle.settingsEvaluated { settings ->
+            val pluginParameters = PluginParameters()
+            if (pluginParameters.loadBoolean(PARAM_REUSE_UNCHANGED_SNAPSHOT) && UnchangedSnapshot.reuse(settings, pluginParameters)) {
+                skipDependencyGraph("Dependency inputs are unchanged since the previous snapshot")
+                ForceDependencyResolutionPlugin.skipResolution(gradle)
+            }
+        }
+    }
 }
@@ -4,6 +4,7 @@ import org.gradle.api.GradleException
 import org.gradle.api.Plugin
 import org.gradle.api.invocation.Gradle
 import org.gradle.forceresolve.ForceDependencyResolutionPlugin
+import org.gradle.github.dependencygraph.UnchangedSnapshot
 import org.gradle.util.GradleVersion
 
 /**
@@ -26,5 +27,15 @@ class GitHubDependencyGraphPlugin : Plugin<Gradle> {
 
         // Apply the dependency resolver to each build
         gradle.pluginManager.apply(ForceDependencyResolutionPlugin::class.java)
+
+        // The previous snapshot is only reused for builds without included builds, which are only known once they are loaded
+        if (gradle.parent != null) {
+            gradle.settingsEvaluated { settings ->
+                UnchangedSnapshot.discardPendingFingerprint(settings)
+                if (ForceDependencyResolutionPlugin.isResolutionSkipped(gradle)) {
+                    UnchangedSnapshot.skipProjectConfiguration(settings)
+                }
+            }
+        }
     }
 }
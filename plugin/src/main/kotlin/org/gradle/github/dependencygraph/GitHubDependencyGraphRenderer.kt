@@ -1,14 +1,20 @@
 package org.gradle.github.dependencygraph
 
 import org.gradle.api.logging.Logging
-import org.gradle.dependencygraph.DependencyGraphRenderer
+import org.gradle.dependencygraph.PartialDependencyGraphRenderer
 import org.gradle.github.dependencygraph.model.GitHubRepositorySnapshot
 import org.gradle.dependencygraph.model.BuildLayout
+import org.gradle.dependencygraph.model.ResolutionFailure
 import org.gradle.dependencygraph.model.ResolvedConfiguration
 import org.gradle.dependencygraph.util.*
+import org.gradle.github.dependencygraph.diff.DiffSummary
+import org.gradle.github.dependencygraph.diff.SnapshotDiff
+import org.gradle.github.dependencygraph.split.SnapshotSplit
+import org.gradle.github.dependencygraph.submit.SnapshotSubmitter
+import java.io.ByteArrayOutputStream
 import java.io.File
 
-class GitHubDependencyGraphRenderer : DependencyGraphRenderer {
+class GitHubDependencyGraphRenderer : PartialDependencyGraphRenderer {
 
     override fun outputDependencyGraph(
         pluginParameters: PluginParameters,
@@ -16,30 +22,219 @@ class GitHubDependencyGraphRenderer : DependencyGraphRenderer {
         resolvedConfigurations: List<ResolvedConfiguration>,
         outputDirectory: File
     ) {
+        outputSnapshots(pluginParameters, buildLayout, resolvedConfigurations, null, outputDirectory)
+    }
+
+    override fun outputPartialDependencyGraph(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        unresolved: List<ResolutionFailure>,
+        outputDirectory: File
+    ) {
+        outputSnapshots(pluginParameters, buildLayout, resolvedConfigurations, unresolved, outputDirectory)
+    }
+
+    /**
+     * Writes the snapshot for the build, followed by a snapshot for each variant, all from the same extracted configurations.
+     * A `null` list of unresolved configurations indicates a complete dependency graph.
+     * When a submission endpoint is configured, each snapshot is submitted as soon as it is written.
+     */
+    private fun outputSnapshots(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        unresolved: List<ResolutionFailure>?,
+        outputDirectory: File
+    ) {
+        val submitter = SnapshotSubmitter.create(pluginParameters)
+        try {
+            writeSnapshots(pluginParameters, buildLayout, resolvedConfigurations, unresolved, outputDirectory, submitter)
+            submitter?.await()
+        } finally {
+            submitter?.close()
+        }
+    }
+
+    private fun writeSnapshots(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        unresolved: List<ResolutionFailure>?,
+        outputDirectory: File,
+        submitter: SnapshotSubmitter?
+    ) {
+        val split = SnapshotSplit.load(pluginParameters)
+        if (split != null) {
+            // A split snapshot cannot be reused or compared as a whole
+            val snapshotFile = OutputEncoding.load(pluginParameters).file(outputDirectory, GitHubSnapshotParams(pluginParameters).dependencyGraphJobCorrelator)
+            UnchangedSnapshot.storeFingerprint(snapshotFile, false)
+            val files = outputSplitSnapshots(
+                split, pluginParameters, buildLayout, resolvedConfigurations, unresolved?.let { partialManifestMetadata(it) }, outputDirectory, submitter
+            )
+            GitHubStepOutput.write("dependency-graph-files", files.joinToString(",") { it.absolutePath })
+        } else {
+            writeSnapshot(pluginParameters, buildLayout, resolvedConfigurations, unresolved, outputDirectory, submitter)
+        }
+
+        for (variant in SnapshotVariant.load(pluginParameters)) {
+            val variantUnresolved = unresolved?.filter { variant.includesProject(it.projectPath) }
+            val variantSplit = SnapshotSplit.load(variant.parameters)
+            if (variantSplit != null) {
+                val files = outputSplitSnapshots(
+                    variantSplit,
+                    variant.parameters,
+                    buildLayout,
+                    variant.select(resolvedConfigurations),
+                    variantUnresolved?.let { partialManifestMetadata(it) },
+                    outputDirectory,
+                    submitter
+                )
+                GitHubStepOutput.write("dependency-graph-files-${variant.name}", files.joinToString(",") { it.absolutePath })
+                continue
+            }
+            val variantOutput = outputSnapshot(
+                variant.parameters,
+                buildLayout,
+                variant.select(resolvedConfigurations),
+                variantUnresolved?.let { partialManifestMetadata(it) },
+                outputDirectory
+            )
+            submitter?.submit(variantOutput.name, variantOutput.snapshot)
+            GitHubStepOutput.write("dependency-graph-file-${variant.name}", variantOutput.file.absolutePath)
+        }
+    }
+
+    private fun writeSnapshot(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        unresolved: List<ResolutionFailure>?,
+        outputDirectory: File,
+        submitter: SnapshotSubmitter?
+    ) {
+        val output = outputSnapshot(pluginParameters, buildLayout, resolvedConfigurations, unresolved?.let { partialManifestMetadata(it) }, outputDirectory)
+        submitter?.submit(output.name, output.snapshot)
+        // Only a complete snapshot can be reused by a later build
+        UnchangedSnapshot.storeFingerprint(output.file, unresolved == null)
+        GitHubStepOutput.write("dependency-graph-file", output.file.absolutePath)
+        SnapshotDigest.writeStepOutputs(pluginParameters, output.digest)
+        outputDiff(pluginParameters, output.file, outputDirectory)
+    }
+
+    private fun outputSnapshot(
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        manifestMetadata: Map<String, Any>?,
+        outputDirectory: File
+    ): SnapshotOutput {
         val snapshotParams = GitHubSnapshotParams(pluginParameters)
         val gitHubRepositorySnapshotBuilder = GitHubRepositorySnapshotBuilder(snapshotParams)
         // Use the job correlator as the manifest name
         val manifestName = snapshotParams.dependencyGraphJobCorrelator
-        val manifest = gitHubRepositorySnapshotBuilder.buildManifest(manifestName, resolvedConfigurations, buildLayout)
+        val manifest = gitHubRepositorySnapshotBuilder.buildManifest(manifestName, resolvedConfigurations, buildLayout, manifestMetadata)
         val snapshot = gitHubRepositorySnapshotBuilder.buildSnapshot(manifest)
 
-        val outputFile = File(outputDirectory, "${snapshotParams.dependencyGraphJobCorrelator}.json")
+        val encoding = OutputEncoding.load(pluginParameters)
+        val outputFile = encoding.file(outputDirectory, snapshotParams.dependencyGraphJobCorrelator)
 
-        writeDependencySnapshot(snapshot, outputFile)
+        writeDependencySnapshot(snapshot, encoding, outputFile)
+        val digest = SnapshotDigest.compute(snapshot)
+        SnapshotDigest.write(outputFile, digest)
+        return SnapshotOutput(manifestName, snapshot, outputFile, digest)
+    }
 
-        // Write the output file as a GitHub Actions step output
-        val githubOutput = System.getenv("GITHUB_OUTPUT")
-        if (githubOutput !== null && File(githubOutput).isFile) {
-            File(githubOutput).appendText("dependency-graph-file=${outputFile.absolutePath}\n")
+    /**
+     * Writes a snapshot for each part of the split dependency graph, with the correlator suffixed by the key of the part.
+     * Each part is built, written and submitted before the next part is computed. Returns the files that were written.
+     * No digest or diff step outputs are written for the parts.
+     */
+    private fun outputSplitSnapshots(
+        split: SnapshotSplit,
+        pluginParameters: PluginParameters,
+        buildLayout: BuildLayout,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        manifestMetadata: Map<String, Any>?,
+        outputDirectory: File,
+        submitter: SnapshotSubmitter?
+    ): List<File> {
+        // A split snapshot is not written as a single file, so it cannot be compared with a previous digest or a baseline
+        for (parameter in listOf(PARAM_PREVIOUS_DIGEST, PARAM_DIFF_BASELINE)) {
+            if (pluginParameters.loadOptional(parameter) != null) {
+                LOGGER.lifecycle("GitHubDependencyGraphRenderer: $parameter is ignored when the dependency snapshot is split")
+            }
         }
+        val snapshotParams = GitHubSnapshotParams(pluginParameters)
+        val gitHubRepositorySnapshotBuilder = GitHubRepositorySnapshotBuilder(snapshotParams)
+        val encoding = OutputEncoding.load(pluginParameters)
+        val correlator = snapshotParams.dependencyGraphJobCorrelator
+
+        // The size of a snapshot without packages, allowing for the suffix of the part in the correlator
+        val emptyManifest = gitHubRepositorySnapshotBuilder.buildManifest(correlator, emptyList(), buildLayout, manifestMetadata)
+        val emptySnapshotBytes = ByteArrayOutputStream().also {
+            JacksonJsonSerializer.serializeToStream(gitHubRepositorySnapshotBuilder.buildSnapshot(emptyManifest), it, false)
+        }.size().toLong() + 2 * PART_KEY_BYTES
+
+        val files = mutableListOf<File>()
+        for (part in split.parts(resolvedConfigurations, buildLayout, emptySnapshotBytes)) {
+            val partCorrelator = "$correlator-${part.key}"
+            val manifest = gitHubRepositorySnapshotBuilder.buildPartManifest(
+                partCorrelator, part.configurations, part.sourceFile?.toPath(), buildLayout, manifestMetadata
+            )
+            val snapshot = gitHubRepositorySnapshotBuilder.buildSnapshot(manifest, partCorrelator)
+            val outputFile = encoding.file(outputDirectory, partCorrelator)
+            writeDependencySnapshot(snapshot, encoding, outputFile)
+            SnapshotDigest.write(outputFile, SnapshotDigest.compute(snapshot))
+            submitter?.submit(partCorrelator, snapshot)
+            files.add(outputFile)
+        }
+        LOGGER.lifecycle("GitHubDependencyGraphRenderer: Split the dependency graph by ${split.mode.parameterValue} into ${files.size} snapshot(s)")
+        return files
     }
 
-    private fun writeDependencySnapshot(graph: GitHubRepositorySnapshot, manifestFile: File) {
-        manifestFile.writeText(JacksonJsonSerializer.serializeToJson(graph))
-        LOGGER.lifecycle("\nGitHubDependencyGraphRenderer: Wrote dependency snapshot to \n${manifestFile.canonicalPath}")
+    private class SnapshotOutput(val name: String, val snapshot: GitHubRepositorySnapshot, val file: File, val digest: String)
+
+    /**
+     * Streams the changes since the baseline snapshot, when configured, to a newline-delimited JSON file.
+     */
+    private fun outputDiff(pluginParameters: PluginParameters, snapshotFile: File, outputDirectory: File) {
+        val baselineFile = pluginParameters.loadOptional(PARAM_DIFF_BASELINE)?.let { File(it) } ?: return
+        if (!baselineFile.isFile) {
+            LOGGER.lifecycle("GitHubDependencyGraphRenderer: No baseline dependency snapshot found at ${baselineFile.path}")
+            return
+        }
+        val encoding = OutputEncoding.load(pluginParameters)
+        val correlator = GitHubSnapshotParams(pluginParameters).dependencyGraphJobCorrelator
+        val diffFile = encoding.linesFile(outputDirectory, "$correlator.diff")
+        val summary = DiffSummary()
+        SnapshotDiff.withChanges(baselineFile, snapshotFile) { changes ->
+            encoding.writeLines(changes.onEach { summary.add(it) }, diffFile)
+        }
+        LOGGER.lifecycle("GitHubDependencyGraphRenderer: Dependency changes since ${baselineFile.path}: $summary. See ${diffFile.canonicalPath}")
+        GitHubStepOutput.write("dependency-graph-diff-file", diffFile.absolutePath)
+    }
+
+    /**
+     * Manifest metadata is limited to scalar values, so the unresolved projects and configurations are listed in a single string.
+     */
+    private fun partialManifestMetadata(unresolved: List<ResolutionFailure>): Map<String, Any> {
+        val metadata = linkedMapOf<String, Any>("partial" to true)
+        if (unresolved.isNotEmpty()) {
+            metadata["unresolved"] = unresolved.joinToString(", ") { it.displayName() }
+        }
+        return metadata
+    }
+
+    private fun writeDependencySnapshot(graph: GitHubRepositorySnapshot, encoding: OutputEncoding, manifestFile: File) {
+        val summary = encoding.write(graph, manifestFile)
+        LOGGER.lifecycle("\nGitHubDependencyGraphRenderer: Wrote dependency snapshot ($summary) to \n${manifestFile.canonicalPath}")
     }
 
     companion object {
         private val LOGGER = Logging.getLogger(GitHubDependencyGraphRenderer::class.java)
+
+        // The `-part-<n>` suffix of the correlator of a part split by size, which appears in both the job and the manifest name
+        private const val PART_KEY_BYTES = 16
     }
 }
\ No newline at end of file
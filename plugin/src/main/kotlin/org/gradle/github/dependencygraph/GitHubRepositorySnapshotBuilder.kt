@@ -5,6 +5,7 @@ import org.gradle.dependencygraph.model.ResolvedConfiguration
 import org.gradle.dependencygraph.model.BuildLayout
 import org.gradle.dependencygraph.model.DependencyScope
 import org.gradle.github.dependencygraph.model.*
+import java.nio.file.Path
 
 class GitHubRepositorySnapshotBuilder(
     private val snapshotParams: GitHubSnapshotParams
@@ -25,38 +26,62 @@ class GitHubRepositorySnapshotBuilder(
         )
     }
 
-    fun buildManifest(manifestName: String, resolvedConfigurations: List<ResolvedConfiguration>, buildLayout: BuildLayout): GitHubManifest {
+    fun buildManifest(
+        manifestName: String,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        buildLayout: BuildLayout,
+        metadata: Map<String, Any>? = null
+    ): GitHubManifest {
+        return GitHubManifest(
+            manifestName,
+            collectDependencies(resolvedConfigurations),
+            getManifestFile(buildLayout.getRootBuildPath()),
+            metadata
+        )
+    }
+
+    /**
+     * Builds the manifest for a part of a split dependency graph, reported against the source file if known.
+     * Dependencies on components that are not packages of the manifest, such as projects, are removed,
+     * so that every dependency ID refers to a package in the same manifest.
+     */
+    fun buildPartManifest(
+        manifestName: String,
+        resolvedConfigurations: List<ResolvedConfiguration>,
+        sourceFile: Path?,
+        buildLayout: BuildLayout,
+        metadata: Map<String, Any>? = null
+    ): GitHubManifest {
+        val dependencies = collectDependencies(resolvedConfigurations)
+        return GitHubManifest(
+            manifestName,
+            dependencies.mapValues { (_, dependency) ->
+                dependency.copy(dependencies = dependency.dependencies.filter { dependencies.containsKey(it) })
+            },
+            getManifestFile(sourceFile ?: buildLayout.getRootBuildPath()),
+            metadata
+        )
+    }
+
+    private fun collectDependencies(resolvedConfigurations: List<ResolvedConfiguration>): Map<String, GitHubDependency> {
         val dependencyCollector = DependencyCollector()
 
-        for (configuration in resolvedConfigurations) {
+        // Merge configurations in canonical order, so that the same dependency graph always produces the same manifest
+        for (configuration in resolvedConfigurations.sortedWith(ResolvedConfiguration.CANONICAL_ORDER)) {
             for (dependency in configuration.allDependencies) {
                 // Ignore project dependencies (transitive deps of projects will be reported with project)
                 if (dependency.isProject) continue
 
-                dependencyCollector.addResolved(dependency, determineGitHubScope(configuration))
+                dependencyCollector.addResolved(dependency, gitHubScope(configuration.scope))
             }
         }
-
-        return GitHubManifest(
-            manifestName,
-            dependencyCollector.getDependencies(),
-            getManifestFile(buildLayout)
-        )
-    }
-
-    private fun determineGitHubScope(configuration: ResolvedConfiguration): GitHubDependency.Scope? {
-        return when(configuration.scope) {
-            DependencyScope.Development -> GitHubDependency.Scope.development
-            DependencyScope.Runtime -> GitHubDependency.Scope.runtime
-            DependencyScope.Unknown -> null
-        }
+        return dependencyCollector.getDependencies()
     }
 
     /**
-     * Manifest file is the root build settings file if it exists, or the root build file if not.
+     * Manifest file is the root build settings file if it exists, or the root build file if not, unless another file is given.
      */
-    private fun getManifestFile(buildLayout: BuildLayout): GitHubManifestFile? {
-        val path = buildLayout.getRootBuildPath()
+    private fun getManifestFile(path: Path?): GitHubManifestFile? {
         return path?.let {
             val filePath = snapshotParams.gitHubWorkspace
                 .relativize(path)
@@ -66,9 +91,9 @@ class GitHubRepositorySnapshotBuilder(
         }
     }
 
-    fun buildSnapshot(manifest: GitHubManifest): GitHubRepositorySnapshot {
+    fun buildSnapshot(manifest: GitHubManifest, correlator: String = snapshotParams.dependencyGraphJobCorrelator): GitHubRepositorySnapshot {
         return GitHubRepositorySnapshot(
-            job = job,
+            job = if (correlator == job.correlator) job else job.copy(correlator = correlator),
             sha = snapshotParams.gitSha,
             ref = snapshotParams.gitRef,
             detector = detector,
@@ -76,7 +101,7 @@ class GitHubRepositorySnapshotBuilder(
         )
     }
 
-    private class DependencyCollector {
+    internal class DependencyCollector {
         private val dependencyBuilders: MutableMap<String, GitHubDependencyBuilder> = mutableMapOf()
 
         /**
@@ -92,10 +117,10 @@ class GitHubRepositorySnapshotBuilder(
         }
 
         /**
-         * Build the GitHubDependency instances
+         * Build the GitHubDependency instances, ordered by ID
          */
         fun getDependencies(): Map<String, GitHubDependency> {
-            return dependencyBuilders.mapValues { (_, builder) ->
+            return dependencyBuilders.toSortedMap().mapValues { (_, builder) ->
                 builder.build()
             }
         }
@@ -109,17 +134,11 @@ class GitHubRepositorySnapshotBuilder(
             val dependencies = mutableListOf<String>()
 
             fun addRelationship(newRelationship: GitHubDependency.Relationship) {
-                // Direct relationship trumps indirect
-                if (relationship == GitHubDependency.Relationship.indirect) {
-                    relationship = newRelationship
-                }
+                relationship = GitHubDependency.mergeRelationship(relationship, newRelationship)
             }
 
             fun addScope(newScope: GitHubDependency.Scope?) {
-                if (newScope == null) return
-                if (scope == null || scope == GitHubDependency.Scope.development) {
-                    scope = newScope
-                }
+                scope = GitHubDependency.mergeScope(scope, newScope)
             }
 
             fun addDependencies(newDependencies: List<String>) {
@@ -135,4 +154,13 @@ class GitHubRepositorySnapshotBuilder(
         }
     }
 
+    companion object {
+        internal fun gitHubScope(scope: DependencyScope): GitHubDependency.Scope? {
+            return when(scope) {
+                DependencyScope.Development -> GitHubDependency.Scope.development
+                DependencyScope.Runtime -> GitHubDependency.Scope.runtime
+                DependencyScope.Unknown -> null
+            }
+        }
+    }
 }
@@ -17,6 +17,55 @@ const val PARAM_GITHUB_DETECTOR_URL = "GITHUB_DEPENDENCY_GRAPH_DETECTOR_URL"
  */
 const val PARAM_GITHUB_WORKSPACE = "GITHUB_DEPENDENCY_GRAPH_WORKSPACE"
 
+/**
+ * When 'true', the inputs that determine the dependency graph are fingerprinted before any project is configured.
+ * If they match the fingerprint stored with the previous snapshot, that snapshot is written again for the current job,
+ * and project configuration is skipped.
+ */
+const val PARAM_REUSE_UNCHANGED_SNAPSHOT = "GITHUB_DEPENDENCY_GRAPH_REUSE_UNCHANGED_SNAPSHOT"
+
+/**
+ * A comma-separated list of additional snapshot variants to render from the same extracted configurations.
+ * See [SnapshotVariant] for the parameters of each variant.
+ */
+const val PARAM_VARIANTS = "DEPENDENCY_GRAPH_VARIANTS"
+
+/**
+ * The content digest of a previous snapshot, or the path of the `.digest` file written with it.
+ * When the digest of the snapshot matches, the `dependency-graph-unchanged` step output is set to 'true'.
+ */
+const val PARAM_PREVIOUS_DIGEST = "GITHUB_DEPENDENCY_GRAPH_PREVIOUS_DIGEST"
+
+/**
+ * A baseline dependency snapshot, or persisted extraction, to compare the snapshot with.
+ * The added, removed and changed packages are written as newline-delimited JSON to `<correlator>.diff.ndjson`.
+ */
+const val PARAM_DIFF_BASELINE = "GITHUB_DEPENDENCY_GRAPH_DIFF_BASELINE"
+
+/**
+ * The Dependency Submission API endpoint to submit each snapshot to, such as
+ * `https://api.github.com/repos/<owner>/<repo>/dependency-graph/snapshots`.
+ * When set, every snapshot is also submitted as it is rendered, authenticated with [PARAM_SUBMIT_TOKEN].
+ */
+const val PARAM_SUBMIT_URL = "GITHUB_DEPENDENCY_GRAPH_SUBMIT_URL"
+const val PARAM_SUBMIT_TOKEN = "GITHUB_DEPENDENCY_GRAPH_SUBMIT_TOKEN"
+
+/**
+ * The maximum number of snapshots that are submitted at the same time. Defaults to 4.
+ */
+const val PARAM_SUBMIT_CONCURRENCY = "GITHUB_DEPENDENCY_GRAPH_SUBMIT_CONCURRENCY"
+
+/**
+ * Splits the dependency graph into several snapshots, each with its own correlator: `project`, `build` or `size`.
+ * See [org.gradle.github.dependencygraph.split.SnapshotSplit].
+ */
+const val PARAM_SPLIT_BY = "GITHUB_DEPENDENCY_GRAPH_SPLIT_BY"
+
+/**
+ * The size target for each snapshot when splitting by `size`, in bytes of compact JSON.
+ */
+const val PARAM_SPLIT_MAX_BYTES = "GITHUB_DEPENDENCY_GRAPH_SPLIT_MAX_BYTES"
+
 class GitHubSnapshotParams(pluginParameters: PluginParameters) {
     val dependencyGraphJobCorrelator: String = pluginParameters.load(PARAM_JOB_CORRELATOR)
     val dependencyGraphJobId: String = pluginParameters.load(PARAM_JOB_ID)
@@ -0,0 +1,17 @@
+package org.gradle.github.dependencygraph
+
+import java.io.File
+
+/**
+ * Writes GitHub Actions step outputs, when running in a GitHub Actions step.
+ */
+internal object GitHubStepOutput {
+    // Outputs may be written concurrently by several renderers, and each line must be appended whole
+    @Synchronized
+    fun write(name: String, value: String) {
+        val githubOutput = System.getenv("GITHUB_OUTPUT")
+        if (githubOutput !== null && File(githubOutput).isFile) {
+            File(githubOutput).appendText("$name=$value\n")
+        }
+    }
+}
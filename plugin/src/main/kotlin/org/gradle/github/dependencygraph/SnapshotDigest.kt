@@ -0,0 +1,53 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.api.logging.Logging
+import org.gradle.dependencygraph.util.JacksonJsonSerializer
+import org.gradle.dependencygraph.util.PluginParameters
+import org.gradle.github.dependencygraph.model.GitHubRepositorySnapshot
+import java.io.File
+
+/**
+ * The content digest of a snapshot, written to a `.digest` file next to the snapshot.
+ *
+ * The digest covers the snapshot version and manifests, in canonical JSON form. The job, sha, ref, detector
+ * and scan time are excluded, so that the same dependency graph has the same digest in every build.
+ */
+object SnapshotDigest {
+    private val LOGGER = Logging.getLogger(SnapshotDigest::class.java)
+
+    fun compute(snapshot: GitHubRepositorySnapshot): String {
+        return JacksonJsonSerializer.digest(mapOf("version" to snapshot.version, "manifests" to snapshot.manifests))
+    }
+
+    fun write(snapshotFile: File, digest: String) {
+        digestFile(snapshotFile).writeText(digest)
+    }
+
+    fun read(snapshotFile: File): String? {
+        val digestFile = digestFile(snapshotFile)
+        return if (digestFile.isFile) digestFile.readText().trim() else null
+    }
+
+    /**
+     * When a previous digest is configured, writes the digest as a step output, with whether it matches the previous digest.
+     */
+    fun writeStepOutputs(pluginParameters: PluginParameters, digest: String) {
+        val previousDigest = loadPreviousDigest(pluginParameters) ?: return
+        GitHubStepOutput.write("dependency-graph-digest", digest)
+        val unchanged = previousDigest == digest
+        if (unchanged) {
+            LOGGER.lifecycle("Dependency snapshot is unchanged from the previous digest $previousDigest")
+        }
+        GitHubStepOutput.write("dependency-graph-unchanged", unchanged.toString())
+    }
+
+    private fun loadPreviousDigest(pluginParameters: PluginParameters): String? {
+        val value = pluginParameters.loadOptional(PARAM_PREVIOUS_DIGEST)?.trim()?.takeIf { it.isNotEmpty() } ?: return null
+        val file = File(value)
+        return if (file.isFile) file.readText().trim() else value
+    }
+
+    private fun digestFile(snapshotFile: File): File {
+        return File(snapshotFile.parentFile, snapshotFile.name.removeSuffix(".gz").removeSuffix(".json") + ".digest")
+    }
+}
@@ -0,0 +1,303 @@
+package org.gradle.github.dependencygraph
+
+import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.json.JsonMapper
+import org.gradle.dependencygraph.extractor.PersistedExtraction
+import org.gradle.github.dependencygraph.model.GitHubDependency
+import java.io.Closeable
+import java.io.File
+import java.io.InputStream
+import java.nio.file.Files
+import java.util.PriorityQueue
+import java.util.zip.GZIPInputStream
+
+/**
+ * A resolved package in a snapshot. The dependencies are only read when requested.
+ */
+class SnapshotPackage(
+    val id: String,
+    val packageUrl: String,
+    val relationship: GitHubDependency.Relationship,
+    val scope: GitHubDependency.Scope?,
+    val dependencies: List<String> = emptyList()
+) {
+    // The component ID without its version, such as `group:module`
+    val name: String
+        get() = id.substringBeforeLast(':')
+
+    val version: String
+        get() = id.substringAfterLast(':', "")
+
+    /**
+     * Merges a package with the same ID, with the same rules as the dependency snapshot.
+     */
+    fun merge(other: SnapshotPackage): SnapshotPackage {
+        return SnapshotPackage(
+            id,
+            packageUrl,
+            GitHubDependency.mergeRelationship(relationship, other.relationship),
+            GitHubDependency.mergeScope(scope, other.scope),
+            if (other.dependencies.isEmpty()) dependencies else (dependencies + other.dependencies).distinct()
+        )
+    }
+}
+
+/**
+ * Reads the packages of a dependency snapshot or a persisted extraction in ID order, merging packages with the same ID.
+ *
+ * Snapshot files are parsed once. The packages of each manifest are written as a run to a temporary file,
+ * and runs that are not in canonical order, such as those of snapshots written by earlier plugin versions, are sorted one at a time.
+ * The runs are then merged in ID order with a priority queue, holding one package per run at a time.
+ * Persisted extractions are read into memory, and merged with the same rules as the dependency snapshot.
+ *
+ * The fields of each manifest other than the resolved packages, such as the manifest file and metadata, are available from [manifests].
+ */
+class SnapshotPackages private constructor(
+    private val packages: Iterator<SnapshotPackage>,
+    private val closeable: Closeable?,
+    val manifests: Map<String, Map<String, JsonNode>>
+) : Iterator<SnapshotPackage>, Closeable {
+    private var next: SnapshotPackage? = null
+
+    override fun hasNext(): Boolean {
+        return next != null || packages.hasNext()
+    }
+
+    override fun next(): SnapshotPackage {
+        // Merge packages with the same ID, which are adjacent
+        var current = next ?: packages.next()
+        next = null
+        while (packages.hasNext()) {
+            val candidate = packages.next()
+            if (candidate.id != current.id) {
+                next = candidate
+                break
+            }
+            current = current.merge(candidate)
+        }
+        return current
+    }
+
+    override fun close() {
+        closeable?.close()
+    }
+
+    companion object {
+        // A factory with a codec, so that manifest fields can be read as trees
+        private val JSON_FACTORY = JsonMapper.builder().build().factory
+
+        fun open(file: File, withDependencies: Boolean = false): SnapshotPackages {
+            if (isExtraction(file)) {
+                return SnapshotPackages(readExtraction(file, withDependencies).iterator(), null, emptyMap())
+            }
+            val runs = SortedRuns(Files.createTempDirectory("dependency-snapshot-packages").toFile())
+            try {
+                val manifests = openParser(file).use { parser -> writeRuns(parser, withDependencies, runs) }
+                return SnapshotPackages(runs.merge(), runs, manifests)
+            } catch (e: Exception) {
+                runs.close()
+                throw e
+            }
+        }
+
+        /**
+         * A persisted extraction starts with its format version, while a snapshot starts with its version.
+         */
+        private fun isExtraction(file: File): Boolean {
+            openParser(file).use { parser ->
+                return parser.nextToken() == JsonToken.START_OBJECT &&
+                    parser.nextToken() == JsonToken.FIELD_NAME &&
+                    parser.currentName == "formatVersion"
+            }
+        }
+
+        private fun readExtraction(file: File, withDependencies: Boolean): List<SnapshotPackage> {
+            val extraction = PersistedExtraction.read(file)
+            val dependencyCollector = GitHubRepositorySnapshotBuilder.DependencyCollector()
+            for (configuration in extraction.resolvedConfigurations) {
+                for (dependency in configuration.allDependencies) {
+                    if (dependency.isProject) continue
+                    dependencyCollector.addResolved(dependency, GitHubRepositorySnapshotBuilder.gitHubScope(configuration.scope))
+                }
+            }
+            return dependencyCollector.getDependencies().map { (id, dependency) ->
+                SnapshotPackage(
+                    id,
+                    dependency.package_url,
+                    dependency.relationship,
+                    dependency.scope,
+                    if (withDependencies) dependency.dependencies else emptyList()
+                )
+            }
+        }
+
+        /**
+         * Streams the resolved packages of each manifest in the snapshot to its own run, returning the other fields of each manifest.
+         */
+        private fun writeRuns(parser: JsonParser, withDependencies: Boolean, runs: SortedRuns): Map<String, Map<String, JsonNode>> {
+            val manifests = linkedMapOf<String, MutableMap<String, JsonNode>>()
+            check(parser.nextToken() == JsonToken.START_OBJECT) { "Not a dependency snapshot" }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                val field = parser.currentName
+                parser.nextToken()
+                if (field != "manifests") {
+                    parser.skipChildren()
+                    continue
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    val manifestFields = manifests.getOrPut(parser.currentName) { linkedMapOf() }
+                    parser.nextToken()
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        val manifestField = parser.currentName
+                        parser.nextToken()
+                        if (manifestField != "resolved") {
+                            manifestFields[manifestField] = parser.readValueAsTree()
+                            continue
+                        }
+                        runs.write { run ->
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                val id = parser.currentName
+                                parser.nextToken()
+                                run(readPackage(id, parser, withDependencies))
+                            }
+                        }
+                    }
+                }
+            }
+            return manifests
+        }
+
+        private fun readPackage(id: String, parser: JsonParser, withDependencies: Boolean): SnapshotPackage {
+            var packageId = id
+            var packageUrl = ""
+            var relationship = GitHubDependency.Relationship.indirect
+            var scope: GitHubDependency.Scope? = null
+            val dependencies = mutableListOf<String>()
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                val field = parser.currentName
+                parser.nextToken()
+                when (field) {
+                    "id" -> packageId = parser.text
+                    "package_url" -> packageUrl = parser.text
+                    "relationship" -> relationship = GitHubDependency.Relationship.valueOf(parser.text)
+                    "scope" -> scope = if (parser.currentToken == JsonToken.VALUE_NULL) null else GitHubDependency.Scope.valueOf(parser.text)
+                    "dependencies" -> if (withDependencies) {
+                        while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                            dependencies.add(parser.text)
+                        }
+                    } else {
+                        parser.skipChildren()
+                    }
+                    else -> parser.skipChildren()
+                }
+            }
+            return SnapshotPackage(packageId, packageUrl, relationship, scope, dependencies)
+        }
+
+        private fun openParser(file: File): JsonParser {
+            val input: InputStream = file.inputStream().buffered()
+            return JSON_FACTORY.createParser(if (file.name.endsWith(".gz")) GZIPInputStream(input) else input)
+        }
+    }
+
+    /**
+     * Runs of packages in ID order, each written to a file in the directory, which is deleted when closed.
+     */
+    private class SortedRuns(private val directory: File) : Closeable {
+        private val files = mutableListOf<File>()
+        private val parsers = mutableListOf<JsonParser>()
+
+        /**
+         * Writes the packages supplied to the writer to a new run, sorting the run if they are not in ID order.
+         */
+        fun write(writer: ((SnapshotPackage) -> Unit) -> Unit) {
+            val file = File(directory, "run-${files.size}.json")
+            files.add(file)
+            var previous: String? = null
+            var sorted = true
+            writeRun(file) { json ->
+                writer { snapshotPackage ->
+                    if (previous != null && previous!! > snapshotPackage.id) {
+                        sorted = false
+                    }
+                    previous = snapshotPackage.id
+                    writePackage(json, snapshotPackage)
+                }
+            }
+            if (!sorted) {
+                val packages = openRun(file).use { parser -> readRun(parser).asSequence().toList() }.sortedBy { it.id }
+                writeRun(file) { json -> packages.forEach { writePackage(json, it) } }
+            }
+        }
+
+        /**
+         * Repeatedly takes the lowest ID at the head of any run.
+         */
+        fun merge(): Iterator<SnapshotPackage> {
+            val heads = PriorityQueue<Head>(maxOf(1, files.size), compareBy { it.snapshotPackage.id })
+            for (file in files) {
+                val parser = openRun(file)
+                parsers.add(parser)
+                val run = readRun(parser)
+                if (run.hasNext()) {
+                    heads.add(Head(run.next(), run))
+                }
+            }
+            return object : Iterator<SnapshotPackage> {
+                override fun hasNext(): Boolean {
+                    return heads.isNotEmpty()
+                }
+
+                override fun next(): SnapshotPackage {
+                    val head = heads.poll() ?: throw NoSuchElementException()
+                    if (head.run.hasNext()) {
+                        heads.add(Head(head.run.next(), head.run))
+                    }
+                    return head.snapshotPackage
+                }
+            }
+        }
+
+        private class Head(val snapshotPackage: SnapshotPackage, val run: Iterator<SnapshotPackage>)
+
+        private fun writeRun(file: File, action: (JsonGenerator) -> Unit) {
+            JSON_FACTORY.createGenerator(file.outputStream().buffered()).use { json ->
+                json.writeStartArray()
+                action(json)
+                json.writeEndArray()
+            }
+        }
+
+        private fun writePackage(json: JsonGenerator, snapshotPackage: SnapshotPackage) {
+            json.writeStartObject()
+            json.writeStringField("id", snapshotPackage.id)
+            json.writeStringField("package_url", snapshotPackage.packageUrl)
+            json.writeStringField("relationship", snapshotPackage.relationship.name)
+            snapshotPackage.scope?.let { json.writeStringField("scope", it.name) }
+            json.writeArrayFieldStart("dependencies")
+            snapshotPackage.dependencies.forEach { json.writeString(it) }
+            json.writeEndArray()
+            json.writeEndObject()
+        }
+
+        private fun openRun(file: File): JsonParser {
+            val parser = JSON_FACTORY.createParser(file.inputStream().buffered())
+            check(parser.nextToken() == JsonToken.START_ARRAY) { "Not a run of packages: ${file.path}" }
+            return parser
+        }
+
+        private fun readRun(parser: JsonParser): Iterator<SnapshotPackage> {
+            return generateSequence {
+                if (parser.nextToken() == JsonToken.START_OBJECT) readPackage("", parser, true) else null
+            }.iterator()
+        }
+
+        override fun close() {
+            parsers.forEach { it.close() }
+            directory.deleteRecursively()
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.gradle.github.dependencygraph
+
+import org.gradle.dependencygraph.extractor.*
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.util.PluginParameters
+
+// Parameters that can be set for each variant, falling back to the value for the build
+private val VARIANT_PARAMETERS = listOf(
+    PARAM_INCLUDE_PROJECTS,
+    PARAM_INCLUDE_CONFIGURATIONS,
+    PARAM_EXCLUDE_PROJECTS,
+    PARAM_EXCLUDE_CONFIGURATIONS,
+    PARAM_RUNTIME_INCLUDE_PROJECTS,
+    PARAM_RUNTIME_INCLUDE_CONFIGURATIONS,
+    PARAM_RUNTIME_EXCLUDE_PROJECTS,
+    PARAM_RUNTIME_EXCLUDE_CONFIGURATIONS
+)
+
+/**
+ * An additional snapshot rendered from the configurations extracted for the build, with its own job correlator,
+ * configuration filters and scope rules.
+ *
+ * Each variant parameter is read from `DEPENDENCY_GRAPH_VARIANT_<NAME>_<PARAMETER>`, where `<PARAMETER>` is the name
+ * of the build parameter without its `DEPENDENCY_GRAPH_` prefix. Unset variant parameters fall back to the build parameter,
+ * except for the job correlator, which defaults to the build correlator suffixed with the variant name.
+ */
+class SnapshotVariant(val name: String, private val pluginParameters: PluginParameters) {
+    private val parameterPrefix = "DEPENDENCY_GRAPH_VARIANT_${name}_"
+
+    val parameters: PluginParameters = object : PluginParameters() {
+        override fun loadOptional(envName: String): String? {
+            if (envName == PARAM_JOB_CORRELATOR) {
+                return pluginParameters.loadOptional(parameterPrefix + "JOB_CORRELATOR")
+                    ?: pluginParameters.loadOptional(PARAM_JOB_CORRELATOR)?.let { "$it-$name" }
+            }
+            if (VARIANT_PARAMETERS.contains(envName)) {
+                return pluginParameters.loadOptional(parameterPrefix + envName.removePrefix("DEPENDENCY_GRAPH_"))
+                    ?: pluginParameters.loadOptional(envName)
+            }
+            return pluginParameters.loadOptional(envName)
+        }
+    }
+
+    private val configurationFilter = ResolvedConfigurationFilter(parameters)
+
+    /**
+     * Selects the extracted configurations included in this variant, with the dependency scope of this variant.
+     */
+    fun select(resolvedConfigurations: List<ResolvedConfiguration>): List<ResolvedConfiguration> {
+        return resolvedConfigurations
+            .filter { configurationFilter.include(it.rootOrigin.path, it.configurationName) }
+            .map { it.copy(scope = configurationFilter.dependencyScope(it.rootOrigin.path, it.configurationName)) }
+    }
+
+    fun includesProject(projectPath: String): Boolean {
+        return configurationFilter.includeProject(projectPath)
+    }
+
+    companion object {
+        private val VARIANT_NAME = Regex("[A-Za-z0-9_]+")
+
+        fun load(pluginParameters: PluginParameters): List<SnapshotVariant> {
+            val names = pluginParameters.loadOptional(PARAM_VARIANTS)
+                ?.split(',')
+                ?.map { it.trim() }
+                ?.filter { it.isNotEmpty() }
+                ?: return emptyList()
+            for (name in names) {
+                check(VARIANT_NAME.matches(name)) { "Invalid dependency graph variant name '$name' in $PARAM_VARIANTS" }
+            }
+            return names.distinct().map { SnapshotVariant(it, pluginParameters) }
+        }
+    }
+}
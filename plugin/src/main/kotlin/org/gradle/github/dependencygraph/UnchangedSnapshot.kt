@@ -0,0 +1,205 @@
+package org.gradle.github.dependencygraph
+
+import com.fasterxml.jackson.databind.node.ObjectNode
+import org.gradle.api.initialization.ProjectDescriptor
+import org.gradle.api.initialization.Settings
+import org.gradle.api.logging.Logging
+import org.gradle.api.plugins.ExtensionAware
+import org.gradle.dependencygraph.extractor.DEFAULT_REPORT_DIR
+import org.gradle.dependencygraph.extractor.PARAM_REPORT_DIR
+import org.gradle.dependencygraph.extractor.ResolutionInputs
+import org.gradle.dependencygraph.util.JacksonJsonReader
+import org.gradle.dependencygraph.util.JacksonJsonSerializer
+import org.gradle.dependencygraph.util.OutputEncoding
+import org.gradle.dependencygraph.util.PluginParameters
+import org.gradle.dependencygraph.util.rootGradle
+import org.gradle.forceresolve.RESOLVE_ALL_TASK
+import org.gradle.forceresolve.RESOLVE_RUNTIME_TASK
+import org.gradle.github.dependencygraph.model.GitHubDetector
+import org.gradle.github.dependencygraph.model.GitHubJob
+import org.gradle.github.dependencygraph.model.GitHubRepositorySnapshot
+import org.gradle.github.dependencygraph.submit.SnapshotSubmitter
+import java.io.File
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+
+// Parameters that identify the job submitting a snapshot, or compare it with a previous one, rather than influencing its content
+private val JOB_PARAMETERS = listOf(
+    PARAM_JOB_ID,
+    PARAM_PREVIOUS_DIGEST,
+    PARAM_SUBMIT_URL,
+    PARAM_SUBMIT_TOKEN,
+    PARAM_SUBMIT_CONCURRENCY,
+    PARAM_GITHUB_REF,
+    PARAM_GITHUB_SHA,
+    PARAM_GITHUB_DETECTOR_NAME,
+    PARAM_GITHUB_DETECTOR_VERSION,
+    PARAM_GITHUB_DETECTOR_URL
+)
+
+// Tasks that only resolve dependencies, so that the build has nothing else to do when the previous snapshot is reused
+private val DEPENDENCY_RESOLUTION_TASKS = setOf(RESOLVE_ALL_TASK, RESOLVE_RUNTIME_TASK)
+
+/**
+ * Reuses the previous snapshot when none of the inputs that determine the dependency graph have changed.
+ *
+ * The fingerprint is computed from files on disk as soon as the settings are evaluated, before any project is configured.
+ * The snapshot is only reused when the build was invoked to resolve dependencies, since no project is configured in that case,
+ * and only for builds without included builds, since the fingerprint only covers the root build.
+ * It is held as a pending fingerprint during the build, and is only stored alongside the snapshot once a complete snapshot is written.
+ */
+object UnchangedSnapshot {
+    private val LOGGER = Logging.getLogger(UnchangedSnapshot::class.java)
+
+    // A build file name that never exists, so that projects are created without evaluating any build script
+    private const val SKIPPED_BUILD_FILE = "dependency-graph-unchanged-inputs.skipped"
+    private const val PENDING_FINGERPRINT_PROPERTY = "githubDependencyGraphPendingFingerprint"
+
+    /**
+     * Stores the pending fingerprint alongside a complete snapshot, or discards it when the snapshot cannot be reused.
+     */
+    fun storeFingerprint(snapshotFile: File, complete: Boolean) {
+        val fingerprintFile = fingerprintFile(snapshotFile)
+        val pendingFile = pendingFingerprintFile(snapshotFile)
+        if (complete && pendingFile.isFile) {
+            Files.move(pendingFile.toPath(), fingerprintFile.toPath(), StandardCopyOption.REPLACE_EXISTING)
+        } else {
+            pendingFile.delete()
+            fingerprintFile.delete()
+        }
+    }
+
+    /**
+     * Writes the previous snapshot again for the current job if the inputs are unchanged, returning `true` if it was reused.
+     */
+    fun reuse(settings: Settings, pluginParameters: PluginParameters): Boolean {
+        if (SnapshotVariant.load(pluginParameters).isNotEmpty()) {
+            LOGGER.lifecycle("Cannot reuse the previous dependency snapshot when snapshot variants are configured")
+            return false
+        }
+        if (pluginParameters.loadOptional(PARAM_SPLIT_BY) != null) {
+            LOGGER.lifecycle("Cannot reuse the previous dependency snapshot when the snapshot is split")
+            return false
+        }
+        val taskNames = settings.startParameter.taskNames
+        if (taskNames.isEmpty() || !taskNames.all { DEPENDENCY_RESOLUTION_TASKS.contains(it.removePrefix(":")) }) {
+            LOGGER.lifecycle("Cannot reuse the previous dependency snapshot when other tasks are requested: resolving dependencies")
+            return false
+        }
+        if (settings.startParameter.includedBuilds.isNotEmpty()) {
+            LOGGER.lifecycle("Cannot reuse the previous dependency snapshot when builds are included: resolving dependencies")
+            return false
+        }
+        val snapshotParams = GitHubSnapshotParams(pluginParameters)
+        val reportDir = pluginParameters.loadOptional(PARAM_REPORT_DIR)?.let { File(it) }
+            ?: File(settings.rootDir, "build/$DEFAULT_REPORT_DIR")
+        val encoding = OutputEncoding.load(pluginParameters)
+        val snapshotFile = encoding.file(reportDir, snapshotParams.dependencyGraphJobCorrelator)
+        val fingerprintFile = fingerprintFile(snapshotFile)
+        val fingerprint = fingerprint(settings, pluginParameters)
+        if (!snapshotFile.isFile || !fingerprintFile.isFile) {
+            LOGGER.lifecycle("No previous dependency snapshot with an inputs fingerprint found in ${reportDir.path}")
+            writePendingFingerprint(settings, snapshotFile, fingerprint)
+            return false
+        }
+        if (fingerprintFile.readText() != fingerprint) {
+            LOGGER.lifecycle("Dependency inputs have changed since the previous snapshot: resolving dependencies")
+            writePendingFingerprint(settings, snapshotFile, fingerprint)
+            return false
+        }
+
+        writeForCurrentJob(snapshotFile, encoding, snapshotParams, pluginParameters)
+        skipProjectConfiguration(settings)
+        LOGGER.lifecycle("Dependency inputs are unchanged: reused the previous dependency snapshot at ${snapshotFile.canonicalPath}")
+        return true
+    }
+
+    private fun fingerprint(settings: Settings, pluginParameters: PluginParameters): String {
+        val parameters = pluginParameters.loadAll("DEPENDENCY_GRAPH_") + pluginParameters.loadAll("GITHUB_DEPENDENCY_GRAPH_")
+        val pluginVersion = UnchangedSnapshot::class.java.`package`.implementationVersion ?: "unknown"
+        // The Gradle user home may be located inside the build, and is never an input other than its init scripts and properties
+        val gradleUserHomeDir = settings.gradle.gradleUserHomeDir.absoluteFile
+        val additionalFiles = settings.startParameter.allInitScripts + File(gradleUserHomeDir, "gradle.properties")
+        return ResolutionInputs.buildTreeFingerprint(
+            listOf(settings.rootDir.absoluteFile),
+            setOf(gradleUserHomeDir),
+            additionalFiles,
+            parameters - JOB_PARAMETERS + ("plugin-version" to pluginVersion)
+        )
+    }
+
+    private fun writePendingFingerprint(settings: Settings, snapshotFile: File, fingerprint: String) {
+        snapshotFile.parentFile.mkdirs()
+        val pendingFile = pendingFingerprintFile(snapshotFile)
+        pendingFile.writeText(fingerprint)
+        (settings.gradle as ExtensionAware).extensions.extraProperties.set(PENDING_FINGERPRINT_PROPERTY, PendingFingerprint(pendingFile, settings.rootDir))
+    }
+
+    /**
+     * Discards the pending fingerprint when a nested build is loaded, since the fingerprint only covers the root build and its build logic.
+     */
+    fun discardPendingFingerprint(settings: Settings) {
+        val extraProperties = (settings.gradle.rootGradle() as ExtensionAware).extensions.extraProperties
+        if (!extraProperties.has(PENDING_FINGERPRINT_PROPERTY)) {
+            return
+        }
+        val pending = extraProperties.get(PENDING_FINGERPRINT_PROPERTY) as PendingFingerprint
+        if (!ResolutionInputs.isBuildLogicDir(pending.buildRootDir, settings.rootDir)) {
+            LOGGER.info("The build includes ${settings.rootDir}: the dependency snapshot will not be reused by later builds")
+            pending.file.delete()
+        }
+    }
+
+    private class PendingFingerprint(val file: File, val buildRootDir: File)
+
+    private fun fingerprintFile(snapshotFile: File): File {
+        return File(snapshotFile.parentFile, snapshotBaseName(snapshotFile) + ".inputs-fingerprint")
+    }
+
+    private fun pendingFingerprintFile(snapshotFile: File): File {
+        return File(snapshotFile.parentFile, snapshotBaseName(snapshotFile) + ".inputs-fingerprint.pending")
+    }
+
+    private fun snapshotBaseName(snapshotFile: File): String {
+        return snapshotFile.name.removeSuffix(".gz").removeSuffix(".json")
+    }
+
+    /**
+     * Prevents every project in the build from evaluating its build script.
+     */
+    fun skipProjectConfiguration(settings: Settings) {
+        skipProjectConfiguration(settings.rootProject)
+    }
+
+    private fun skipProjectConfiguration(project: ProjectDescriptor) {
+        project.buildFileName = SKIPPED_BUILD_FILE
+        project.children.forEach { skipProjectConfiguration(it) }
+    }
+
+    private fun writeForCurrentJob(
+        snapshotFile: File,
+        encoding: OutputEncoding,
+        snapshotParams: GitHubSnapshotParams,
+        pluginParameters: PluginParameters
+    ) {
+        val previous = JacksonJsonReader.readTree(snapshotFile)
+        val current = GitHubRepositorySnapshot(
+            job = GitHubJob(snapshotParams.dependencyGraphJobId, snapshotParams.dependencyGraphJobCorrelator),
+            sha = snapshotParams.gitSha,
+            ref = snapshotParams.gitRef,
+            detector = GitHubDetector(snapshotParams.githubDetectorName, snapshotParams.githubDetectorVersion, snapshotParams.githubDetectorUrl),
+            manifests = emptyMap()
+        )
+        val snapshot = JacksonJsonReader.readTree(JacksonJsonSerializer.serializeToJson(current)) as ObjectNode
+        snapshot.replace("manifests", previous.path("manifests"))
+        encoding.write(snapshot, snapshotFile)
+
+        GitHubStepOutput.write("dependency-graph-file", snapshotFile.absolutePath)
+        // The manifests are unchanged, so the digest written with the previous snapshot still applies
+        SnapshotDigest.read(snapshotFile)?.let { SnapshotDigest.writeStepOutputs(pluginParameters, it) }
+        SnapshotSubmitter.create(pluginParameters)?.use {
+            it.submit(snapshotParams.dependencyGraphJobCorrelator, snapshot)
+            it.await()
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.gradle.github.dependencygraph.diff
+
+import org.gradle.dependencygraph.util.OutputEncoding
+import java.io.File
+import kotlin.system.exitProcess
+
+/**
+ * Compares two dependency snapshots, or two dependency graph extractions written with `DEPENDENCY_GRAPH_PERSIST_EXTRACTION`,
+ * printing each added, removed and changed package.
+ *
+ * Usage: `DiffDependencySnapshots <before-file> <after-file> [<output-file>]`
+ *
+ * When an output file is given, the changes are also written to it as newline-delimited JSON, compressed when the file name ends with `.gz`.
+ */
+object DiffDependencySnapshots {
+
+    @JvmStatic
+    fun main(args: Array<String>) {
+        if (args.size !in 2..3) {
+            System.err.println("Usage: DiffDependencySnapshots <before-file> <after-file> [<output-file>]")
+            exitProcess(2)
+        }
+        val before = File(args[0])
+        val after = File(args[1])
+        for (file in listOf(before, after)) {
+            if (!file.isFile) {
+                System.err.println("Dependency snapshot not found: ${file.path}")
+                exitProcess(2)
+            }
+        }
+        val outputFile = args.getOrNull(2)?.let { File(it) }
+        val summary = if (outputFile == null) {
+            SnapshotDiff.diff(before, after) { println(it.describe()) }
+        } else {
+            writeChanges(before, after, outputFile)
+        }
+        println("Dependency changes: $summary")
+    }
+
+    private fun writeChanges(before: File, after: File, outputFile: File): DiffSummary {
+        val encoding = OutputEncoding.forFile(outputFile)
+        val summary = DiffSummary()
+        SnapshotDiff.withChanges(before, after) { changes ->
+            encoding.writeLines(changes.onEach { summary.add(it); println(it.describe()) }, outputFile)
+        }
+        return summary
+    }
+}
@@ -0,0 +1,166 @@
+package org.gradle.github.dependencygraph.diff
+
+import com.fasterxml.jackson.annotation.JsonProperty
+import com.fasterxml.jackson.annotation.JsonPropertyOrder
+import org.gradle.github.dependencygraph.SnapshotPackage
+import org.gradle.github.dependencygraph.SnapshotPackages
+import org.gradle.github.dependencygraph.model.GitHubDependency
+import java.io.File
+
+/**
+ * A package that was added, removed or changed between two snapshots, with each resolved version before and after the change.
+ * A package is changed when its versions, package URLs, relationships or scopes differ.
+ */
+@JsonPropertyOrder("change", "package", "before", "after")
+data class DependencyChange(
+    val change: Type,
+    @get:JsonProperty("package")
+    val packageName: String,
+    val before: List<PackageVersion>,
+    val after: List<PackageVersion>
+) {
+    enum class Type {
+        added, removed, changed
+    }
+
+    fun describe(): String {
+        return when (change) {
+            Type.added -> "+ $packageName ${describe(after)}"
+            Type.removed -> "- $packageName ${describe(before)}"
+            Type.changed -> "~ $packageName ${describe(before)} -> ${describe(after)}"
+        }
+    }
+
+    private fun describe(versions: List<PackageVersion>): String {
+        return versions.joinToString(", ") { "${it.version} (${it.relationship}, ${it.scope ?: "unknown"})" }
+    }
+}
+
+data class PackageVersion(
+    val version: String,
+    val package_url: String,
+    val relationship: GitHubDependency.Relationship,
+    val scope: GitHubDependency.Scope?
+)
+
+class DiffSummary {
+    var added = 0
+        private set
+    var removed = 0
+        private set
+    var changed = 0
+        private set
+
+    fun add(change: DependencyChange) {
+        when (change.change) {
+            DependencyChange.Type.added -> added++
+            DependencyChange.Type.removed -> removed++
+            DependencyChange.Type.changed -> changed++
+        }
+    }
+
+    override fun toString(): String {
+        return "$added added, $removed removed, $changed changed"
+    }
+}
+
+/**
+ * Compares the packages of two snapshots or persisted extractions, by streaming both in ID order.
+ *
+ * The versions of a package are adjacent in ID order, so only the versions of the current package
+ * are held in memory from each side, and each change is produced as soon as it is found.
+ */
+object SnapshotDiff {
+
+    fun diff(before: File, after: File, action: (DependencyChange) -> Unit): DiffSummary {
+        val summary = DiffSummary()
+        withChanges(before, after) { changes ->
+            for (change in changes) {
+                summary.add(change)
+                action(change)
+            }
+        }
+        return summary
+    }
+
+    /**
+     * Runs the action with the lazily computed changes, which can only be consumed within the action.
+     */
+    fun <T> withChanges(before: File, after: File, action: (Sequence<DependencyChange>) -> T): T {
+        SnapshotPackages.open(before).use { beforePackages ->
+            SnapshotPackages.open(after).use { afterPackages ->
+                return action(changes(beforePackages, afterPackages))
+            }
+        }
+    }
+
+    /**
+     * Merges the two ordered package streams, grouping the versions of each package.
+     */
+    fun changes(before: Iterator<SnapshotPackage>, after: Iterator<SnapshotPackage>): Sequence<DependencyChange> = sequence {
+        val beforeGroups = PackageGroups(before)
+        val afterGroups = PackageGroups(after)
+        var beforeGroup = beforeGroups.next()
+        var afterGroup = afterGroups.next()
+        while (beforeGroup != null || afterGroup != null) {
+            val comparison = when {
+                beforeGroup == null -> 1
+                afterGroup == null -> -1
+                else -> compareNames(beforeGroup.first().name, afterGroup.first().name)
+            }
+            when {
+                comparison < 0 -> {
+                    yield(change(DependencyChange.Type.removed, beforeGroup!!, emptyList()))
+                    beforeGroup = beforeGroups.next()
+                }
+                comparison > 0 -> {
+                    yield(change(DependencyChange.Type.added, emptyList(), afterGroup!!))
+                    afterGroup = afterGroups.next()
+                }
+                else -> {
+                    val beforeVersions = versions(beforeGroup!!)
+                    val afterVersions = versions(afterGroup!!)
+                    if (beforeVersions != afterVersions) {
+                        yield(DependencyChange(DependencyChange.Type.changed, beforeGroup.first().name, beforeVersions, afterVersions))
+                    }
+                    beforeGroup = beforeGroups.next()
+                    afterGroup = afterGroups.next()
+                }
+            }
+        }
+    }
+
+    /**
+     * Orders package names as their IDs are ordered: every ID of a package starts with the package name followed by ':'.
+     */
+    private fun compareNames(name: String, otherName: String): Int {
+        return "$name:".compareTo("$otherName:")
+    }
+
+    private fun change(type: DependencyChange.Type, before: List<SnapshotPackage>, after: List<SnapshotPackage>): DependencyChange {
+        return DependencyChange(type, (before + after).first().name, versions(before), versions(after))
+    }
+
+    private fun versions(packages: List<SnapshotPackage>): List<PackageVersion> {
+        return packages.map { PackageVersion(it.version, it.packageUrl, it.relationship, it.scope) }
+    }
+
+    private class PackageGroups(private val packages: Iterator<SnapshotPackage>) {
+        private var pending: SnapshotPackage? = null
+
+        fun next(): List<SnapshotPackage>? {
+            val first = pending ?: (if (packages.hasNext()) packages.next() else return null)
+            pending = null
+            val group = mutableListOf(first)
+            while (packages.hasNext()) {
+                val candidate = packages.next()
+                if (candidate.name != first.name) {
+                    pending = candidate
+                    break
+                }
+                group.add(candidate)
+            }
+            return group
+        }
+    }
+}
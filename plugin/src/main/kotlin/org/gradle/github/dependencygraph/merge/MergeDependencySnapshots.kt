@@ -0,0 +1,33 @@
+package org.gradle.github.dependencygraph.merge
+
+import org.gradle.dependencygraph.util.OutputEncoding
+import java.io.File
+import kotlin.system.exitProcess
+
+/**
+ * Merges the dependency snapshots written by several jobs, such as the jobs of a CI matrix, into a single snapshot with one manifest.
+ *
+ * Usage: `MergeDependencySnapshots <output-file> <correlator> <snapshot-file>...`
+ *
+ * The output file is compressed when its name ends with `.gz`. The correlator is used as the job correlator and manifest name of the merged snapshot.
+ */
+object MergeDependencySnapshots {
+
+    @JvmStatic
+    fun main(args: Array<String>) {
+        if (args.size < 3) {
+            System.err.println("Usage: MergeDependencySnapshots <output-file> <correlator> <snapshot-file>...")
+            exitProcess(2)
+        }
+        val outputFile = File(args[0])
+        val inputs = args.drop(2).map { File(it) }
+        for (input in inputs) {
+            if (!input.isFile) {
+                System.err.println("Dependency snapshot not found: ${input.path}")
+                exitProcess(2)
+            }
+        }
+        val summary = SnapshotMerger.merge(inputs, args[1], outputFile, OutputEncoding.forFile(outputFile))
+        println("$summary to ${outputFile.path}")
+    }
+}
@@ -0,0 +1,256 @@
+package org.gradle.github.dependencygraph.merge
+
+import com.fasterxml.jackson.core.JsonGenerator
+import com.fasterxml.jackson.core.JsonToken
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.json.JsonMapper
+import org.gradle.dependencygraph.util.OutputEncoding
+import org.gradle.github.dependencygraph.SnapshotPackage
+import org.gradle.github.dependencygraph.SnapshotPackages
+import org.gradle.github.dependencygraph.model.GitHubRepositorySnapshot
+import java.io.Closeable
+import java.io.File
+import java.io.InputStream
+import java.util.PriorityQueue
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPInputStream
+
+/**
+ * Merges dependency snapshots into a single snapshot with one manifest, with a streaming k-way merge in component ID order.
+ *
+ * Each input is parsed on its own thread, ahead of the merge, into a bounded buffer of packages.
+ * Packages with the same ID are merged with the same relationship, scope and dependency rules as the dependency snapshot,
+ * and written as soon as every input has moved past their ID, so memory is bounded by the buffers rather than by the size of the inputs.
+ * Each input is read by [SnapshotPackages], which merges its manifests from temporary files, and only holds a manifest in memory to sort it.
+ *
+ * The job ID, sha, ref and detector are taken from the first input. The manifest file is the first manifest file of any input,
+ * and the merged snapshot is partial if any input is partial.
+ */
+object SnapshotMerger {
+    // The number of packages parsed ahead of the merge for each input
+    private const val PREFETCH_SIZE = 256
+    private val HEADER_FIELDS = listOf("job", "sha", "ref", "detector")
+    private val mapper = JsonMapper.builder().build()
+
+    class MergeSummary(val inputs: Int, val packages: Int, val output: String) {
+        override fun toString(): String {
+            return "Merged $inputs snapshots into $packages packages ($output)"
+        }
+    }
+
+    fun merge(inputs: List<File>, correlator: String, outputFile: File, encoding: OutputEncoding): MergeSummary {
+        require(inputs.isNotEmpty()) { "At least one dependency snapshot must be merged" }
+        val header = readHeader(inputs.first())
+        var packageCount = 0
+        val sources = inputs.mapIndexed { index, file -> PrefetchedPackages(file, "dependency-snapshot-merge-${index + 1}") }
+        try {
+            val summary = encoding.writeStream(outputFile) { output ->
+                mapper.factory.createGenerator(output).use { json ->
+                    json.writeStartObject()
+                    json.writeNumberField("version", 0)
+                    json.writeObjectFieldStart("job")
+                    json.writeStringField("id", header["job"]?.path("id")?.asText())
+                    json.writeStringField("correlator", correlator)
+                    json.writeEndObject()
+                    header["sha"]?.let { json.writeFieldName("sha"); json.writeTree(it) }
+                    header["ref"]?.let { json.writeFieldName("ref"); json.writeTree(it) }
+                    header["detector"]?.let { json.writeFieldName("detector"); json.writeTree(it) }
+
+                    json.writeObjectFieldStart("manifests")
+                    json.writeObjectFieldStart(correlator)
+                    json.writeStringField("name", correlator)
+                    json.writeObjectFieldStart("resolved")
+                    packageCount = mergePackages(sources) { writePackage(json, it) }
+                    json.writeEndObject()
+                    writeManifestFields(json, sources.map { it.manifests })
+                    json.writeEndObject()
+                    json.writeEndObject()
+
+                    json.writeStringField("scanned", GitHubRepositorySnapshot.scannedTime())
+                    json.writeEndObject()
+                }
+            }
+            return MergeSummary(inputs.size, packageCount, summary)
+        } finally {
+            sources.forEach { it.close() }
+        }
+    }
+
+    /**
+     * Repeatedly takes the lowest ID at the head of any input, merging it with the same ID at the head of the other inputs.
+     */
+    private fun mergePackages(sources: List<PrefetchedPackages>, action: (SnapshotPackage) -> Unit): Int {
+        val heads = PriorityQueue<Head>(maxOf(1, sources.size), compareBy { it.snapshotPackage.id })
+        for (source in sources) {
+            source.next()?.let { heads.add(Head(it, source)) }
+        }
+        var count = 0
+        while (heads.isNotEmpty()) {
+            val head = heads.poll()
+            var merged = head.snapshotPackage
+            advance(heads, head.source)
+            while (heads.isNotEmpty() && heads.peek().snapshotPackage.id == merged.id) {
+                val other = heads.poll()
+                merged = merged.merge(other.snapshotPackage)
+                advance(heads, other.source)
+            }
+            action(merged)
+            count++
+        }
+        return count
+    }
+
+    private fun advance(heads: PriorityQueue<Head>, source: PrefetchedPackages) {
+        source.next()?.let { heads.add(Head(it, source)) }
+    }
+
+    private class Head(val snapshotPackage: SnapshotPackage, val source: PrefetchedPackages)
+
+    private fun writePackage(json: JsonGenerator, snapshotPackage: SnapshotPackage) {
+        json.writeObjectFieldStart(snapshotPackage.id)
+        json.writeStringField("package_url", snapshotPackage.packageUrl)
+        json.writeStringField("relationship", snapshotPackage.relationship.name)
+        snapshotPackage.scope?.let { json.writeStringField("scope", it.name) }
+        json.writeArrayFieldStart("dependencies")
+        snapshotPackage.dependencies.forEach { json.writeString(it) }
+        json.writeEndArray()
+        json.writeEndObject()
+    }
+
+    /**
+     * Writes the first manifest file of any input, and the metadata of every input. The merged snapshot is partial
+     * if any input is partial, and lists the unresolved configurations of every input. Other metadata values are taken from the first input.
+     */
+    private fun writeManifestFields(json: JsonGenerator, inputManifests: List<Map<String, Map<String, JsonNode>>>) {
+        val manifests = inputManifests.flatMap { it.values }
+        manifests.mapNotNull { it["file"] }.firstOrNull { !it.isNull }?.let {
+            json.writeFieldName("file")
+            json.writeTree(it)
+        }
+
+        val metadata = linkedMapOf<String, JsonNode>()
+        var partial = false
+        val unresolved = mutableListOf<String>()
+        for (manifestMetadata in manifests.mapNotNull { it["metadata"] }) {
+            for ((name, value) in manifestMetadata.fields()) {
+                when (name) {
+                    "partial" -> partial = partial || value.asBoolean()
+                    "unresolved" -> unresolved.add(value.asText())
+                    else -> if (!metadata.containsKey(name)) metadata[name] = value
+                }
+            }
+        }
+        if (!partial && metadata.isEmpty()) {
+            return
+        }
+        json.writeObjectFieldStart("metadata")
+        if (partial) {
+            json.writeBooleanField("partial", true)
+        }
+        if (unresolved.isNotEmpty()) {
+            json.writeStringField("unresolved", unresolved.distinct().joinToString(", "))
+        }
+        for ((name, value) in metadata) {
+            json.writeFieldName(name)
+            json.writeTree(value)
+        }
+        json.writeEndObject()
+    }
+
+    /**
+     * Reads the top-level fields that identify the job, stopping as soon as they have been read.
+     */
+    private fun readHeader(file: File): Map<String, JsonNode> {
+        val header = linkedMapOf<String, JsonNode>()
+        mapper.factory.createParser(openInput(file)).use { parser ->
+            check(parser.nextToken() == JsonToken.START_OBJECT) { "Not a dependency snapshot: ${file.path}" }
+            while (header.size < HEADER_FIELDS.size && parser.nextToken() == JsonToken.FIELD_NAME) {
+                val name = parser.currentName
+                parser.nextToken()
+                if (HEADER_FIELDS.contains(name)) {
+                    header[name] = parser.readValueAsTree()
+                } else {
+                    parser.skipChildren()
+                }
+            }
+        }
+        return header
+    }
+
+    private fun openInput(file: File): InputStream {
+        val input = file.inputStream().buffered()
+        return if (file.name.endsWith(".gz")) GZIPInputStream(input) else input
+    }
+
+    /**
+     * The packages of an input, parsed on a dedicated thread into a bounded buffer.
+     */
+    private class PrefetchedPackages(private val file: File, threadName: String) : Closeable {
+        private val buffer = ArrayBlockingQueue<Any>(PREFETCH_SIZE)
+        @Volatile
+        private var closed = false
+        private var finished = false
+
+        // Only read once every package has been taken from the buffer
+        var manifests: Map<String, Map<String, JsonNode>> = emptyMap()
+            private set
+
+        init {
+            Thread({ produce() }, threadName).apply {
+                isDaemon = true
+                start()
+            }
+        }
+
+        private fun produce() {
+            try {
+                SnapshotPackages.open(file, withDependencies = true).use { packages ->
+                    for (snapshotPackage in packages) {
+                        if (!put(snapshotPackage)) return
+                    }
+                    manifests = packages.manifests
+                }
+                put(END)
+            } catch (e: Throwable) {
+                put(Failure(e))
+            }
+        }
+
+        private fun put(item: Any): Boolean {
+            while (!closed) {
+                if (buffer.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    return true
+                }
+            }
+            return false
+        }
+
+        fun next(): SnapshotPackage? {
+            if (finished) {
+                return null
+            }
+            val item = buffer.take()
+            if (item is Failure) {
+                finished = true
+                throw IllegalStateException("Failed to read dependency snapshot ${file.path}", item.cause)
+            }
+            if (item === END) {
+                finished = true
+                return null
+            }
+            return item as SnapshotPackage
+        }
+
+        override fun close() {
+            closed = true
+            buffer.clear()
+        }
+
+        private class Failure(val cause: Throwable)
+
+        companion object {
+            private val END = Any()
+        }
+    }
+}
@@ -12,4 +12,21 @@ data class GitHubDependency(
     enum class Scope {
         runtime, development
     }
+
+    companion object {
+        /**
+         * A direct relationship trumps an indirect one.
+         */
+        fun mergeRelationship(relationship: Relationship, newRelationship: Relationship): Relationship {
+            return if (relationship == Relationship.direct) relationship else newRelationship
+        }
+
+        /**
+         * A runtime scope trumps a development scope, which trumps an unknown scope.
+         */
+        fun mergeScope(scope: Scope?, newScope: Scope?): Scope? {
+            if (newScope == null) return scope
+            return if (scope == null || scope == Scope.development) newScope else scope
+        }
+    }
 }
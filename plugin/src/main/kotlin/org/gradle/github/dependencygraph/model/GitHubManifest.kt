@@ -3,5 +3,6 @@ package org.gradle.github.dependencygraph.model
 data class GitHubManifest(
     val name: String,
     val resolved: Map<String, GitHubDependency>,
-    val file: GitHubManifestFile?
+    val file: GitHubManifestFile?,
+    val metadata: Map<String, Any>? = null
 )
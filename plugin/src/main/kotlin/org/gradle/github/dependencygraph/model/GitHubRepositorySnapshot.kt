@@ -14,7 +14,7 @@ data class GitHubRepositorySnapshot(
     val scanned: String = scannedTime()
 ) {
     companion object {
-        private fun scannedTime(): String {
+        internal fun scannedTime(): String {
             val tz = TimeZone.getTimeZone("UTC")
             val df: DateFormat =
                 SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssXXX")
@@ -0,0 +1,186 @@
+package org.gradle.github.dependencygraph.split
+
+import org.gradle.api.logging.Logging
+import org.gradle.dependencygraph.model.BuildLayout
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.util.PluginParameters
+import org.gradle.github.dependencygraph.PARAM_SPLIT_BY
+import org.gradle.github.dependencygraph.PARAM_SPLIT_MAX_BYTES
+import java.io.File
+
+enum class SplitMode(val parameterValue: String) {
+    // A snapshot for each project
+    Project("project"),
+    // A snapshot for each build in the build tree
+    Build("build"),
+    // Projects in order of path, packed into snapshots up to the size target
+    Size("size");
+
+    companion object {
+        fun load(pluginParameters: PluginParameters): SplitMode? {
+            val value = pluginParameters.loadOptional(PARAM_SPLIT_BY) ?: return null
+            return values().find { it.parameterValue.equals(value.trim(), ignoreCase = true) }
+                ?: throw IllegalStateException(
+                    "Invalid value '$value' for $PARAM_SPLIT_BY: expected one of ${values().joinToString { it.parameterValue }}"
+                )
+        }
+    }
+}
+
+/**
+ * A part of a split dependency graph, rendered as a snapshot with the correlator suffixed by the key.
+ * The source file is the build file or settings file that the part is reported against, if known.
+ */
+class SnapshotPart(val key: String, val sourceFile: File?, val configurations: List<ResolvedConfiguration>)
+
+/**
+ * Splits the configurations of a dependency graph into parts, to be rendered as separate snapshots that are each small enough to submit.
+ *
+ * Parts are produced lazily, in a single pass over the configurations in canonical order, so that each snapshot
+ * can be written and released before the next part is computed. A part always contains every configuration of a project,
+ * unless the project alone exceeds the size target, so each part contains the full dependency closure of its configurations.
+ * The keys are derived from the project or build path, or from the position of the part, so the same graph is always split the same way.
+ */
+class SnapshotSplit(val mode: SplitMode, private val maxBytes: Long?) {
+
+    /**
+     * Returns the parts of the dependency graph. In `size` mode, the size of each part is estimated from an upper bound of
+     * the compact JSON size of its packages, added to the size of the snapshot without packages.
+     */
+    fun parts(resolvedConfigurations: List<ResolvedConfiguration>, buildLayout: BuildLayout, emptySnapshotBytes: Long): Sequence<SnapshotPart> {
+        val configurations = resolvedConfigurations.sortedWith(ResolvedConfiguration.CANONICAL_ORDER)
+        return when (mode) {
+            SplitMode.Project -> keyedParts(configurations.groupBy { it.rootOrigin.path }) { projectPath ->
+                buildLayout.getBuildFile(projectPath)?.takeIf { it.isFile }
+            }
+            SplitMode.Build -> keyedParts(configurations.groupBy { buildLayout.getBuildPath(it.rootOrigin.path) }) { buildPath ->
+                buildLayout.getSettingsFiles()[buildPath]?.let { File(it) }?.takeIf { it.isFile }
+                    ?: buildLayout.getBuildFile(buildPath)?.takeIf { it.isFile }
+            }
+            SplitMode.Size -> sizedParts(configurations, emptySnapshotBytes)
+        }
+    }
+
+    private fun keyedParts(groups: Map<String, List<ResolvedConfiguration>>, sourceFile: (String) -> File?): Sequence<SnapshotPart> {
+        val usedKeys = mutableSetOf<String>()
+        return groups.keys.sorted().asSequence().map { path ->
+            SnapshotPart(uniqueKey(pathKey(path), usedKeys), sourceFile(path), groups.getValue(path))
+        }
+    }
+
+    private fun sizedParts(configurations: List<ResolvedConfiguration>, emptySnapshotBytes: Long): Sequence<SnapshotPart> = sequence {
+        val targetBytes = maxBytes ?: throw IllegalStateException("$PARAM_SPLIT_MAX_BYTES must be set to split by size")
+        val projects = configurations.groupBy { it.rootOrigin.path }
+        var part = PartSize(emptySnapshotBytes)
+        var partNumber = 0
+        val pending = mutableListOf<ResolvedConfiguration>()
+
+        // A project that does not fit in an empty part is split into its configurations
+        val units = projects.keys.sorted().asSequence().flatMap { projectPath ->
+            val projectConfigurations = projects.getValue(projectPath)
+            if (PartSize(emptySnapshotBytes).sizeWith(projectConfigurations) > targetBytes) {
+                projectConfigurations.asSequence().map { listOf(it) }
+            } else {
+                sequenceOf(projectConfigurations)
+            }
+        }
+        for (unit in units) {
+            if (part.sizeWith(unit) > targetBytes && pending.isNotEmpty()) {
+                partNumber++
+                yield(SnapshotPart("part-$partNumber", null, pending.toList()))
+                pending.clear()
+                part = PartSize(emptySnapshotBytes)
+            }
+            val size = part.add(unit)
+            if (size > targetBytes) {
+                LOGGER.warn(
+                    "Configuration ${unit.joinToString { "${it.rootOrigin.path} ${it.configurationName}" }} alone exceeds " +
+                        "the snapshot size target of $targetBytes bytes: an estimated $size bytes"
+                )
+            }
+            pending.addAll(unit)
+        }
+        if (pending.isNotEmpty()) {
+            partNumber++
+            yield(SnapshotPart("part-$partNumber", null, pending.toList()))
+        }
+    }
+
+    /**
+     * An upper bound of the size of a part: each package is counted with the longest relationship and scope values,
+     * and with every dependency ID that it has in any configuration of the part.
+     */
+    private class PartSize(private var bytes: Long) {
+        private val packageDependencies = HashMap<String, MutableSet<String>>()
+
+        /**
+         * Returns the size of the part with the configurations added, without adding them.
+         */
+        fun sizeWith(configurations: List<ResolvedConfiguration>): Long = grow(configurations, false)
+
+        fun add(configurations: List<ResolvedConfiguration>): Long = grow(configurations, true)
+
+        private fun grow(configurations: List<ResolvedConfiguration>, commit: Boolean): Long {
+            var size = bytes
+            val added = HashMap<String, MutableSet<String>>()
+            for (configuration in configurations) {
+                for (dependency in configuration.allDependencies) {
+                    if (dependency.isProject) continue
+                    val existing = packageDependencies[dependency.id]
+                    val addedDependencies = added.getOrPut(dependency.id) {
+                        if (existing == null) {
+                            size += utf8Length(dependency.id) + utf8Length(dependency.packageUrl()) + PACKAGE_BYTES
+                        }
+                        HashSet()
+                    }
+                    for (dependencyId in dependency.dependencies) {
+                        if (existing?.contains(dependencyId) != true && addedDependencies.add(dependencyId)) {
+                            size += utf8Length(dependencyId) + DEPENDENCY_BYTES
+                        }
+                    }
+                }
+            }
+            if (commit) {
+                added.forEach { (id, dependencies) -> packageDependencies.getOrPut(id) { HashSet() }.addAll(dependencies) }
+                bytes = size
+            }
+            return size
+        }
+
+        private fun utf8Length(value: String): Int = value.toByteArray(Charsets.UTF_8).size
+    }
+
+    companion object {
+        private val LOGGER = Logging.getLogger(SnapshotSplit::class.java)
+
+        // The JSON around each package: `"":{"package_url":"","relationship":"indirect","scope":"development","dependencies":[]},`
+        private const val PACKAGE_BYTES = 88
+        // The JSON around each dependency ID: `"",`
+        private const val DEPENDENCY_BYTES = 3
+
+        fun load(pluginParameters: PluginParameters): SnapshotSplit? {
+            val mode = SplitMode.load(pluginParameters) ?: return null
+            val maxBytes = pluginParameters.loadOptionalLong(PARAM_SPLIT_MAX_BYTES, 1)
+            check(mode != SplitMode.Size || maxBytes != null) { "$PARAM_SPLIT_MAX_BYTES must be set to split by size" }
+            return SnapshotSplit(mode, maxBytes)
+        }
+
+        /**
+         * A key for a project or build path that can be used in a correlator and a file name: `:app:core` becomes `app_core`.
+         */
+        private fun pathKey(path: String): String {
+            if (path == ":") return "root"
+            return path.removePrefix(":").replace(':', '_').replace(Regex("[^A-Za-z0-9._-]"), "-")
+        }
+
+        private fun uniqueKey(key: String, usedKeys: MutableSet<String>): String {
+            var uniqueKey = key
+            var index = 1
+            while (!usedKeys.add(uniqueKey)) {
+                index++
+                uniqueKey = "$key-$index"
+            }
+            return uniqueKey
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.gradle.github.dependencygraph.submit
+
+import org.gradle.api.logging.Logging
+import org.gradle.dependencygraph.util.JacksonJsonSerializer
+import org.gradle.dependencygraph.util.PluginParameters
+import org.gradle.github.dependencygraph.PARAM_SUBMIT_CONCURRENCY
+import org.gradle.github.dependencygraph.PARAM_SUBMIT_TOKEN
+import org.gradle.github.dependencygraph.PARAM_SUBMIT_URL
+import java.io.IOException
+import java.io.InputStream
+import java.net.HttpRetryException
+import java.net.HttpURLConnection
+import java.net.URL
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.Semaphore
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.zip.GZIPOutputStream
+
+/**
+ * The response to a submitted dependency snapshot.
+ */
+data class Submission(val name: String, val status: Int, val attempts: Int, val response: String)
+
+/**
+ * Submits dependency snapshots to a Dependency Submission API endpoint.
+ *
+ * Each snapshot is serialized straight into a gzip-compressed, chunked request body, without being written to a file first.
+ * Up to `concurrency` snapshots are uploaded at the same time. Each response is read to the end, so that
+ * the keep-alive connection is returned to the JVM connection cache and reused by the next upload.
+ * Uploads that fail with a server error, a rate limit or an I/O error are retried with exponential backoff,
+ * or after the delay given by a `Retry-After` response header.
+ */
+class SnapshotSubmitter(
+    private val url: URL,
+    private val token: String?,
+    concurrency: Int,
+    private val maxAttempts: Int = MAX_ATTEMPTS
+) : AutoCloseable {
+    init {
+        check(concurrency >= 1) { "The number of concurrent submissions must be at least 1: $concurrency" }
+    }
+
+    private val executor = Executors.newFixedThreadPool(concurrency) { runnable ->
+        Thread(runnable, "dependency-snapshot-submitter-${threadCount.incrementAndGet()}").apply { isDaemon = true }
+    }
+    private val submissions = mutableListOf<Future<Submission>>()
+    // Limits the snapshots held in memory while waiting to be uploaded
+    private val queued = Semaphore(concurrency * 2)
+
+    /**
+     * Starts the submission of the snapshot, which is serialized again for each attempt.
+     * Blocks while twice as many snapshots as concurrent uploads are waiting or in progress.
+     */
+    fun submit(name: String, snapshot: Any) {
+        queued.acquire()
+        submissions.add(executor.submit(Callable {
+            try {
+                upload(name, snapshot)
+            } finally {
+                queued.release()
+            }
+        }))
+    }
+
+    /**
+     * Waits for every submission to complete, logging and returning the responses in the order the snapshots were submitted.
+     * If any submission fails, the first failure is rethrown once all submissions have completed, with the other failures suppressed.
+     */
+    fun await(): List<Submission> {
+        val completed = mutableListOf<Submission>()
+        var failure: Throwable? = null
+        for (submission in submissions) {
+            try {
+                val completedSubmission = submission.get()
+                LOGGER.lifecycle(
+                    "Submitted dependency snapshot '${completedSubmission.name}' to $url " +
+                        "(HTTP ${completedSubmission.status}, ${completedSubmission.attempts} attempt(s)): ${completedSubmission.response}"
+                )
+                completed.add(completedSubmission)
+            } catch (e: ExecutionException) {
+                val cause = e.cause ?: e
+                val firstFailure = failure
+                if (firstFailure == null) failure = cause else firstFailure.addSuppressed(cause)
+            }
+        }
+        submissions.clear()
+        failure?.let { throw it }
+        return completed
+    }
+
+    override fun close() {
+        executor.shutdownNow()
+    }
+
+    private fun upload(name: String, snapshot: Any): Submission {
+        var attempt = 0
+        while (true) {
+            attempt++
+            val response = try {
+                post(snapshot)
+            } catch (e: HttpRetryException) {
+                // Thrown for authentication failures and redirects, which cannot be retried with a streamed request body
+                throw IllegalStateException(
+                    "Failed to submit dependency snapshot '$name' to $url: HTTP ${e.responseCode()} ${e.reason}", e
+                )
+            } catch (e: IOException) {
+                if (attempt >= maxAttempts) {
+                    throw IllegalStateException("Failed to submit dependency snapshot '$name' to $url after $attempt attempt(s)", e)
+                }
+                LOGGER.info("Failed to submit dependency snapshot '$name' to $url: ${e.message}")
+                null
+            }
+            if (response != null) {
+                if (response.status in 200..299) {
+                    return Submission(name, response.status, attempt, response.body)
+                }
+                if (!isRetryable(response.status) || attempt >= maxAttempts) {
+                    throw IllegalStateException(
+                        "Failed to submit dependency snapshot '$name' to $url after $attempt attempt(s): HTTP ${response.status} ${response.body}"
+                    )
+                }
+            }
+            val delayMillis = response?.retryAfterMillis ?: backoffMillis(attempt)
+            LOGGER.lifecycle(
+                "Retrying submission of dependency snapshot '$name' in $delayMillis ms" +
+                    (response?.let { ": HTTP ${it.status}" } ?: ": connection failed")
+            )
+            Thread.sleep(delayMillis)
+        }
+    }
+
+    private fun post(snapshot: Any): Response {
+        val connection = url.openConnection() as HttpURLConnection
+        connection.requestMethod = "POST"
+        connection.doOutput = true
+        connection.setChunkedStreamingMode(0)
+        connection.connectTimeout = CONNECT_TIMEOUT_MILLIS
+        connection.readTimeout = READ_TIMEOUT_MILLIS
+        connection.setRequestProperty("Accept", "application/vnd.github+json")
+        connection.setRequestProperty("X-GitHub-Api-Version", API_VERSION)
+        connection.setRequestProperty("Content-Type", "application/json")
+        connection.setRequestProperty("Content-Encoding", "gzip")
+        connection.setRequestProperty("User-Agent", USER_AGENT)
+        if (token != null) {
+            connection.setRequestProperty("Authorization", "Bearer $token")
+        }
+
+        GZIPOutputStream(connection.outputStream).use { JacksonJsonSerializer.serializeToStream(snapshot, it, false) }
+        val status = connection.responseCode
+        val body = readFully(if (status >= 400) connection.errorStream else connection.inputStream)
+        val retryAfterMillis = connection.getHeaderField("Retry-After")?.trim()?.toLongOrNull()
+            ?.let { minOf(it * 1000, MAX_BACKOFF_MILLIS) }
+        return Response(status, body, retryAfterMillis)
+    }
+
+    private fun readFully(stream: InputStream?): String {
+        return stream?.use { it.readBytes().toString(Charsets.UTF_8) }.orEmpty()
+    }
+
+    private fun isRetryable(status: Int): Boolean {
+        return status == 429 || status >= 500
+    }
+
+    /**
+     * Doubles the delay for each attempt, up to a limit, with random jitter so that concurrent uploads do not retry together.
+     */
+    private fun backoffMillis(attempt: Int): Long {
+        val delay = minOf(INITIAL_BACKOFF_MILLIS shl (attempt - 1), MAX_BACKOFF_MILLIS)
+        return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1)
+    }
+
+    private class Response(val status: Int, val body: String, val retryAfterMillis: Long?)
+
+    companion object {
+        private val LOGGER = Logging.getLogger(SnapshotSubmitter::class.java)
+        private val threadCount = AtomicInteger()
+
+        /**
+         * Creates a submitter when a submission endpoint is configured.
+         */
+        fun create(pluginParameters: PluginParameters): SnapshotSubmitter? {
+            val url = pluginParameters.loadOptional(PARAM_SUBMIT_URL) ?: return null
+            return SnapshotSubmitter(
+                URL(url),
+                pluginParameters.loadOptional(PARAM_SUBMIT_TOKEN),
+                pluginParameters.loadOptionalInt(PARAM_SUBMIT_CONCURRENCY, 1) ?: 4
+            )
+        }
+
+        private const val MAX_ATTEMPTS = 5
+        private const val INITIAL_BACKOFF_MILLIS = 1000L
+        private const val MAX_BACKOFF_MILLIS = 60_000L
+        private const val CONNECT_TIMEOUT_MILLIS = 30_000
+        private const val READ_TIMEOUT_MILLIS = 120_000
+        private const val API_VERSION = "2022-11-28"
+        private const val USER_AGENT = "github-dependency-graph-gradle-plugin"
+    }
+}
@@ -0,0 +1,106 @@
+package org.gradle.dependencygraph.binary
+
+import org.gradle.dependencygraph.model.DependencyCoordinates
+import org.gradle.dependencygraph.model.DependencyOrigin
+import org.gradle.dependencygraph.model.DependencyScope
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.model.ResolvedDependency
+import spock.lang.Specification
+import spock.lang.TempDir
+
+class BinaryDependencyGraphTest extends Specification {
+    private static final DependencyOrigin ROOT = new DependencyOrigin("project :", ":")
+
+    @TempDir
+    File tempDir
+
+    def "reads the components, edges and configurations that were written"() {
+        given:
+        def compile = new ResolvedConfiguration(ROOT, "compileClasspath", DependencyScope.Development, [
+            project(":", ["org.test:foo:1.0"]),
+            dependency("org.test:foo:1.0", ["org.test:bar:1.0"]),
+            dependency("org.test:bar:1.0", [])
+        ])
+        def runtime = new ResolvedConfiguration(ROOT, "runtimeClasspath", DependencyScope.Runtime, [
+            project(":", ["org.test:foo:1.0"]),
+            dependency("org.test:foo:1.0", ["org.test:baz:1.0"]),
+            dependency("org.test:baz:1.0", [])
+        ])
+
+        when:
+        def graph = write([compile, runtime], false)
+
+        then:
+        !graph.partial
+        graph.componentCount == 4
+        graph.configurationCount == 2
+
+        and:
+        def foo = graph.findComponent("org.test:foo:1.0")
+        graph.findComponent("pkg:maven/org.test/foo@1.0") == foo
+        graph.componentId(foo) == "org.test:foo:1.0"
+        graph.componentPurl(foo) == "pkg:maven/org.test/foo@1.0"
+        !graph.isProject(foo)
+        graph.isProject(graph.findComponent(":"))
+        graph.findComponent("org.test:missing:1.0") == -1
+
+        and:
+        // The dependencies of a component in every configuration are merged
+        ids(graph, graph.dependencies(foo)) == ["org.test:bar:1.0", "org.test:baz:1.0"] as Set
+        ids(graph, graph.dependents(foo)) == [":"] as Set
+
+        and:
+        def compileIndex = graph.findConfiguration(":", "compileClasspath")
+        def runtimeIndex = graph.findConfiguration(":", "runtimeClasspath")
+        graph.configurationScope(runtimeIndex) == "Runtime"
+        graph.configurationsContaining(foo) == [compileIndex, runtimeIndex].sort()
+        graph.contains(compileIndex, graph.findComponent("org.test:bar:1.0"))
+        !graph.contains(compileIndex, graph.findComponent("org.test:baz:1.0"))
+        ids(graph, graph.members(runtimeIndex)) == [":", "org.test:foo:1.0", "org.test:baz:1.0"] as Set
+        graph.findConfiguration(":", "missing") == -1
+    }
+
+    def "records a partial dependency graph"() {
+        when:
+        def graph = write([new ResolvedConfiguration(ROOT, "compileClasspath", DependencyScope.Development, [])], true)
+
+        then:
+        graph.partial
+        graph.componentCount == 0
+        graph.configurationCount == 1
+        graph.members(0).isEmpty()
+    }
+
+    def "fails to read a file that is not a binary dependency graph"() {
+        given:
+        def file = new File(tempDir, "graph.bin")
+        file.bytes = new byte[64]
+
+        when:
+        new BinaryDependencyGraph(file)
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "Not a binary dependency graph file: ${file.path}"
+    }
+
+    private BinaryDependencyGraph write(List<ResolvedConfiguration> configurations, boolean partial) {
+        def file = new File(tempDir, "graph.bin")
+        BinaryGraphFormat.INSTANCE.write(file, configurations, partial)
+        return new BinaryDependencyGraph(file)
+    }
+
+    private static Set<String> ids(BinaryDependencyGraph graph, List<Integer> components) {
+        return components.collect { graph.componentId(it) } as Set
+    }
+
+    private static ResolvedDependency project(String path, List<String> dependencies) {
+        return new ResolvedDependency(path, ROOT, false, true, new DependencyCoordinates("", "a", "unspecified"), null, dependencies)
+    }
+
+    private static ResolvedDependency dependency(String id, List<String> dependencies) {
+        def parts = id.split(":")
+        def coordinates = new DependencyCoordinates(parts[0], parts[1], parts[2])
+        return new ResolvedDependency(id, ROOT, true, false, coordinates, null, dependencies)
+    }
+}
@@ -0,0 +1,84 @@
+package org.gradle.dependencygraph.explain
+
+import org.gradle.dependencygraph.model.DependencyCoordinates
+import org.gradle.dependencygraph.model.DependencyOrigin
+import org.gradle.dependencygraph.model.DependencyScope
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.model.ResolvedDependency
+import spock.lang.Specification
+
+class DependencyPathExplainerTest extends Specification {
+    private static final DependencyOrigin ROOT = new DependencyOrigin("project :", ":")
+
+    def "explains every shortest path to a module"() {
+        given:
+        // foo -> bar -> qux, foo -> baz -> qux, and a longer path via baz -> deep -> qux
+        def configuration = configuration("runtimeClasspath", [
+            dependency("org.test:foo:1.0", true, ["org.test:bar:1.0", "org.test:baz:1.0"]),
+            dependency("org.test:bar:1.0", false, ["org.test:qux:1.0"]),
+            dependency("org.test:baz:1.0", false, ["org.test:qux:1.0", "org.test:deep:1.0"]),
+            dependency("org.test:deep:1.0", false, ["org.test:qux:1.0"]),
+            dependency("org.test:qux:1.0", false, [])
+        ])
+
+        when:
+        def explanations = DependencyPathExplainer.INSTANCE.explain([configuration], ["org.test:qux"])
+
+        then:
+        explanations.size() == 1
+        explanations[0].component == "org.test:qux:1.0"
+        explanations[0].scope == DependencyScope.Runtime
+        explanations[0].describe() == [
+            ": runtimeClasspath: org.test:foo:1.0 -> org.test:bar:1.0 -> org.test:qux:1.0",
+            ": runtimeClasspath: org.test:foo:1.0 -> org.test:baz:1.0 -> org.test:qux:1.0"
+        ]
+    }
+
+    def "explains a direct dependency with a path of its own"() {
+        given:
+        def configuration = configuration("compileClasspath", [
+            dependency("org.test:foo:1.0", true, ["org.test:bar:1.0"]),
+            dependency("org.test:bar:1.0", true, [])
+        ])
+
+        when:
+        def explanations = DependencyPathExplainer.INSTANCE.explain([configuration], ["org.test:bar:1.0"])
+
+        then:
+        explanations*.paths == [[["org.test:bar:1.0"]]]
+    }
+
+    def "only explains modules in the configurations that contain them"() {
+        given:
+        def compile = configuration("compileClasspath", [dependency("org.test:foo:1.0", true, [])])
+        def runtime = configuration("runtimeClasspath", [dependency("org.test:bar:2.0", true, [])])
+
+        when:
+        def explanations = DependencyPathExplainer.INSTANCE.explain([compile, runtime], ["org.test:bar", "org.test:foo:2.0"])
+
+        then:
+        explanations*.configuration == ["runtimeClasspath"]
+        explanations*.component == ["org.test:bar:2.0"]
+    }
+
+    def "fails for an invalid module"() {
+        when:
+        DependencyPathExplainer.INSTANCE.explain([], ["org.test"])
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "Invalid module 'org.test': expected 'group:module' or 'group:module:version'"
+    }
+
+    private static ResolvedConfiguration configuration(String name, List<ResolvedDependency> dependencies) {
+        def scope = name.startsWith("runtime") ? DependencyScope.Runtime : DependencyScope.Development
+        return new ResolvedConfiguration(ROOT, name, scope, dependencies)
+    }
+
+    private static ResolvedDependency dependency(String id, boolean isDirect, List<String> dependencies) {
+        def parts = id.split(":")
+        def coordinates = new DependencyCoordinates(parts[0], parts[1], parts[2])
+        def origin = isDirect ? ROOT : new DependencyOrigin("org.test:parent:1.0", "")
+        return new ResolvedDependency(id, origin, isDirect, false, coordinates, null, dependencies)
+    }
+}
@@ -0,0 +1,53 @@
+package org.gradle.dependencygraph.extractor
+
+import spock.lang.Specification
+
+class ProjectShardsTest extends Specification {
+
+    def "assigns every project to a shard by a stable hash without weights"() {
+        given:
+        def projects = (1..50).collect { ":project-$it".toString() }
+
+        when:
+        def shards = ProjectShards.INSTANCE.partition(projects, 4, [:])
+
+        then:
+        shards.keySet() == projects as Set
+        shards.values().every { it >= 0 && it < 4 }
+        shards.values().toSet().size() == 4
+
+        and:
+        ProjectShards.INSTANCE.partition(projects.reverse(), 4, [:]) == shards
+    }
+
+    def "assigns the heaviest projects first to the least loaded shard"() {
+        when:
+        def shards = ProjectShards.INSTANCE.partition([":a", ":b", ":c", ":d"], 2, [":a": 100L, ":b": 60L, ":c": 50L, ":d": 10L])
+
+        then:
+        shards == [":a": 0, ":b": 1, ":c": 1, ":d": 0]
+    }
+
+    def "gives projects without a weight the mean weight of the other projects"() {
+        when:
+        def shards = ProjectShards.INSTANCE.partition([":a", ":b", ":c"], 2, [":a": 30L, ":b": 10L])
+
+        then:
+        // :c weighs 20, so it is assigned after :a and before :b
+        shards == [":a": 0, ":c": 1, ":b": 1]
+    }
+
+    def "assigns every project to the only shard"() {
+        expect:
+        ProjectShards.INSTANCE.partition([":a", ":b"], 1, [":a": 5L]).values().toSet() == [0] as Set
+    }
+
+    def "fails when the number of shards is less than 1"() {
+        when:
+        ProjectShards.INSTANCE.partition([":a"], 0, [:])
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "The number of shards must be at least 1: 0"
+    }
+}
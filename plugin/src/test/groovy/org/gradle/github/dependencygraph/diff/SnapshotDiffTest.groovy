@@ -0,0 +1,99 @@
+package org.gradle.github.dependencygraph.diff
+
+import org.gradle.github.dependencygraph.SnapshotPackage
+import org.gradle.github.dependencygraph.model.GitHubDependency
+import spock.lang.Specification
+
+import static org.gradle.github.dependencygraph.model.GitHubDependency.Relationship.direct
+import static org.gradle.github.dependencygraph.model.GitHubDependency.Relationship.indirect
+import static org.gradle.github.dependencygraph.model.GitHubDependency.Scope.development
+import static org.gradle.github.dependencygraph.model.GitHubDependency.Scope.runtime
+
+class SnapshotDiffTest extends Specification {
+
+    def "reports added, removed and changed packages in package name order"() {
+        given:
+        def before = [
+            snapshotPackage("org.test:bar:1.0", direct, runtime),
+            snapshotPackage("org.test:baz:1.0", indirect, runtime),
+            snapshotPackage("org.test:foo:1.0", direct, runtime)
+        ]
+        def after = [
+            snapshotPackage("org.test:bar:2.0", direct, runtime),
+            snapshotPackage("org.test:foo:1.0", direct, runtime),
+            snapshotPackage("org.test:qux:1.0", indirect, development)
+        ]
+
+        when:
+        def changes = changes(before, after)
+
+        then:
+        changes*.describe() == [
+            "~ org.test:bar 1.0 (direct, runtime) -> 2.0 (direct, runtime)",
+            "- org.test:baz 1.0 (indirect, runtime)",
+            "+ org.test:qux 1.0 (indirect, development)"
+        ]
+    }
+
+    def "reports a package as changed when its relationship or scope changes"() {
+        given:
+        def before = [snapshotPackage("org.test:foo:1.0", indirect, development)]
+        def after = [snapshotPackage("org.test:foo:1.0", direct, runtime)]
+
+        when:
+        def changes = changes(before, after)
+
+        then:
+        changes.size() == 1
+        changes[0].change == DependencyChange.Type.changed
+        changes[0].before*.relationship == [indirect]
+        changes[0].after*.scope == [runtime]
+    }
+
+    def "groups every version of a package into a single change"() {
+        given:
+        def before = [
+            snapshotPackage("org.test:foo:1.0", direct, runtime),
+            snapshotPackage("org.test:foo:2.0", indirect, runtime)
+        ]
+        def after = [snapshotPackage("org.test:foo:2.0", indirect, runtime)]
+
+        when:
+        def changes = changes(before, after)
+
+        then:
+        changes*.describe() == ["~ org.test:foo 1.0 (direct, runtime), 2.0 (indirect, runtime) -> 2.0 (indirect, runtime)"]
+    }
+
+    def "compares package names in component ID order when one name prefixes another"() {
+        given:
+        def before = [
+            snapshotPackage("org.test:foo-core:1.0", direct, runtime),
+            snapshotPackage("org.test:foo:1.0", direct, runtime)
+        ]
+        def after = [snapshotPackage("org.test:foo-core:1.0", direct, runtime)]
+
+        when:
+        def changes = changes(before, after)
+
+        then:
+        changes*.describe() == ["- org.test:foo 1.0 (direct, runtime)"]
+    }
+
+    def "reports no changes for identical packages"() {
+        given:
+        def packages = [snapshotPackage("org.test:foo:1.0", direct, runtime)]
+
+        expect:
+        changes(packages, packages).isEmpty()
+    }
+
+    private static List<DependencyChange> changes(List<SnapshotPackage> before, List<SnapshotPackage> after) {
+        return SnapshotDiff.INSTANCE.changes(before.iterator(), after.iterator()).iterator().toList()
+    }
+
+    private static SnapshotPackage snapshotPackage(String id, GitHubDependency.Relationship relationship, GitHubDependency.Scope scope) {
+        def parts = id.split(":")
+        return new SnapshotPackage(id, "pkg:maven/${parts[0]}/${parts[1]}@${parts[2]}", relationship, scope, [])
+    }
+}
@@ -0,0 +1,109 @@
+package org.gradle.github.dependencygraph.merge
+
+import com.fasterxml.jackson.databind.JsonNode
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.gradle.dependencygraph.util.OutputEncoding
+import spock.lang.Specification
+import spock.lang.TempDir
+
+class SnapshotMergerTest extends Specification {
+
+    @TempDir
+    File tempDir
+
+    def "merges packages of several snapshots in component ID order"() {
+        given:
+        def first = snapshot("first.json", "job-1", [
+            "first-a": [
+                "org.test:foo:1.0": dependency("org.test/foo@1.0", "direct", "development", ["org.test:bar:1.0"]),
+                "org.test:bar:1.0": dependency("org.test/bar@1.0", "indirect", "development", [])
+            ]
+        ])
+        def second = snapshot("second.json", "job-2", [
+            "second-a": [
+                "org.test:qux:1.0": dependency("org.test/qux@1.0", "direct", "runtime", []),
+                "org.test:foo:1.0": dependency("org.test/foo@1.0", "indirect", "runtime", ["org.test:baz:1.0"])
+            ],
+            "second-b": [
+                "org.test:baz:1.0": dependency("org.test/baz@1.0", "indirect", "runtime", []),
+                "org.test:abc:1.0": dependency("org.test/abc@1.0", "direct", null, [])
+            ]
+        ])
+        def output = new File(tempDir, "merged.json")
+
+        when:
+        def summary = SnapshotMerger.INSTANCE.merge([first, second], "merged", output, OutputEncoding.Compact)
+
+        then:
+        summary.inputs == 2
+        summary.packages == 5
+
+        and:
+        def merged = new ObjectMapper().readTree(output)
+        merged.path("job").path("id").asText() == "job-1"
+        merged.path("job").path("correlator").asText() == "merged"
+        def resolved = merged.path("manifests").path("merged").path("resolved")
+        resolved.fieldNames().toList() == ["org.test:abc:1.0", "org.test:bar:1.0", "org.test:baz:1.0", "org.test:foo:1.0", "org.test:qux:1.0"]
+
+        and:
+        def foo = resolved.path("org.test:foo:1.0")
+        foo.path("relationship").asText() == "direct"
+        foo.path("scope").asText() == "runtime"
+        foo.path("dependencies")*.asText() == ["org.test:bar:1.0", "org.test:baz:1.0"]
+        !resolved.path("org.test:abc:1.0").has("scope")
+    }
+
+    def "merged snapshot is partial if any input is partial"() {
+        given:
+        def complete = snapshot("complete.json", "job-1", ["complete": [:]])
+        def partial = snapshot("partial.json", "job-2", ["partial": [:]], [partial: true, unresolved: ":a compileClasspath"])
+        def output = new File(tempDir, "merged.json")
+
+        when:
+        SnapshotMerger.INSTANCE.merge([complete, partial], "merged", output, OutputEncoding.Compact)
+
+        then:
+        def metadata = new ObjectMapper().readTree(output).path("manifests").path("merged").path("metadata")
+        metadata.path("partial").asBoolean()
+        metadata.path("unresolved").asText() == ":a compileClasspath"
+    }
+
+    def "fails without any snapshot to merge"() {
+        when:
+        SnapshotMerger.INSTANCE.merge([], "merged", new File(tempDir, "merged.json"), OutputEncoding.Compact)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    private File snapshot(String fileName, String jobId, Map<String, Map<String, Map>> manifests, Map metadata = null) {
+        def mapper = new ObjectMapper()
+        def snapshot = mapper.createObjectNode()
+        snapshot.put("version", 0)
+        snapshot.putObject("job").put("id", jobId).put("correlator", fileName)
+        snapshot.put("sha", "abc123")
+        snapshot.put("ref", "refs/heads/main")
+        def manifestsNode = snapshot.putObject("manifests")
+        manifests.each { name, resolved ->
+            def manifest = manifestsNode.putObject(name)
+            manifest.put("name", name)
+            manifest.set("resolved", mapper.valueToTree(resolved) as JsonNode)
+            if (metadata != null) {
+                manifest.set("metadata", mapper.valueToTree(metadata) as JsonNode)
+            }
+        }
+        snapshot.put("scanned", "2024-01-01T00:00:00Z")
+        def file = new File(tempDir, fileName)
+        mapper.writeValue(file, snapshot)
+        return file
+    }
+
+    private static Map dependency(String purl, String relationship, String scope, List<String> dependencies) {
+        def dependency = [package_url: "pkg:maven/${purl}".toString(), relationship: relationship]
+        if (scope != null) {
+            dependency.scope = scope
+        }
+        dependency.dependencies = dependencies
+        return dependency
+    }
+}
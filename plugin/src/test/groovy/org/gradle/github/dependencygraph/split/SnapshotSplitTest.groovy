@@ -0,0 +1,119 @@
+package org.gradle.github.dependencygraph.split
+
+import org.gradle.dependencygraph.model.BuildLayout
+import org.gradle.dependencygraph.model.DependencyCoordinates
+import org.gradle.dependencygraph.model.DependencyOrigin
+import org.gradle.dependencygraph.model.DependencyScope
+import org.gradle.dependencygraph.model.ResolvedConfiguration
+import org.gradle.dependencygraph.model.ResolvedDependency
+import spock.lang.Specification
+import spock.lang.TempDir
+
+class SnapshotSplitTest extends Specification {
+
+    @TempDir
+    File tempDir
+
+    private BuildLayout buildLayout = new BuildLayout()
+
+    def "splits configurations by project with keys derived from the project path"() {
+        given:
+        def rootBuildFile = buildFile("build.gradle")
+        buildLayout.addProject(":", rootBuildFile.path, tempDir.path, tempDir.path)
+        def configurations = [
+            configuration(":app:core", "runtimeClasspath", ["org.test:foo:1.0"]),
+            configuration(":", "compileClasspath", ["org.test:bar:1.0"]),
+            configuration(":app:core", "compileClasspath", ["org.test:foo:1.0"])
+        ]
+
+        when:
+        def parts = new SnapshotSplit(SplitMode.Project, null).parts(configurations, buildLayout, 100).iterator().toList()
+
+        then:
+        parts*.key == ["root", "app_core"]
+        parts[0].sourceFile == rootBuildFile
+        parts[1].sourceFile == null
+        parts[1].configurations*.configurationName == ["compileClasspath", "runtimeClasspath"]
+    }
+
+    def "splits configurations by build with the settings file of each build"() {
+        given:
+        def rootSettings = buildFile("settings.gradle")
+        def includedSettings = buildFile("included/settings.gradle")
+        buildLayout.addSettings(":", rootSettings.path)
+        buildLayout.addSettings(":included", includedSettings.path)
+        def configurations = [
+            configuration(":", "compileClasspath", ["org.test:foo:1.0"]),
+            configuration(":included:lib", "compileClasspath", ["org.test:bar:1.0"]),
+            configuration(":lib", "compileClasspath", ["org.test:baz:1.0"])
+        ]
+
+        when:
+        def parts = new SnapshotSplit(SplitMode.Build, null).parts(configurations, buildLayout, 100).iterator().toList()
+
+        then:
+        parts*.key == ["root", "included"]
+        parts*.sourceFile == [rootSettings, includedSettings]
+        parts[0].configurations*.rootOrigin*.path == [":", ":lib"]
+    }
+
+    def "packs projects in path order into parts up to the size target"() {
+        given:
+        def configurations = (1..6).collect { configuration(":p$it", "compileClasspath", ["org.test:module-$it:1.0"]) }
+        def onePackage = packageBytes("org.test:module-1:1.0")
+
+        when:
+        def parts = new SnapshotSplit(SplitMode.Size, 100 + onePackage * 2).parts(configurations, buildLayout, 100).iterator().toList()
+
+        then:
+        parts*.key == ["part-1", "part-2", "part-3"]
+        parts*.configurations*.size() == [2, 2, 2]
+        parts.collectMany { it.configurations }*.rootOrigin*.path == (1..6).collect { ":p$it" }
+    }
+
+    def "splits a project that exceeds the size target into its configurations"() {
+        given:
+        def configurations = [
+            configuration(":a", "compileClasspath", ["org.test:foo:1.0"]),
+            configuration(":a", "runtimeClasspath", ["org.test:bar:1.0"])
+        ]
+
+        when:
+        def parts = new SnapshotSplit(SplitMode.Size, 100 + packageBytes("org.test:foo:1.0")).parts(configurations, buildLayout, 100).iterator().toList()
+
+        then:
+        parts*.configurations*.configurationName == [["compileClasspath"], ["runtimeClasspath"]]
+    }
+
+    def "fails to split by size without a size target"() {
+        when:
+        new SnapshotSplit(SplitMode.Size, null).parts([configuration(":", "compileClasspath", [])], buildLayout, 100).iterator().toList()
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "GITHUB_DEPENDENCY_GRAPH_SPLIT_MAX_BYTES must be set to split by size"
+    }
+
+    private File buildFile(String path) {
+        def file = new File(tempDir, path)
+        file.parentFile.mkdirs()
+        file.createNewFile()
+        return file
+    }
+
+    // The size estimate of a package without dependencies, as in the snapshot
+    private static long packageBytes(String id) {
+        return dependency(id).packageUrl().length() + id.length() + 88
+    }
+
+    private static ResolvedConfiguration configuration(String projectPath, String name, List<String> dependencyIds) {
+        def origin = new DependencyOrigin("project $projectPath", projectPath)
+        return new ResolvedConfiguration(origin, name, DependencyScope.Development, dependencyIds.collect { dependency(it) })
+    }
+
+    private static ResolvedDependency dependency(String id) {
+        def parts = id.split(":")
+        def coordinates = new DependencyCoordinates(parts[0], parts[1], parts[2])
+        return new ResolvedDependency(id, new DependencyOrigin("project :", ":"), true, false, coordinates, null, [])
+    }
+}